@@ -0,0 +1,66 @@
+package com.library.management.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit: grows by one while requests complete under the latency target and the limit
+ * is actually in use, and shrinks multiplicatively (at most once per target interval) on slow or failed
+ * requests. Requests over the limit are rejected immediately instead of queueing.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecrease = new AtomicLong();
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    boolean tryAcquire(double share) {
+        int effectiveLimit = Math.max(minLimit, (int) (limit.get() * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= effectiveLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean failed, long now) {
+        int current = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyTargetNanos) {
+            long last = lastDecrease.get();
+            if (now - last > latencyTargetNanos && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(value -> Math.max(minLimit, (int) (value * BACKOFF_RATIO)));
+            }
+        } else if (current * 2 >= limit.get()) {
+            limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+        }
+    }
+
+    boolean isUnderPressure() {
+        return inFlight.get() * 4 >= limit.get() * 3;
+    }
+
+    int getLimit() {
+        return limit.get();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,136 @@
+package com.library.management.admission;
+
+import com.library.management.exception.ServiceOverloadedException;
+import com.library.management.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class AdmissionControl {
+
+    // Catalog and reporting traffic only gets half its limit while circulation is under pressure
+    private static final double DEPRIORITIZED_SHARE = 0.5;
+    // A trim goes down to this share of max-tracked-clients, so a flood of new clients costs one pass per tenth
+    private static final double TRIM_TARGET = 0.9;
+    // Activity levels looked at to choose which clients to evict, instead of sorting all of them
+    private static final int TRIM_SAMPLE = 1024;
+    private static final long EVICTION_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final AdmissionProperties properties;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final LongAdder evictedSinceWarning = new LongAdder();
+    private volatile long lastEvictionWarning = System.nanoTime() - EVICTION_WARNING_INTERVAL_NANOS;
+
+    public AdmissionControl(AdmissionProperties properties) {
+        this.properties = properties;
+        properties.getLimits().forEach((endpointClass, limit) -> limiters.put(endpointClass,
+                new AdaptiveConcurrencyLimiter(limit.getInitial(), limit.getMin(), limit.getMax(),
+                        limit.getLatencyTarget().toNanos())));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void admit(String clientId, EndpointClass endpointClass, long now) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(clientId,
+                    id -> new TokenBucket(properties.getClientRate(), properties.getClientBurst(), now));
+            // Many distinct clients (or spoofed addresses) between two scheduled evictions
+            if (buckets.size() > properties.getMaxTrackedClients() && trimming.compareAndSet(false, true)) {
+                try {
+                    trimClients(now);
+                } finally {
+                    trimming.set(false);
+                }
+            }
+        }
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Rate limit exceeded, retry later", retryAfterSeconds(waitNanos));
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiters.get(endpointClass);
+        double share = endpointClass != EndpointClass.CIRCULATION
+                && limiters.get(EndpointClass.CIRCULATION).isUnderPressure() ? DEPRIORITIZED_SHARE : 1.0;
+        if (!limiter.tryAcquire(share)) {
+            throw new ServiceOverloadedException("Server is at capacity for " + endpointClass.name().toLowerCase()
+                    + " requests, retry later", 1);
+        }
+    }
+
+    public void complete(EndpointClass endpointClass, long startNanos, boolean failed) {
+        long now = System.nanoTime();
+        limiters.get(endpointClass).release(now - startNanos, failed, now);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        trimClients(System.nanoTime());
+        limiters.forEach((endpointClass, limiter) -> log.debug("Admission limit for {}: {} ({} in flight)",
+                endpointClass, limiter.getLimit(), limiter.getInFlight()));
+    }
+
+    // Drops idle clients and, above max-tracked-clients, about enough of those that have used the fewest tokens
+    // lately to get back to the trim target: for them starting over with a full bucket makes the least difference
+    void trimClients(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        int size = buckets.size();
+        int maxTrackedClients = properties.getMaxTrackedClients();
+        if (size <= maxTrackedClients) {
+            return;
+        }
+        int excess = size - (int) (maxTrackedClients * TRIM_TARGET);
+        long threshold = evictionThreshold((double) excess / size);
+        int evicted = 0;
+        for (Iterator<TokenBucket> it = buckets.values().iterator(); it.hasNext() && evicted < excess; ) {
+            if (it.next().theoreticalArrival() <= threshold) {
+                it.remove();
+                evicted++;
+            }
+        }
+        evictedSinceWarning.add(evicted);
+        if (now - lastEvictionWarning >= EVICTION_WARNING_INTERVAL_NANOS) {
+            lastEvictionWarning = now;
+            log.warn("Tracking more than {} rate-limited clients, evicted the {} least active in the last minute",
+                    maxTrackedClients, evictedSinceWarning.sumThenReset());
+        }
+    }
+
+    // Activity level below which about the given share of clients lies, estimated from a sample
+    private long evictionThreshold(double share) {
+        long[] sample = new long[TRIM_SAMPLE];
+        int sampled = 0;
+        for (Iterator<TokenBucket> it = buckets.values().iterator(); it.hasNext() && sampled < sample.length; ) {
+            sample[sampled++] = it.next().theoreticalArrival();
+        }
+        if (sampled == 0) {
+            return Long.MIN_VALUE;
+        }
+        Arrays.sort(sample, 0, sampled);
+        int index = (int) Math.ceil(share * sampled) - 1;
+        return sample[Math.max(0, Math.min(sampled - 1, index))];
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
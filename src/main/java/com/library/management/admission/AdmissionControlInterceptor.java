@@ -0,0 +1,47 @@
+package com.library.management.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final String ENDPOINT_CLASS_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".endpointClass";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!admissionControl.isEnabled()) {
+            return true;
+        }
+
+        EndpointClass endpointClass = EndpointClass.of(request);
+        long now = System.nanoTime();
+        admissionControl.admit(clientId(request), endpointClass, now);
+
+        request.setAttribute(ENDPOINT_CLASS_ATTRIBUTE, endpointClass);
+        request.setAttribute(START_ATTRIBUTE, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ENDPOINT_CLASS_ATTRIBUTE) instanceof EndpointClass endpointClass) {
+            boolean failed = ex != null || response.getStatus() >= 500;
+            admissionControl.complete(endpointClass, (Long) request.getAttribute(START_ATTRIBUTE), failed);
+        }
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+}
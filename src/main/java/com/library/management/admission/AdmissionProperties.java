@@ -0,0 +1,48 @@
+package com.library.management.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Per client (X-API-Key header, or remote address) token bucket
+    private double clientRate = 50;
+    private int clientBurst = 100;
+    private int maxTrackedClients = 100_000;
+
+    private Map<EndpointClass, Limit> limits = new EnumMap<>(Map.of(
+            EndpointClass.CIRCULATION, new Limit(40, 5, 200, Duration.ofMillis(250)),
+            EndpointClass.CATALOG, new Limit(40, 5, 200, Duration.ofMillis(250)),
+            EndpointClass.REPORTING, new Limit(8, 1, 32, Duration.ofSeconds(2))));
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int initial = 20;
+        private int min = 1;
+        private int max = 200;
+        private Duration latencyTarget = Duration.ofMillis(500);
+
+        public Limit() {
+        }
+
+        public Limit(int initial, int min, int max, Duration latencyTarget) {
+            this.initial = initial;
+            this.min = min;
+            this.max = max;
+            this.latencyTarget = latencyTarget;
+        }
+    }
+}
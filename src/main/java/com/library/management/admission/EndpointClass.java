@@ -0,0 +1,35 @@
+package com.library.management.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum EndpointClass {
+
+    // Desk operations: borrow, return, mark lost
+    CIRCULATION,
+    // Overdue/active/low-stock style reports, circulation analytics and live stats
+    REPORTING,
+    // Everything else: catalog and patron browsing and maintenance
+    CATALOG;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+
+        if (path.startsWith("/api/borrow")) {
+            if ("POST".equals(method) && (path.equals("/api/borrow") || path.equals("/api/borrow/return"))) {
+                return CIRCULATION;
+            }
+            if ("PATCH".equals(method) && path.endsWith("/mark-lost")) {
+                return CIRCULATION;
+            }
+            if (path.equals("/api/borrow/overdue") || path.equals("/api/borrow/active")) {
+                return REPORTING;
+            }
+        }
+        if (path.startsWith("/api/books/inventory") || path.startsWith("/api/analytics")
+                || path.startsWith("/api/stats")) {
+            return REPORTING;
+        }
+        return CATALOG;
+    }
+}
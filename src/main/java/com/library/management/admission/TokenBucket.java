@@ -0,0 +1,45 @@
+package com.library.management.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the whole bucket state is a
+ * single "theoretical arrival time" updated with CAS, so admission never blocks or allocates.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double tokensPerSecond, int burst, long now) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one becomes available
+    long tryConsume(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Further in the future for clients that have been using their tokens recently
+    long theoreticalArrival() {
+        return theoreticalArrival.get();
+    }
+
+    // A full bucket is indistinguishable from a new one and can be dropped
+    boolean isFull(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.management.analytics;
+
+import com.library.management.analytics.CirculationSnapshot.Columns;
+import com.library.management.entity.BorrowRecord.BorrowStatus;
+import com.library.management.entity.Borrower.MembershipType;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join scan of a {@link Columns} view over loans borrowed between {@code fromDay} and
+ * {@code toDay} (epoch days, inclusive). Each leaf fills its own {@link CirculationTotals} and the
+ * partial results are merged on the way back up.
+ */
+public final class CirculationAggregation extends RecursiveTask<CirculationTotals> {
+
+    private static final int LEAF_ROWS = 1 << 15;
+    private static final int LOST = BorrowStatus.LOST.ordinal();
+
+    private final Columns columns;
+    private final int fromDay;
+    private final int toDay;
+    private final int today;
+    private final short[] monthOfDay;
+    private final int months;
+    private final int start;
+    private final int end;
+
+    public CirculationAggregation(Columns columns, int fromDay, int toDay, int today, short[] monthOfDay, int months) {
+        this(columns, fromDay, toDay, today, monthOfDay, months, 0, columns.size());
+    }
+
+    private CirculationAggregation(Columns columns, int fromDay, int toDay, int today, short[] monthOfDay,
+                                   int months, int start, int end) {
+        this.columns = columns;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.today = today;
+        this.monthOfDay = monthOfDay;
+        this.months = months;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected CirculationTotals compute() {
+        if (end - start <= LEAF_ROWS) {
+            return scan();
+        }
+        int middle = (start + end) >>> 1;
+        CirculationAggregation left = new CirculationAggregation(columns, fromDay, toDay, today, monthOfDay, months, start, middle);
+        CirculationAggregation right = new CirculationAggregation(columns, fromDay, toDay, today, monthOfDay, months, middle, end);
+        left.fork();
+        CirculationTotals totals = right.compute();
+        totals.merge(left.join());
+        return totals;
+    }
+
+    private CirculationTotals scan() {
+        int categoryCount = columns.categories().length;
+        CirculationTotals totals = new CirculationTotals(categoryCount, months, MembershipType.values().length);
+        int[] category = columns.category();
+        byte[] membership = columns.membership();
+        byte[] status = columns.status();
+        int[] borrowDay = columns.borrowDay();
+        int[] dueDay = columns.dueDay();
+        int[] returnDay = columns.returnDay();
+        double[] fine = columns.fine();
+
+        for (int row = start; row < end; row++) {
+            int borrowed = borrowDay[row];
+            int code = category[row];
+            if (borrowed < fromDay || borrowed > toDay || code >= categoryCount) {
+                continue;
+            }
+            int month = monthOfDay[borrowed - fromDay];
+            totals.loans[code * months + month]++;
+            totals.fines[month] += fine[row];
+            totals.rows++;
+
+            int returned = returnDay[row];
+            if (returned != CirculationSnapshot.NO_DATE) {
+                totals.loanDays[code] += returned - borrowed;
+                totals.returnedLoans[code]++;
+            }
+
+            int type = membership[row];
+            totals.loansByMembership[type]++;
+            boolean overdue = returned != CirculationSnapshot.NO_DATE
+                    ? returned > dueDay[row]
+                    : status[row] == LOST || dueDay[row] < today;
+            if (overdue) {
+                totals.overdueByMembership[type]++;
+            }
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.management.analytics;
+
+import com.library.management.entity.BorrowRecord.BorrowStatus;
+import com.library.management.entity.Borrower.MembershipType;
+import com.library.management.util.LongIntHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of borrow_records for reporting: one primitive array per attribute, dates as
+ * epoch days and enums/categories as small codes. A single writer upserts rows and then publishes a
+ * {@link Columns} view; readers only ever see rows below the published size. Rows updated in place
+ * may be observed mid-update by a concurrent report, which only matters at the level of one loan.
+ */
+public final class CirculationSnapshot {
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final LongIntHashMap rowsById = new LongIntHashMap(1 << 16);
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final List<String> categories = new ArrayList<>();
+
+    private int[] category = new int[0];
+    private byte[] membership = new byte[0];
+    private byte[] status = new byte[0];
+    private int[] borrowDay = new int[0];
+    private int[] dueDay = new int[0];
+    private int[] returnDay = new int[0];
+    private double[] fine = new double[0];
+    private int size;
+
+    private volatile Columns published = new Columns(0, category, membership, status, borrowDay, dueDay,
+            returnDay, fine, new String[0]);
+
+    public void upsert(long id, String categoryName, MembershipType membershipType, BorrowStatus borrowStatus,
+                       LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate, double fineAmount) {
+        int row = rowsById.getOrDefault(id, -1);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowsById.put(id, row);
+        }
+        category[row] = categoryCodes.computeIfAbsent(categoryName, name -> {
+            categories.add(name);
+            return categories.size() - 1;
+        });
+        membership[row] = (byte) membershipType.ordinal();
+        status[row] = (byte) borrowStatus.ordinal();
+        borrowDay[row] = (int) borrowDate.toEpochDay();
+        dueDay[row] = (int) dueDate.toEpochDay();
+        returnDay[row] = returnDate == null ? NO_DATE : (int) returnDate.toEpochDay();
+        fine[row] = fineAmount;
+    }
+
+    public void publish() {
+        published = new Columns(size, category, membership, status, borrowDay, dueDay, returnDay, fine,
+                categories.toArray(new String[0]));
+    }
+
+    public Columns columns() {
+        return published;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= category.length) {
+            return;
+        }
+        int capacity = Math.max(required, Math.max(1024, category.length + (category.length >> 1)));
+        category = Arrays.copyOf(category, capacity);
+        membership = Arrays.copyOf(membership, capacity);
+        status = Arrays.copyOf(status, capacity);
+        borrowDay = Arrays.copyOf(borrowDay, capacity);
+        dueDay = Arrays.copyOf(dueDay, capacity);
+        returnDay = Arrays.copyOf(returnDay, capacity);
+        fine = Arrays.copyOf(fine, capacity);
+    }
+
+    public record Columns(int size, int[] category, byte[] membership, byte[] status, int[] borrowDay,
+                          int[] dueDay, int[] returnDay, double[] fine, String[] categories) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.management.analytics;
+
+/**
+ * Partial aggregates produced by {@link CirculationAggregation}; loans are laid out as
+ * {@code [category * months + month]}.
+ */
+public final class CirculationTotals {
+
+    final int months;
+    final long[] loans;
+    final double[] fines;
+    final long[] loanDays;
+    final long[] returnedLoans;
+    final long[] loansByMembership;
+    final long[] overdueByMembership;
+    long rows;
+
+    CirculationTotals(int categories, int months, int membershipTypes) {
+        this.months = months;
+        this.loans = new long[categories * months];
+        this.fines = new double[months];
+        this.loanDays = new long[categories];
+        this.returnedLoans = new long[categories];
+        this.loansByMembership = new long[membershipTypes];
+        this.overdueByMembership = new long[membershipTypes];
+    }
+
+    void merge(CirculationTotals other) {
+        add(loans, other.loans);
+        add(loanDays, other.loanDays);
+        add(returnedLoans, other.returnedLoans);
+        add(loansByMembership, other.loansByMembership);
+        add(overdueByMembership, other.overdueByMembership);
+        for (int i = 0; i < fines.length; i++) {
+            fines[i] += other.fines[i];
+        }
+        rows += other.rows;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long loans(int category, int month) {
+        return loans[category * months + month];
+    }
+
+    public double fines(int month) {
+        return fines[month];
+    }
+
+    public long loanDays(int category) {
+        return loanDays[category];
+    }
+
+    public long returnedLoans(int category) {
+        return returnedLoans[category];
+    }
+
+    public long loans(int membershipType) {
+        return loansByMembership[membershipType];
+    }
+
+    public long overdueLoans(int membershipType) {
+        return overdueByMembership[membershipType];
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.management.bulkhead;
+
+import com.library.management.exception.ServiceOverloadedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed concurrency budget with a short, bounded queue; requests beyond both are shed with a 503
+final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    Bulkhead(String name, int maxConcurrent, BulkheadProperties.Budget budget) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = budget.getMaxWaiting();
+        this.maxWaitNanos = budget.getMaxWait().toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    void acquire() {
+        if (permits.tryAcquire()) {
+            admitted.increment();
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw overloaded();
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        queued.increment();
+        queueNanos.add(waited);
+        maxQueueNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            rejected.increment();
+            throw overloaded();
+        }
+        admitted.increment();
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    String name() {
+        return name;
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int waiting() {
+        return waiting.get();
+    }
+
+    long admitted() {
+        return admitted.sum();
+    }
+
+    long queued() {
+        return queued.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    double averageQueueMillis() {
+        long count = queued.sum();
+        return count == 0 ? 0 : queueNanos.sum() / 1e6 / count;
+    }
+
+    double maxQueueMillis() {
+        return maxQueueNanos.get() / 1e6;
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Server is at capacity for " + name + " requests, retry later", 1);
+    }
+}
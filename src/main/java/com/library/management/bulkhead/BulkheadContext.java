@@ -0,0 +1,41 @@
+package com.library.management.bulkhead;
+
+import com.library.management.admission.EndpointClass;
+
+import java.util.function.Supplier;
+
+// The endpoint group the current thread works for; selects the group's connection pool, if it has one
+public final class BulkheadContext {
+
+    private static final ThreadLocal<EndpointClass> CURRENT = new ThreadLocal<>();
+
+    private BulkheadContext() {
+    }
+
+    // Null outside requests: background work uses the shared pools
+    public static EndpointClass current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(EndpointClass group, Supplier<T> action) {
+        EndpointClass previous = CURRENT.get();
+        CURRENT.set(group);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static void set(EndpointClass group) {
+        CURRENT.set(group);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
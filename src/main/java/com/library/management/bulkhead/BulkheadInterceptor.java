@@ -0,0 +1,39 @@
+package com.library.management.bulkhead;
+
+import com.library.management.admission.EndpointClass;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Connections are taken lazily by the first query, so setting the group here still picks the pool
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String GROUP_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".group";
+
+    private final Bulkheads bulkheads;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!bulkheads.isEnabled()) {
+            return true;
+        }
+
+        EndpointClass group = EndpointClass.of(request);
+        bulkheads.acquire(group);
+        request.setAttribute(GROUP_ATTRIBUTE, group);
+        BulkheadContext.set(group);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(GROUP_ATTRIBUTE) instanceof EndpointClass group) {
+            BulkheadContext.clear();
+            bulkheads.release(group);
+        }
+    }
+}
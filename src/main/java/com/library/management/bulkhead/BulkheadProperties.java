@@ -0,0 +1,46 @@
+package com.library.management.bulkhead;
+
+import com.library.management.admission.EndpointClass;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.bulkheads")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    private Map<EndpointClass, Budget> groups = new EnumMap<>(Map.of(
+            EndpointClass.CIRCULATION, new Budget(40, 60, Duration.ofSeconds(2), 10),
+            EndpointClass.CATALOG, new Budget(16, 40, Duration.ofMillis(500), 0),
+            EndpointClass.REPORTING, new Budget(6, 6, Duration.ofSeconds(1), 4)));
+
+    @Getter
+    @Setter
+    public static class Budget {
+        // Requests running at once; up to max-waiting more wait at most max-wait for a slot
+        private int maxConcurrent = 20;
+        private int maxWaiting = 20;
+        private Duration maxWait = Duration.ofMillis(500);
+        // Connections per shard in the group's own pool; 0 uses the shard's spring.datasource pool
+        private int poolSize;
+
+        public Budget() {
+        }
+
+        public Budget(int maxConcurrent, int maxWaiting, Duration maxWait, int poolSize) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaiting = maxWaiting;
+            this.maxWait = maxWait;
+            this.poolSize = poolSize;
+        }
+    }
+}
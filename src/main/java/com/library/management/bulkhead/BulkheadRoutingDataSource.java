@@ -0,0 +1,23 @@
+package com.library.management.bulkhead;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Within one shard: the current group's own pool, or the shard's shared pool for groups (and threads) without one
+class BulkheadRoutingDataSource extends AbstractRoutingDataSource {
+
+    BulkheadRoutingDataSource(DataSource shared, Map<?, ? extends DataSource> groupPools) {
+        Map<Object, Object> targets = new HashMap<>(groupPools);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shared);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BulkheadContext.current();
+    }
+}
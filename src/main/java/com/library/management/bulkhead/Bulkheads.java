@@ -0,0 +1,137 @@
+package com.library.management.bulkhead;
+
+import com.library.management.admission.EndpointClass;
+import com.library.management.dto.BulkheadStatsDTO;
+import com.library.management.dto.ConnectionPoolStatsDTO;
+import com.library.management.sharding.ShardRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Isolates endpoint groups (circulation, catalog, reporting) from each other. Each group has a fixed
+ * concurrency budget with a short bounded queue, taken per request by {@link BulkheadInterceptor}, so a
+ * burst of reports holds a bounded number of Tomcat workers. Groups with a {@code pool-size} also get a
+ * Hikari pool of their own on every shard, so their queries never wait behind another group's for a
+ * connection. Background jobs, the cache invalidation listener and groups without a pool use the shard's
+ * shared pool.
+ */
+@Slf4j
+@Component
+public class Bulkheads {
+
+    private final ShardRegistry shardRegistry;
+    private final boolean enabled;
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    // Per shard, the pools of the groups that have one
+    private final Map<String, Map<EndpointClass, HikariDataSource>> pools = new LinkedHashMap<>();
+
+    public Bulkheads(BulkheadProperties properties, ShardRegistry shardRegistry) {
+        this.shardRegistry = shardRegistry;
+        this.enabled = properties.isEnabled();
+        int sharedPoolSize = shardRegistry.shardNames().stream()
+                .mapToInt(shard -> shardRegistry.dataSource(shard).getMaximumPoolSize())
+                .min().orElse(Integer.MAX_VALUE);
+        properties.getGroups().forEach((group, budget) -> {
+            int maxConcurrent = budget.getMaxConcurrent();
+            // On the shared pool, requests beyond its size would only hold a worker while waiting for a connection
+            if (budget.getPoolSize() <= 0 && maxConcurrent > sharedPoolSize) {
+                log.warn("Bulkhead {}: max-concurrent {} exceeds the shared pool's {} connections, using {}",
+                        group.name().toLowerCase(), maxConcurrent, sharedPoolSize, sharedPoolSize);
+                maxConcurrent = sharedPoolSize;
+            }
+            bulkheads.put(group, new Bulkhead(group.name().toLowerCase(), maxConcurrent, budget));
+            if (!enabled || budget.getPoolSize() <= 0) {
+                return;
+            }
+            for (String shard : shardRegistry.shardNames()) {
+                HikariDataSource shared = shardRegistry.dataSource(shard);
+                HikariDataSource pool = new HikariDataSource();
+                shared.copyStateTo(pool);
+                pool.setPoolName(shared.getPoolName() + "-" + group.name().toLowerCase());
+                pool.setMaximumPoolSize(budget.getPoolSize());
+                pools.computeIfAbsent(shard, name -> new EnumMap<>(EndpointClass.class)).put(group, pool);
+            }
+        });
+        if (enabled) {
+            properties.getGroups().forEach((group, budget) -> log.info(
+                    "Bulkhead {}: {} concurrent, {} waiting, {} per shard", group.name().toLowerCase(),
+                    bulkheads.get(group).maxConcurrent(), budget.getMaxWaiting(),
+                    budget.getPoolSize() > 0 ? budget.getPoolSize() + " own connections" : "shared connections"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // What the shard router hands connections out of for this shard
+    public DataSource dataSource(String shard) {
+        return new BulkheadRoutingDataSource(shardRegistry.dataSource(shard), pools.getOrDefault(shard, Map.of()));
+    }
+
+    void acquire(EndpointClass group) {
+        Bulkhead bulkhead = bulkheads.get(group);
+        if (bulkhead != null) {
+            bulkhead.acquire();
+        }
+    }
+
+    void release(EndpointClass group) {
+        Bulkhead bulkhead = bulkheads.get(group);
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    public List<BulkheadStatsDTO> stats() {
+        List<BulkheadStatsDTO> stats = new ArrayList<>();
+        bulkheads.forEach((group, bulkhead) -> {
+            List<ConnectionPoolStatsDTO> groupPools = new ArrayList<>();
+            for (String shard : shardRegistry.shardNames()) {
+                HikariDataSource own = pools.getOrDefault(shard, Map.of()).get(group);
+                groupPools.add(poolStats(own != null ? own : shardRegistry.dataSource(shard), own == null));
+            }
+            stats.add(BulkheadStatsDTO.builder()
+                    .name(bulkhead.name())
+                    .maxConcurrent(bulkhead.maxConcurrent())
+                    .active(bulkhead.active())
+                    .waiting(bulkhead.waiting())
+                    .admitted(bulkhead.admitted())
+                    .queued(bulkhead.queued())
+                    .rejected(bulkhead.rejected())
+                    .averageQueueMillis(bulkhead.averageQueueMillis())
+                    .maxQueueMillis(bulkhead.maxQueueMillis())
+                    .pools(groupPools)
+                    .build());
+        });
+        return stats;
+    }
+
+    @PreDestroy
+    void close() {
+        pools.values().forEach(shardPools -> shardPools.values().forEach(HikariDataSource::close));
+    }
+
+    private static ConnectionPoolStatsDTO poolStats(HikariDataSource pool, boolean shared) {
+        // Pools start on their first connection
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        return ConnectionPoolStatsDTO.builder()
+                .name(pool.getPoolName())
+                .shared(shared)
+                .maxSize(pool.getMaximumPoolSize())
+                .active(bean == null ? 0 : bean.getActiveConnections())
+                .idle(bean == null ? 0 : bean.getIdleConnections())
+                .awaiting(bean == null ? 0 : bean.getThreadsAwaitingConnection())
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.library.management.cache;
+
+import com.library.management.sharding.ShardRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one dedicated connection per shard (outside the Hikari pools) that LISTENs for invalidations
+ * from all nodes and evicts the matching local cache entries. A NOTIFY only reaches listeners on the
+ * database it was issued on, hence one per shard. Notifications sent while a connection was down are
+ * lost, so every (re)connect starts with a full flush of the local caches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private final ShardRegistry shardRegistry;
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    @Value("${library.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.cache.invalidation.poll-timeout:PT1S}")
+    private Duration pollTimeout;
+
+    // Silent network drops don't fail getNotifications, so an idle connection is probed periodically
+    @Value("${library.cache.invalidation.heartbeat-interval:PT30S}")
+    private Duration heartbeatInterval;
+
+    @Value("${library.cache.invalidation.reconnect-delay:PT2S}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running;
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Override
+    public void start() {
+        running = true;
+        for (String shard : shardRegistry.shardNames()) {
+            Thread thread = new Thread(() -> listen(shard), "cache-invalidation-listener-" + shard);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        connections.values().forEach(CacheInvalidationListener::closeQuietly);
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    private void listen(String shard) {
+        while (running) {
+            try (Connection listenerConnection = connect(shardRegistry.dataSource(shard))) {
+                connections.put(shard, listenerConnection);
+                try (Statement statement = listenerConnection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidationPublisher.CHANNEL);
+                }
+                localCacheInvalidator.flushAll();
+                log.info("Listening for cache invalidations on channel {} of shard {}",
+                        CacheInvalidationPublisher.CHANNEL, shard);
+                receive(listenerConnection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener for shard {} disconnected, reconnecting in {}: {}",
+                            shard, reconnectDelay, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void receive(Connection listenerConnection) throws SQLException {
+        PGConnection pgConnection = listenerConnection.unwrap(PGConnection.class);
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+            if (notifications != null && notifications.length > 0) {
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+                lastActivity = System.nanoTime();
+            } else if (System.nanoTime() - lastActivity > heartbeatInterval.toNanos()) {
+                try (Statement statement = listenerConnection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastActivity = System.nanoTime();
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf(':');
+        EntityType type = payload.isEmpty() ? null : EntityType.fromCode(payload.charAt(0));
+        if (type == null || separator != 1) {
+            log.debug("Ignoring unknown invalidation payload '{}'", payload);
+            return;
+        }
+        try {
+            // Bulk changes send several ids per notification ("B:1,2,3")
+            for (String id : payload.substring(separator + 1).split(",")) {
+                localCacheInvalidator.evict(type, Long.parseLong(id));
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed invalidation payload '{}'", payload);
+        }
+    }
+
+    private Connection connect(HikariDataSource shard) throws SQLException {
+        Properties properties = new Properties();
+        if (shard.getUsername() != null) {
+            properties.setProperty("user", shard.getUsername());
+        }
+        if (shard.getPassword() != null) {
+            properties.setProperty("password", shard.getPassword());
+        }
+        properties.setProperty("ApplicationName", "library-cache-invalidation");
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(shard.getJdbcUrl(), properties);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+}
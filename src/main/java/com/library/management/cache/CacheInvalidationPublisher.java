@@ -0,0 +1,68 @@
+package com.library.management.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Announces that a cached entity changed. The NOTIFY is issued on the caller's transaction, so Postgres
+ * delivers it to every node's listener only if and when that transaction commits; the local cache is
+ * evicted after commit as well so this node reads its own writes without waiting for the round trip.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "library_invalidation";
+
+    // Well below the 8000 byte NOTIFY payload limit
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    public void publish(EntityType type, Long id) {
+        publish(type, List.of(id));
+    }
+
+    // Packs as many ids into each notification as fit, so bulk changes cost a handful of round trips
+    public void publish(EntityType type, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        StringBuilder payload = new StringBuilder().append(type.getCode()).append(':');
+        int emptyLength = payload.length();
+        for (Long id : ids) {
+            if (payload.length() > MAX_PAYLOAD_LENGTH) {
+                sendNotification(payload);
+                payload.setLength(emptyLength);
+            }
+            if (payload.length() > emptyLength) {
+                payload.append(',');
+            }
+            payload.append(id);
+        }
+        sendNotification(payload);
+
+        List<Long> evicted = List.copyOf(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evicted.forEach(id -> localCacheInvalidator.evict(type, id));
+                }
+            });
+        } else {
+            evicted.forEach(id -> localCacheInvalidator.evict(type, id));
+        }
+    }
+
+    private void sendNotification(CharSequence payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload.toString());
+    }
+}
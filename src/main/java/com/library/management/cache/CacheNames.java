@@ -0,0 +1,13 @@
+package com.library.management.cache;
+
+public final class CacheNames {
+
+    public static final String BOOKS = "books";
+    public static final String BORROWERS = "borrowers";
+
+    // Entries are per branch: the same id would otherwise serve one branch's cached row to another
+    public static final String BRANCH_KEY = "T(com.library.management.sharding.BranchContext).cacheKey(#id)";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.management.cache;
+
+/**
+ * Cached entity kinds, with the cache name and the one-letter code used in notification payloads.
+ */
+public enum EntityType {
+
+    BOOK(CacheNames.BOOKS, 'B'),
+    // A book whose title or author changed, or that was added or retired; also rebuilds the suggest index
+    BOOK_CATALOG(CacheNames.BOOKS, 'C'),
+    BORROWER(CacheNames.BORROWERS, 'R');
+
+    private final String cacheName;
+    private final char code;
+
+    EntityType(String cacheName, char code) {
+        this.cacheName = cacheName;
+        this.code = code;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public static EntityType fromCode(char code) {
+        for (EntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.library.management.cache;
+
+import com.library.management.event.EntityInvalidatedEvent;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.ShardRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class LocalCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRegistry shardRegistry;
+
+    public void evict(EntityType type, Long id) {
+        Cache cache = cacheManager.getCache(type.getCacheName());
+        if (cache != null) {
+            // Notifications carry no branch, so the entry is evicted under every branch's key
+            for (String branch : shardRegistry.branches()) {
+                cache.evict(BranchContext.cacheKey(branch, id));
+            }
+        }
+        eventPublisher.publishEvent(new EntityInvalidatedEvent(type, id));
+    }
+
+    public void flushAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        eventPublisher.publishEvent(new EntityInvalidatedEvent(null, null));
+    }
+}
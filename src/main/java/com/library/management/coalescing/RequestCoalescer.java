@@ -0,0 +1,115 @@
+package com.library.management.coalescing;
+
+import com.library.management.dto.CoalescingStatsDTO;
+import com.library.management.event.EntityInvalidatedEvent;
+import com.library.management.sharding.BranchContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for reads: concurrent calls of the same operation with equal arguments (in the same branch)
+ * share one load. The first caller registers a future with a CAS and runs the load in its own read-only
+ * transaction; callers arriving while it runs wait for that future instead of querying, and get the same
+ * result or exception. Nothing is kept once the load finishes, but a caller that joins may get a result read
+ * before a write that committed while it waited. To keep reads after a write from joining an older load, every
+ * invalidation (cache evictions, here or from other nodes, and loan changes via {@link #invalidate()}) starts
+ * a new generation, which is part of the key. The transaction starts only for the leader, so waiting callers
+ * hold no connection. Results are shared between callers and must not be modified.
+ * <p>
+ * Not for methods whose result is cached: a joiner's result could be older than an eviction and be stored
+ * after it.
+ */
+@Component
+public class RequestCoalescer {
+
+    private record Key(String operation, String branch, Object arguments, long generation) {
+    }
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final TransactionTemplate readOnlyTransaction;
+
+    public RequestCoalescer(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Arguments are compared with equals: pass the single argument, a List of several, or List.of() for none
+    @SuppressWarnings("unchecked")
+    public <T> T read(String operation, Object arguments, Supplier<T> load) {
+        // Inside a caller's transaction the result could depend on its uncommitted writes
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return load.get();
+        }
+
+        Counters operationCounters = counters.get(operation);
+        if (operationCounters == null) {
+            operationCounters = counters.computeIfAbsent(operation, name -> new Counters());
+        }
+        operationCounters.calls.increment();
+
+        Key key = new Key(operation, BranchContext.currentOrDefault(), arguments, generation.get());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            operationCounters.coalesced.increment();
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            T result = readOnlyTransaction.execute(status -> load.get());
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Calls from now on load on their own rather than join a load that may predate a committed write
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onEntityInvalidated(EntityInvalidatedEvent event) {
+        invalidate();
+    }
+
+    public List<CoalescingStatsDTO> stats() {
+        Map<String, Counters> sorted = new TreeMap<>(counters);
+        return sorted.entrySet().stream()
+                .map(entry -> {
+                    long calls = entry.getValue().calls.sum();
+                    long coalesced = entry.getValue().coalesced.sum();
+                    return new CoalescingStatsDTO(entry.getKey(), calls, calls - coalesced, coalesced);
+                })
+                .toList();
+    }
+}
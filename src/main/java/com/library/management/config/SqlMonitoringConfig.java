@@ -0,0 +1,36 @@
+package com.library.management.config;
+
+import com.library.management.diagnostics.SlowQueryListener;
+import com.library.management.diagnostics.SqlMonitorProperties;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlMonitoringConfig {
+
+    // Wraps every DataSource (Hikari included) so all JDBC traffic, JPA or JdbcTemplate, is timed.
+    // Static and lazily resolved so the post-processor doesn't pull the listener in too early.
+    @Bean
+    public static BeanPostProcessor sqlMonitoringDataSourcePostProcessor(ObjectProvider<SqlMonitorProperties> properties,
+                                                                         ObjectProvider<SlowQueryListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && properties.getObject().isEnabled()) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.management.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.library.management.admission.AdmissionControlInterceptor;
+import com.library.management.bulkhead.BulkheadInterceptor;
+import com.library.management.diagnostics.DiagnosticsPortInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.apache.catalina.connector.Connector;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final BulkheadInterceptor bulkheadInterceptor;
+    private final DiagnosticsPortInterceptor diagnosticsPortInterceptor;
+
+    // Clients sending "Accept: application/cbor" get the same DTOs in CBOR, using the
+    // Boot-configured mapper so dates and naming match the JSON representation
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // A second connector for /api/diagnostics; the public port is configured as usual by server.port
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> diagnosticsConnector() {
+        return factory -> {
+            int port = diagnosticsPortInterceptor.getPort();
+            if (port > 0 && port != factory.getPort()) {
+                Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+                connector.setPort(port);
+                factory.addAdditionalTomcatConnectors(connector);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(diagnosticsPortInterceptor).addPathPatterns("/api/diagnostics/**");
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,7 +1,20 @@
 package com.library.management.controller;
 
+import com.library.management.dto.BatchLookupRequestDTO;
+import com.library.management.dto.BatchLookupResultDTO;
+import com.library.management.dto.BookCopyDTO;
 import com.library.management.dto.BookDTO;
+import com.library.management.dto.BookSuggestionDTO;
+import com.library.management.dto.RelatedBookDTO;
+import com.library.management.dto.RetirementRequestDTO;
+import com.library.management.dto.RetirementResultDTO;
+import com.library.management.dto.TrendingBookDTO;
+import com.library.management.service.BookCopyService;
 import com.library.management.service.BookService;
+import com.library.management.service.RecommendationService;
+import com.library.management.service.SuggestService;
+import com.library.management.service.TrendingService;
+import com.library.management.sharding.BranchRouter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +29,11 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BranchRouter branchRouter;
+    private final BookCopyService bookCopyService;
+    private final RecommendationService recommendationService;
+    private final TrendingService trendingService;
+    private final SuggestService suggestService;
 
     @PostMapping
     public ResponseEntity<BookDTO> createBook(@Valid @RequestBody BookDTO bookDTO) {
@@ -27,29 +45,80 @@ public class BookController {
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
+    @GetMapping("/{id}/copies")
+    public ResponseEntity<List<BookCopyDTO>> getCopies(@PathVariable Long id) {
+        return ResponseEntity.ok(bookCopyService.getCopies(id));
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedBookDTO>> getRelatedBooks(@PathVariable Long id,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getRelatedBooks(id, limit));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchLookupResultDTO<BookDTO>> getBooksByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResultDTO<BookDTO>> getBooksByIds(@Valid @RequestBody BatchLookupRequestDTO request) {
+        return ResponseEntity.ok(bookService.getBooksByIds(request.getIds()));
+    }
+
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<List<?>> getAllBooks(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> bookService.getAllBooks(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> bookService.getAllBooks()));
     }
 
     @GetMapping("/search/title")
-    public ResponseEntity<List<BookDTO>> searchByTitle(@RequestParam String title) {
-        return ResponseEntity.ok(bookService.searchBooksByTitle(title));
+    public ResponseEntity<List<?>> searchByTitle(@RequestParam String title,
+                                                 @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> bookService.searchBooksByTitle(title, fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> bookService.searchBooksByTitle(title)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDTO>> suggest(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
     }
 
     @GetMapping("/search/author")
-    public ResponseEntity<List<BookDTO>> searchByAuthor(@RequestParam String author) {
-        return ResponseEntity.ok(bookService.searchBooksByAuthor(author));
+    public ResponseEntity<List<?>> searchByAuthor(@RequestParam String author,
+                                                  @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> bookService.searchBooksByAuthor(author, fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> bookService.searchBooksByAuthor(author)));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<BookDTO>> getByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(bookService.getBooksByCategory(category));
+    public ResponseEntity<List<?>> getByCategory(@PathVariable String category,
+                                                 @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> bookService.getBooksByCategory(category, fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> bookService.getBooksByCategory(category)));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingBookDTO>> getTrendingBooks(@RequestParam(defaultValue = "day") String window,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.getTrendingBooks(window, limit));
     }
 
     @GetMapping("/inventory/low-stock")
-    public ResponseEntity<List<BookDTO>> getLowStockBooks() {
-        return ResponseEntity.ok(bookService.getLowStockBooks());
+    public ResponseEntity<List<?>> getLowStockBooks(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> bookService.getLowStockBooks(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> bookService.getLowStockBooks()));
     }
 
     @PutMapping("/{id}")
@@ -57,6 +126,11 @@ public class BookController {
         return ResponseEntity.ok(bookService.updateBook(id, bookDTO));
     }
 
+    @PostMapping("/retire")
+    public ResponseEntity<RetirementResultDTO> retireBooks(@RequestBody RetirementRequestDTO request) {
+        return ResponseEntity.ok(bookService.retireBooks(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         bookService.deleteBook(id);
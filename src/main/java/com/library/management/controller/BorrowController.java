@@ -3,13 +3,19 @@ package com.library.management.controller;
 import com.library.management.dto.BorrowRecordDTO;
 import com.library.management.dto.BorrowRequestDTO;
 import com.library.management.dto.ReturnRequestDTO;
+import com.library.management.service.BorrowOutcome;
 import com.library.management.service.BorrowService;
+import com.library.management.service.IdempotencyService;
+import com.library.management.sharding.BranchRouter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,35 +24,76 @@ import java.util.List;
 public class BorrowController {
 
     private final BorrowService borrowService;
+    private final BranchRouter branchRouter;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
-    public ResponseEntity<BorrowRecordDTO> borrowBook(@Valid @RequestBody BorrowRequestDTO request) {
-        return new ResponseEntity<>(borrowService.borrowBook(request), HttpStatus.CREATED);
+    public ResponseEntity<?> borrowBook(
+            @Valid @RequestBody BorrowRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            WebRequest webRequest) {
+        if (idempotencyKey == null) {
+            // Rejections are rendered from precomputed templates without throwing
+            BorrowOutcome outcome = borrowService.tryBorrowBook(request);
+            if (outcome instanceof BorrowOutcome.Rejected rejected) {
+                return rejected.rejection().getTemplate().toResponse(webRequest);
+            }
+            return new ResponseEntity<>(((BorrowOutcome.Borrowed) outcome).record(), HttpStatus.CREATED);
+        }
+        return idempotencyService.execute(idempotencyKey, "borrow", request, HttpStatus.CREATED,
+                BorrowRecordDTO.class, () -> borrowService.borrowBook(request));
     }
 
     @PostMapping("/return")
-    public ResponseEntity<BorrowRecordDTO> returnBook(@Valid @RequestBody ReturnRequestDTO request) {
-        return ResponseEntity.ok(borrowService.returnBook(request));
+    public ResponseEntity<BorrowRecordDTO> returnBook(
+            @Valid @RequestBody ReturnRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "return", request, HttpStatus.OK,
+                BorrowRecordDTO.class, () -> borrowService.returnBook(request));
     }
 
     @GetMapping("/borrower/{borrowerId}")
-    public ResponseEntity<List<BorrowRecordDTO>> getBorrowRecordsByBorrower(@PathVariable Long borrowerId) {
-        return ResponseEntity.ok(borrowService.getBorrowRecordsByBorrower(borrowerId));
+    public ResponseEntity<List<?>> getBorrowRecordsByBorrower(
+            @PathVariable Long borrowerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBorrower(borrowerId, since, fields)));
+        }
+        if (since != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBorrower(borrowerId, since)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBorrower(borrowerId)));
     }
 
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<List<BorrowRecordDTO>> getBorrowRecordsByBook(@PathVariable Long bookId) {
-        return ResponseEntity.ok(borrowService.getBorrowRecordsByBook(bookId));
+    public ResponseEntity<List<?>> getBorrowRecordsByBook(
+            @PathVariable Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBook(bookId, since, fields)));
+        }
+        if (since != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBook(bookId, since)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getBorrowRecordsByBook(bookId)));
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<BorrowRecordDTO>> getOverdueRecords() {
-        return ResponseEntity.ok(borrowService.getOverdueRecords());
+    public ResponseEntity<List<?>> getOverdueRecords(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getOverdueRecords(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getOverdueRecords()));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<BorrowRecordDTO>> getActiveBorrows() {
-        return ResponseEntity.ok(borrowService.getActiveBorrows());
+    public ResponseEntity<List<?>> getActiveBorrows(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getActiveBorrows(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowService.getActiveBorrows()));
     }
 
     @PatchMapping("/{recordId}/mark-lost")
@@ -1,7 +1,14 @@
 package com.library.management.controller;
 
+import com.library.management.dto.BatchLookupRequestDTO;
+import com.library.management.dto.BatchLookupResultDTO;
 import com.library.management.dto.BorrowerDTO;
+import com.library.management.dto.BorrowerSearchResultDTO;
+import com.library.management.dto.BorrowerSummaryDTO;
+import com.library.management.dto.RetirementRequestDTO;
+import com.library.management.dto.RetirementResultDTO;
 import com.library.management.service.BorrowerService;
+import com.library.management.sharding.BranchRouter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +23,7 @@ import java.util.List;
 public class BorrowerController {
 
     private final BorrowerService borrowerService;
+    private final BranchRouter branchRouter;
 
     @PostMapping
     public ResponseEntity<BorrowerDTO> createBorrower(@Valid @RequestBody BorrowerDTO borrowerDTO) {
@@ -27,14 +35,42 @@ public class BorrowerController {
         return ResponseEntity.ok(borrowerService.getBorrowerById(id));
     }
 
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<BorrowerSummaryDTO> getBorrowerSummary(@PathVariable Long id) {
+        return ResponseEntity.ok(borrowerService.getBorrowerSummary(id));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<BorrowerSearchResultDTO> searchBorrowers(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(borrowerService.searchBorrowers(q, page, size));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchLookupResultDTO<BorrowerDTO>> getBorrowersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(borrowerService.getBorrowersByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResultDTO<BorrowerDTO>> getBorrowersByIds(@Valid @RequestBody BatchLookupRequestDTO request) {
+        return ResponseEntity.ok(borrowerService.getBorrowersByIds(request.getIds()));
+    }
+
     @GetMapping
-    public ResponseEntity<List<BorrowerDTO>> getAllBorrowers() {
-        return ResponseEntity.ok(borrowerService.getAllBorrowers());
+    public ResponseEntity<List<?>> getAllBorrowers(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowerService.getAllBorrowers(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowerService.getAllBorrowers()));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<BorrowerDTO>> getActiveBorrowers() {
-        return ResponseEntity.ok(borrowerService.getActiveBorrowers());
+    public ResponseEntity<List<?>> getActiveBorrowers(@RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(branchRouter.gather(() -> borrowerService.getActiveBorrowers(fields)));
+        }
+        return ResponseEntity.ok(branchRouter.gather(() -> borrowerService.getActiveBorrowers()));
     }
 
     @PutMapping("/{id}")
@@ -54,6 +90,11 @@ public class BorrowerController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/retire")
+    public ResponseEntity<RetirementResultDTO> retireBorrowers(@RequestBody RetirementRequestDTO request) {
+        return ResponseEntity.ok(borrowerService.retireBorrowers(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBorrower(@PathVariable Long id) {
         borrowerService.deleteBorrower(id);
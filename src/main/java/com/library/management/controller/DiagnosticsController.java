@@ -0,0 +1,44 @@
+package com.library.management.controller;
+
+import com.library.management.bulkhead.Bulkheads;
+import com.library.management.coalescing.RequestCoalescer;
+import com.library.management.diagnostics.SlowQueryRegistry;
+import com.library.management.dto.BulkheadStatsDTO;
+import com.library.management.dto.CoalescingStatsDTO;
+import com.library.management.dto.SlowQueryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+
+    private final SlowQueryRegistry slowQueryRegistry;
+    private final Bulkheads bulkheads;
+    private final RequestCoalescer coalescer;
+
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryDTO>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryRegistry.top());
+    }
+
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> resetSlowQueries() {
+        slowQueryRegistry.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStatsDTO>> getBulkheads() {
+        return ResponseEntity.ok(bulkheads.stats());
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<List<CoalescingStatsDTO>> getCoalescing() {
+        return ResponseEntity.ok(coalescer.stats());
+    }
+}
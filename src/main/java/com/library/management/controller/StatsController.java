@@ -0,0 +1,21 @@
+package com.library.management.controller;
+
+import com.library.management.dto.LiveStatsDTO;
+import com.library.management.service.LiveStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final LiveStatsService liveStatsService;
+
+    // Served from memory; safe to poll
+    @GetMapping("/live")
+    public ResponseEntity<LiveStatsDTO> getLiveStats() {
+        return ResponseEntity.ok(liveStatsService.getLiveStats());
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.management.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+// Diagnostics describe internal state and traffic, so they answer only on the management port (an extra
+// connector that is not exposed publicly); on the public port they look like any unknown path
+@Component
+public class DiagnosticsPortInterceptor implements HandlerInterceptor {
+
+    @Value("${library.diagnostics.port:8081}")
+    private int port;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getLocalPort() == port) {
+            return true;
+        }
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        return false;
+    }
+
+    public int getPort() {
+        return port;
+    }
+}
@@ -0,0 +1,90 @@
+package com.library.management.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Times every JDBC statement. Only slow statements are logged in full (SQL, bound parameters and the
+ * application method that issued them); a small random sample of the rest is logged for context.
+ * Formatting work happens only for statements that are actually logged. Parameter values are masked unless
+ * {@code library.sql-monitor.capture-parameters} is set.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final String APPLICATION_PACKAGE = "com.library.management.";
+    private static final String DIAGNOSTICS_PACKAGE = "com.library.management.diagnostics.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final SqlMonitorProperties properties;
+    private final SlowQueryRegistry registry;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        boolean slow = elapsedMillis >= properties.getSlowThreshold().toMillis();
+        boolean sampled = !slow && properties.getSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (!slow && !sampled) {
+            return;
+        }
+
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        String parameters = parameters(queryInfoList);
+        String caller = caller();
+        String batch = execInfo.isBatch() ? " batch=" + execInfo.getBatchSize() : "";
+        if (slow) {
+            registry.record(sql, elapsedMillis, parameters, caller);
+            log.warn("Slow query {} ms{} from {}: {} params {}", elapsedMillis, batch, caller, sql, parameters);
+        } else {
+            log.info("Sampled query {} ms{} from {}: {} params {}", elapsedMillis, batch, caller, sql, parameters);
+        }
+    }
+
+    // Parameters of the first statement (and first batch entry), in index order
+    private String parameters(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) {
+            return "[]";
+        }
+        List<ParameterSetOperation> operations = queryInfoList.get(0).getParametersList().get(0);
+        return operations.stream()
+                .map(ParameterSetOperation::getArgs)
+                .filter(args -> args.length >= 2)
+                .sorted(Comparator.comparing(args -> args[0] instanceof Integer index ? index : Integer.MAX_VALUE))
+                .map(args -> properties.isCaptureParameters() ? truncate(String.valueOf(args[1])) : "?")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private String truncate(String value) {
+        int max = properties.getMaxParameterLength();
+        return value.length() <= max ? value : value.substring(0, max) + "...";
+    }
+
+    // First application frame outside this package, e.g. BorrowService.borrowBook:97
+    private static String caller() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !f.getClassName().startsWith(DIAGNOSTICS_PACKAGE)
+                        && !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(APPLICATION_PACKAGE.length()) + "." + f.getMethodName()
+                + ":" + f.getLineNumber()).orElse("unknown");
+    }
+}
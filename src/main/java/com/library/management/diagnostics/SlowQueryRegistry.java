@@ -0,0 +1,77 @@
+package com.library.management.diagnostics;
+
+import com.library.management.dto.SlowQueryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates slow executions per SQL text (statements are already parameterised, so the text is a
+ * natural grouping key). The number of distinct statements is capped.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryRegistry {
+
+    private final SqlMonitorProperties properties;
+    private final Map<String, Entry> statements = new ConcurrentHashMap<>();
+
+    void record(String sql, long elapsedMillis, String parameters, String caller) {
+        Entry entry = statements.get(sql);
+        if (entry == null) {
+            if (statements.size() >= properties.getMaxTrackedStatements()) {
+                return;
+            }
+            entry = statements.computeIfAbsent(sql, key -> new Entry());
+        }
+        entry.count.increment();
+        entry.totalMillis.add(elapsedMillis);
+        entry.maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        entry.lastParameters = parameters;
+        entry.lastCaller = caller;
+        entry.lastSeen = LocalDateTime.now();
+    }
+
+    public List<SlowQueryDTO> top() {
+        return statements.entrySet().stream()
+                .map(e -> toDTO(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(SlowQueryDTO::getTotalMillis).reversed())
+                .limit(properties.getTopN())
+                .toList();
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    private static SlowQueryDTO toDTO(String sql, Entry entry) {
+        long count = entry.count.sum();
+        long total = entry.totalMillis.sum();
+        return SlowQueryDTO.builder()
+                .sql(sql)
+                .count(count)
+                .totalMillis(total)
+                .averageMillis(count == 0 ? 0 : (double) total / count)
+                .maxMillis(entry.maxMillis.get())
+                .lastParameters(entry.lastParameters)
+                .lastCaller(entry.lastCaller)
+                .lastSeen(entry.lastSeen)
+                .build();
+    }
+
+    private static final class Entry {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile String lastParameters;
+        private volatile String lastCaller;
+        private volatile LocalDateTime lastSeen;
+    }
+}
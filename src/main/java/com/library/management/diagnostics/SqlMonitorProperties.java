@@ -0,0 +1,30 @@
+package com.library.management.diagnostics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.sql-monitor")
+public class SqlMonitorProperties {
+
+    private boolean enabled = true;
+
+    // Statements at or above this are logged with parameters and caller, and kept in the slow-statement table
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    // Fraction of faster statements logged at INFO (0 disables sampling)
+    private double sampleRate = 0.001;
+
+    private int topN = 20;
+    private int maxTrackedStatements = 1_000;
+    private int maxParameterLength = 100;
+
+    // Bound values include names, e-mails and phone numbers; unless enabled they are logged and kept as "?"
+    private boolean captureParameters = false;
+}
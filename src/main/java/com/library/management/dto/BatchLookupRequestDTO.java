@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+// Body of POST .../batch, for id lists too long for a query string
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchLookupRequestDTO {
+
+    @NotEmpty(message = "At least one id is required")
+    private List<Long> ids;
+}
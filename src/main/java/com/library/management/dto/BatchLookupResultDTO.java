@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupResultDTO<T> {
+
+    // Found rows, in the order their ids were requested (duplicates once)
+    private List<T> items;
+
+    // Requested ids with no live row in the branches searched
+    private List<Long> missingIds;
+}
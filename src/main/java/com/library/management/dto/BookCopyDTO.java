@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookCopyDTO {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String barcode;
+
+    private String condition;
+
+    private String location;
+
+    private String status;
+}
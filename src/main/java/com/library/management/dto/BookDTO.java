@@ -12,6 +12,9 @@ public class BookDTO {
 
     private Long id;
 
+    // Read-only; new books belong to the branch named in the X-Branch header
+    private String branch;
+
     @NotBlank(message = "Title is required")
     private String title;
 
@@ -14,12 +14,18 @@ public class BorrowRecordDTO {
 
     private Long id;
 
+    private String branch;
+
     @NotNull(message = "Book ID is required")
     private Long bookId;
 
     @NotNull(message = "Borrower ID is required")
     private Long borrowerId;
 
+    private Long copyId;
+
+    private String copyBarcode;
+
     private LocalDate borrowDate;
 
     private LocalDate dueDate;
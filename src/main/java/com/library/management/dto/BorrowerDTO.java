@@ -12,6 +12,8 @@ public class BorrowerDTO {
 
     private Long id;
 
+    private String branch;
+
     @NotBlank(message = "Name is required")
     private String name;
 
@@ -0,0 +1,15 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowerSearchHitDTO {
+
+    private BorrowerDTO borrower;
+
+    // MEMBERSHIP_ID, PHONE or NAME; results are ranked in that order
+    private String matchedOn;
+}
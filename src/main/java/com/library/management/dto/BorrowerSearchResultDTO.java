@@ -0,0 +1,24 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BorrowerSearchResultDTO {
+
+    private String branch;
+
+    private Integer page;
+
+    private Integer size;
+
+    private List<BorrowerSearchHitDTO> items;
+
+    // False on the last page, including when the result limit has been reached
+    private Boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BorrowerSummaryDTO {
+
+    private BorrowerDTO profile;
+
+    private List<OpenLoanDTO> openLoans;
+
+    private Integer overdueCount;
+
+    // Fines recorded on returned/lost loans plus what open overdue loans have accrued so far
+    private Double outstandingFines;
+
+    private Integer remainingAllowance;
+}
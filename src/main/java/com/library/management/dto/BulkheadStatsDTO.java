@@ -0,0 +1,35 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkheadStatsDTO {
+
+    private String name;
+
+    private Integer maxConcurrent;
+
+    private Integer active;
+
+    private Integer waiting;
+
+    // Counted since startup
+    private Long admitted;
+
+    private Long queued;
+
+    private Long rejected;
+
+    private Double averageQueueMillis;
+
+    private Double maxQueueMillis;
+
+    // The group's own pools, one per shard, or the shared pools it draws from
+    private List<ConnectionPoolStatsDTO> pools;
+}
@@ -0,0 +1,35 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationReportDTO {
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private Long loans;
+
+    private Map<String, Map<String, Long>> loansByCategoryAndMonth;
+
+    private Map<String, Double> averageLoanDaysByCategory;
+
+    private Map<String, Double> overdueRateByMembershipType;
+
+    private Map<String, Double> fineTotalsByMonth;
+
+    private Double totalFines;
+
+    private LocalDateTime snapshotAsOf;
+
+    private Double aggregationMillis;
+}
@@ -0,0 +1,20 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatsDTO {
+
+    private String operation;
+
+    private Long calls;
+
+    // Calls that ran their own query
+    private Long loads;
+
+    // Calls that waited for an identical one already in flight and shared its result
+    private Long coalesced;
+}
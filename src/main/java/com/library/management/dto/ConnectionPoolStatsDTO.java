@@ -0,0 +1,24 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConnectionPoolStatsDTO {
+
+    private String name;
+
+    private Boolean shared;
+
+    private Integer maxSize;
+
+    private Integer active;
+
+    private Integer idle;
+
+    // Threads blocked waiting for a connection from this pool
+    private Integer awaiting;
+}
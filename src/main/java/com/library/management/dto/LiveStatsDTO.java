@@ -0,0 +1,26 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LiveStatsDTO {
+
+    private Long activeLoans;
+
+    private Long overdueLoans;
+
+    private Long totalCopies;
+
+    private Long availableCopies;
+
+    private Long activeBorrowers;
+
+    // Oldest reconciliation among the branches included; null until the first one has run
+    private LocalDateTime reconciledAt;
+}
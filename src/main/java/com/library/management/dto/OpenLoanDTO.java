@@ -0,0 +1,29 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OpenLoanDTO {
+
+    private Long recordId;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private LocalDate borrowDate;
+
+    private LocalDate dueDate;
+
+    private Boolean overdue;
+
+    private Long daysOverdue;
+
+    private Double accruedFine;
+}
@@ -0,0 +1,14 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedBookDTO {
+
+    private Long bookId;
+
+    private Integer coBorrowCount;
+}
@@ -0,0 +1,21 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Exactly one criterion: explicit ids, a category (books only), or no borrowing since a date
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RetirementRequestDTO {
+
+    private List<Long> ids;
+
+    private String category;
+
+    private LocalDate inactiveSince;
+}
@@ -0,0 +1,16 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetirementResultDTO {
+
+    // Ids selected by the criterion (for an id list, the distinct ids given)
+    private Integer matched;
+
+    // Rows actually retired; the rest still have loans open
+    private Integer retired;
+}
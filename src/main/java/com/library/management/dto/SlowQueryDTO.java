@@ -0,0 +1,29 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowQueryDTO {
+
+    private String sql;
+
+    private Long count;
+
+    private Long totalMillis;
+
+    private Double averageMillis;
+
+    private Long maxMillis;
+
+    private String lastParameters;
+
+    private String lastCaller;
+
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,16 @@
+package com.library.management.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingBookDTO {
+
+    private Long bookId;
+
+    private String title;
+
+    private Long borrowCount;
+}
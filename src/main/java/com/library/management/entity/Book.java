@@ -2,6 +2,7 @@ package com.library.management.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+// (branch, isbn) is unique among live books only, a partial index Hibernate cannot describe (see V12)
 @Table(name = "books")
 @Getter
 @Setter
@@ -23,13 +25,18 @@ public class Book {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Set by Hibernate from the current branch; queries only see the current branch's rows
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String branch;
+
     @Column(nullable = false)
     private String title;
 
     @Column(nullable = false)
     private String author;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String isbn;
 
     @Column(nullable = false)
@@ -52,9 +59,12 @@ public class Book {
     @Column(nullable = false)
     private BookStatus status = BookStatus.AVAILABLE;
 
-    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    // Never cascaded: history outlives the book, which is retired rather than deleted
+    @OneToMany(mappedBy = "book")
     private List<BorrowRecord> borrowRecords;
 
+    private LocalDateTime retiredAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,56 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "book_copies")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class BookCopy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Column(unique = true, nullable = false, length = 64)
+    private String barcode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "copy_condition", nullable = false)
+    private CopyCondition condition = CopyCondition.GOOD;
+
+    private String location;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CopyStatus status = CopyStatus.AVAILABLE;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public enum CopyCondition {
+        NEW, GOOD, WORN, DAMAGED
+    }
+
+    public enum CopyStatus {
+        AVAILABLE, ON_LOAN, LOST, WITHDRAWN
+    }
+}
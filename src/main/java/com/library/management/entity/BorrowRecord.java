@@ -2,6 +2,7 @@ package com.library.management.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -19,10 +20,18 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class BorrowRecord {
 
+    // The partitioned table has no identity column and its key is (id, borrow_date), so ids are only unique
+    // because they all come from this sequence. allocationSize 1: the sequence steps by the shard count.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_records_id")
+    @SequenceGenerator(name = "borrow_records_id", sequenceName = "borrow_records_id_seq", allocationSize = 1)
     private Long id;
 
+    // Always the branch of the book and the borrower; cross-branch loans are not supported
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String branch;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
@@ -31,6 +40,11 @@ public class BorrowRecord {
     @JoinColumn(name = "borrower_id", nullable = false)
     private Borrower borrower;
 
+    // Physical copy handed out; null only for loans that predate per-copy inventory
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
     @Column(nullable = false)
     private LocalDate borrowDate;
 
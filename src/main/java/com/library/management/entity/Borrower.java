@@ -2,6 +2,7 @@ package com.library.management.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -10,6 +11,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+// (branch, email) and (branch, membership_id) are unique among live borrowers only, partial indexes
+// Hibernate cannot describe (see V12)
 @Table(name = "borrowers")
 @Getter
 @Setter
@@ -23,16 +26,21 @@ public class Borrower {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Branch the borrower is registered at
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String branch;
+
     @Column(nullable = false)
     private String name;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
     private String phone;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String membershipId;
 
     @Enumerated(EnumType.STRING)
@@ -42,9 +50,12 @@ public class Borrower {
     @Column(nullable = false)
     private Boolean isActive = true;
 
-    @OneToMany(mappedBy = "borrower", cascade = CascadeType.ALL)
+    // Never cascaded: history outlives the borrower, which is retired rather than deleted
+    @OneToMany(mappedBy = "borrower")
     private List<BorrowRecord> borrowRecords;
 
+    private LocalDateTime retiredAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,14 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BookBorrowedEvent {
+
+    private final String branch;
+    private final Long recordId;
+    private final Long bookId;
+    private final Long borrowerId;
+}
@@ -0,0 +1,21 @@
+package com.library.management.event;
+
+import com.library.management.cache.EntityType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published on every node after a cached entity changed anywhere in the cluster.
+ * A null type means everything may be stale (the listener missed notifications).
+ */
+@Getter
+@RequiredArgsConstructor
+public class EntityInvalidatedEvent {
+
+    private final EntityType type;
+    private final Long id;
+
+    public boolean isFullFlush() {
+        return type == null;
+    }
+}
@@ -2,6 +2,7 @@ package com.library.management.exception;
 
 public class BookNotAvailableException extends RuntimeException {
     public BookNotAvailableException(String message) {
-        super(message);
+        // Expected business outcome, not a bug: skip the stack trace
+        super(message, null, false, false);
     }
 }
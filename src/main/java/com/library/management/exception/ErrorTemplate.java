@@ -0,0 +1,62 @@
+package com.library.management.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Fixed status, error and message for an expected rejection, so rendering a response only fills in the
+ * request path and a timestamp (cached per second) instead of rebuilding everything per request.
+ */
+public final class ErrorTemplate {
+
+    private static volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, null);
+
+    private final HttpStatus status;
+    private final String error;
+    private final String message;
+
+    public ErrorTemplate(HttpStatus status, String error, String message) {
+        this.status = status;
+        this.error = error;
+        this.message = message;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ResponseEntity<Object> toResponse(WebRequest request) {
+        ErrorResponse body = new ErrorResponse(timestamp(), status.value(), error, message, path(request));
+        return new ResponseEntity<>(body, status);
+    }
+
+    static String path(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+
+    static LocalDateTime timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.second() != second) {
+            cached = new CachedTimestamp(second, LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()));
+            cachedTimestamp = cached;
+        }
+        return cached.value();
+    }
+
+    private record CachedTimestamp(long second, LocalDateTime value) {
+    }
+}
@@ -2,6 +2,7 @@ package com.library.management.exception;
 
 public class InvalidOperationException extends RuntimeException {
     public InvalidOperationException(String message) {
-        super(message);
+        // Expected business outcome, not a bug: skip the stack trace
+        super(message, null, false, false);
     }
 }
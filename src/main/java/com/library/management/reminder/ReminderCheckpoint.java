@@ -0,0 +1,84 @@
+package com.library.management.reminder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Properties;
+
+/**
+ * Progress of one day's reminder run: the keyset position of the last spooled loan and how far the
+ * current spool file had been durably written at that point. A restarted run truncates the spool
+ * file back to {@code fileLength} and continues after {@code (lastDueDate, lastRecordId)}.
+ */
+public record ReminderCheckpoint(LocalDate runDate, LocalDate lastDueDate, long lastRecordId,
+                                 int fileSequence, long fileLength, int fileMessages,
+                                 long written, boolean completed) {
+
+    // Sorts before any real due date without falling outside the range Postgres accepts
+    private static final LocalDate BEFORE_ANY_DUE_DATE = LocalDate.of(1900, 1, 1);
+
+    public static ReminderCheckpoint start(LocalDate runDate) {
+        return new ReminderCheckpoint(runDate, BEFORE_ANY_DUE_DATE, 0, 0, 0, 0, 0, false);
+    }
+
+    public ReminderCheckpoint advance(LocalDate dueDate, long recordId, ReminderSpool spool, int messages) {
+        return new ReminderCheckpoint(runDate, dueDate, recordId, spool.sequence(), spool.length(),
+                spool.messagesInFile(), written + messages, false);
+    }
+
+    public ReminderCheckpoint complete() {
+        return new ReminderCheckpoint(runDate, lastDueDate, lastRecordId, fileSequence, fileLength,
+                fileMessages, written, true);
+    }
+
+    public static ReminderCheckpoint read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        try {
+            return new ReminderCheckpoint(
+                    LocalDate.parse(properties.getProperty("runDate")),
+                    LocalDate.parse(properties.getProperty("lastDueDate")),
+                    Long.parseLong(properties.getProperty("lastRecordId")),
+                    Integer.parseInt(properties.getProperty("fileSequence")),
+                    Long.parseLong(properties.getProperty("fileLength")),
+                    Integer.parseInt(properties.getProperty("fileMessages")),
+                    Long.parseLong(properties.getProperty("written")),
+                    Boolean.parseBoolean(properties.getProperty("completed")));
+        } catch (RuntimeException e) {
+            throw new IOException("Unreadable reminder checkpoint " + file, e);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("runDate", runDate.toString());
+        properties.setProperty("lastDueDate", lastDueDate.toString());
+        properties.setProperty("lastRecordId", Long.toString(lastRecordId));
+        properties.setProperty("fileSequence", Integer.toString(fileSequence));
+        properties.setProperty("fileLength", Long.toString(fileLength));
+        properties.setProperty("fileMessages", Integer.toString(fileMessages));
+        properties.setProperty("written", Long.toString(written));
+        properties.setProperty("completed", Boolean.toString(completed));
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            properties.store(out, null);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
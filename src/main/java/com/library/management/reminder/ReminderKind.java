@@ -0,0 +1,6 @@
+package com.library.management.reminder;
+
+public enum ReminderKind {
+    DUE_SOON,
+    OVERDUE
+}
@@ -0,0 +1,10 @@
+package com.library.management.reminder;
+
+import java.time.LocalDate;
+
+/**
+ * One rendered reminder, written as a single NDJSON line to the spool that the mail/SMS relay drains.
+ */
+public record ReminderMessage(Long recordId, Long borrowerId, ReminderKind kind, ReminderChannel channel,
+                              String recipient, String subject, String body, LocalDate dueDate) {
+}
@@ -0,0 +1,178 @@
+package com.library.management.reminder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rotating NDJSON outbox standing in for the SMTP/SMS gateway. Files are written as
+ * {@code reminders-<date>-<seq>.ndjson.part} and renamed to {@code .ndjson} once full, so a relay
+ * picking up {@code *.ndjson} never sees a half-written file. A full file is only renamed after the
+ * checkpoint covering all of it has been written (see {@link #rotate()}): a finished file is never
+ * replayed, so a crash must not leave a checkpoint behind the end of one.
+ */
+public final class ReminderSpool implements Closeable {
+
+    private final Path directory;
+    private final LocalDate runDate;
+    private final int maxMessagesPerFile;
+
+    private int sequence;
+    private long length;
+    private int messagesInFile;
+    private boolean full;
+    private FileChannel channel;
+
+    private ReminderSpool(Path directory, LocalDate runDate, int maxMessagesPerFile) {
+        this.directory = directory;
+        this.runDate = runDate;
+        this.maxMessagesPerFile = maxMessagesPerFile;
+    }
+
+    /**
+     * Reopens the file the checkpoint points at and drops anything written after it.
+     */
+    public static ReminderSpool open(Path directory, int maxMessagesPerFile, ReminderCheckpoint checkpoint)
+            throws IOException {
+        Files.createDirectories(directory);
+        ReminderSpool spool = new ReminderSpool(directory, checkpoint.runDate(), maxMessagesPerFile);
+        spool.sequence = checkpoint.fileSequence();
+        spool.length = checkpoint.fileLength();
+        spool.messagesInFile = checkpoint.fileMessages();
+        // The previous file was full and checkpointed, but the run died before renaming it
+        if (spool.sequence > 0 && Files.exists(spool.partFile(spool.sequence - 1))) {
+            Files.move(spool.partFile(spool.sequence - 1), spool.finishedFile(spool.sequence - 1),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (!Files.exists(spool.partFile())) {
+            if (Files.exists(spool.finishedFile())) {
+                // Closed after its last page was checkpointed, but before the run was marked complete
+                spool.sequence++;
+            }
+            spool.length = 0;
+            spool.messagesInFile = 0;
+        }
+        return spool;
+    }
+
+    public void append(List<String> lines) throws IOException {
+        if (full) {
+            throw new IllegalStateException("The spool file is full; checkpoint and rotate() before appending");
+        }
+        ensureOpen();
+        StringBuilder text = new StringBuilder(lines.size() * 256);
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            length += channel.write(buffer);
+        }
+        messagesInFile += lines.size();
+    }
+
+    /**
+     * Makes everything appended so far durable. Must run before the checkpoint that covers these messages
+     * is written. Once the file is full, the position reported is already the start of the next file.
+     */
+    public void commit() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.force(false);
+        if (messagesInFile >= maxMessagesPerFile) {
+            channel.close();
+            channel = null;
+            full = true;
+        }
+    }
+
+    /**
+     * Renames a full file for the relay and starts the next one. Must run after the checkpoint written
+     * following {@link #commit()}, which already points at the next file.
+     */
+    public void rotate() throws IOException {
+        if (full) {
+            full = false;
+            finishFile();
+        }
+    }
+
+    public int sequence() {
+        return full ? sequence + 1 : sequence;
+    }
+
+    public long length() {
+        return full ? 0 : length;
+    }
+
+    public int messagesInFile() {
+        return full ? 0 : messagesInFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (full) {
+            rotate();
+            return;
+        }
+        if (channel == null && !Files.exists(partFile())) {
+            return;
+        }
+        ensureOpen();
+        channel.force(false);
+        finishFile();
+    }
+
+    // Anything past the checkpointed length was written by a run that died before checkpointing it
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(partFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(length);
+            channel.position(length);
+        }
+    }
+
+    private void finishFile() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        if (length > 0) {
+            Files.move(partFile(), finishedFile(), StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.deleteIfExists(partFile());
+        }
+        sequence++;
+        length = 0;
+        messagesInFile = 0;
+    }
+
+    private Path partFile() {
+        return partFile(sequence);
+    }
+
+    private Path finishedFile() {
+        return finishedFile(sequence);
+    }
+
+    private Path partFile(int fileSequence) {
+        return directory.resolve(fileName(fileSequence) + ".part");
+    }
+
+    private Path finishedFile(int fileSequence) {
+        return directory.resolve(fileName(fileSequence));
+    }
+
+    private String fileName(int fileSequence) {
+        return String.format("reminders-%s-%05d.ndjson", runDate, fileSequence);
+    }
+}
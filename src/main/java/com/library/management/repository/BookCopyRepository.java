@@ -0,0 +1,44 @@
+package com.library.management.repository;
+
+import com.library.management.entity.BookCopy;
+import com.library.management.entity.BookCopy.CopyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    List<BookCopy> findByBookIdOrderByIdAsc(Long bookId);
+
+    long countByBookId(Long bookId);
+
+    long countByBookIdAndStatus(Long bookId, CopyStatus status);
+
+    // Copies carry no branch of their own, so the branch is matched through the book
+    @Query("SELECT COUNT(c) FROM BookCopy c JOIN c.book b " +
+            "WHERE c.status = 'AVAILABLE' AND b.retiredAt IS NULL AND b.branch = :branch")
+    long countAvailableInLiveBooks(String branch);
+
+    // Copies locked by in-flight checkouts on any node are skipped instead of waited on
+    @Query(value = "SELECT * FROM book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BookCopy> lockAvailableCopy(Long bookId);
+
+    @Query(value = "SELECT * FROM book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "ORDER BY id DESC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BookCopy> lockAvailableCopies(Long bookId, int limit);
+
+    // Shelved copies leave circulation with their book; books that could not be retired keep theirs
+    @Modifying
+    @Query("UPDATE BookCopy c SET c.status = 'WITHDRAWN', c.updatedAt = :now " +
+            "WHERE c.status = 'AVAILABLE' " +
+            "AND c.book.id IN (SELECT b.id FROM Book b WHERE b.id IN :bookIds AND b.retiredAt IS NOT NULL)")
+    int withdrawAvailableCopiesOfRetiredBooks(Collection<Long> bookIds, LocalDateTime now);
+}
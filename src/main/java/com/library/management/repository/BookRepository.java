@@ -2,23 +2,55 @@ package com.library.management.repository;
 
 import com.library.management.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Finders suffixed RetiredAtIsNull only see live books; plain findById/findAllById still reach retired ones for history
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    Optional<Book> findByIsbn(String isbn);
+    Optional<Book> findByIsbnAndRetiredAtIsNull(String isbn);
 
-    List<Book> findByCategory(String category);
+    Optional<Book> findByIdAndRetiredAtIsNull(Long id);
 
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    boolean existsByIdAndRetiredAtIsNull(Long id);
 
-    List<Book> findByAuthorContainingIgnoreCase(String author);
+    // One IN query for a whole id list; hibernate.query.in_clause_parameter_padding keeps the statement shapes few
+    List<Book> findByIdInAndRetiredAtIsNull(Collection<Long> ids);
 
-    @Query("SELECT b FROM Book b WHERE b.availableCopies < b.totalCopies * 0.2")
+    List<Book> findByRetiredAtIsNull();
+
+    List<Book> findByCategoryAndRetiredAtIsNull(String category);
+
+    List<Book> findByTitleContainingIgnoreCaseAndRetiredAtIsNull(String title);
+
+    List<Book> findByAuthorContainingIgnoreCaseAndRetiredAtIsNull(String author);
+
+    @Query("SELECT b FROM Book b WHERE b.retiredAt IS NULL AND b.availableCopies < b.totalCopies * 0.2")
     List<Book> findLowStockBooks();
+
+    @Query("SELECT COALESCE(SUM(b.totalCopies), 0) FROM Book b WHERE b.retiredAt IS NULL")
+    long sumLiveTotalCopies();
+
+    @Query("SELECT b.id FROM Book b WHERE b.retiredAt IS NULL AND b.category = :category")
+    List<Long> findLiveIdsByCategory(String category);
+
+    // Live books added before the cutoff and not borrowed since
+    @Query("SELECT b.id FROM Book b WHERE b.retiredAt IS NULL AND b.createdAt < :createdBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM BorrowRecord br WHERE br.book.id = b.id AND br.borrowDate >= :since)")
+    List<Long> findLiveIdsNotBorrowedSince(LocalDate since, LocalDateTime createdBefore);
+
+    // Set-based: never loads the books or their borrowRecords. Books with copies out are left alone.
+    @Modifying
+    @Query("UPDATE Book b SET b.retiredAt = :retiredAt, b.updatedAt = :retiredAt, b.availableCopies = 0 " +
+            "WHERE b.id IN :ids AND b.retiredAt IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM BorrowRecord br WHERE br.book.id = b.id AND br.status = 'BORROWED')")
+    int retireByIds(Collection<Long> ids, LocalDateTime retiredAt);
 }
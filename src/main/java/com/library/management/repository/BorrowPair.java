@@ -0,0 +1,4 @@
+package com.library.management.repository;
+
+public record BorrowPair(Long recordId, Long borrowerId, Long bookId) {
+}
@@ -2,12 +2,17 @@ package com.library.management.repository;
 
 import com.library.management.entity.BorrowRecord;
 import com.library.management.entity.BorrowRecord.BorrowStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
@@ -16,6 +21,11 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
 
     List<BorrowRecord> findByBookId(Long bookId);
 
+    // Bounding borrowDate lets Postgres prune the monthly borrow_records partitions
+    List<BorrowRecord> findByBorrowerIdAndBorrowDateGreaterThanEqual(Long borrowerId, LocalDate since);
+
+    List<BorrowRecord> findByBookIdAndBorrowDateGreaterThanEqual(Long bookId, LocalDate since);
+
     List<BorrowRecord> findByStatus(BorrowStatus status);
 
     @Query("SELECT br FROM BorrowRecord br WHERE br.status = 'BORROWED' AND br.dueDate < :currentDate")
@@ -23,4 +33,29 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
 
     @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.borrower.id = :borrowerId AND br.status = 'BORROWED'")
     Long countActiveBorrowsByBorrowerId(Long borrowerId);
+
+    // The borrower's books before a loan, latest first; the date bound prunes the monthly partitions
+    @Query("SELECT br.book.id FROM BorrowRecord br WHERE br.borrower.id = :borrowerId AND br.borrowDate >= :since " +
+            "AND br.id < :recordId ORDER BY br.borrowDate DESC, br.id DESC")
+    List<Long> findRecentBookIdsBefore(Long borrowerId, LocalDate since, Long recordId, Pageable pageable);
+
+    // Server-side cursor over the whole history without loading entities; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.library.management.repository.BorrowPair(br.id, br.borrower.id, br.book.id) " +
+            "FROM BorrowRecord br ORDER BY br.borrower.id, br.id")
+    Stream<BorrowPair> streamBorrowPairs();
+
+    // Keyset page of open loans due by a date, ordered by (dueDate, id), with the contact data joined in
+    @Query("SELECT new com.library.management.repository.ReminderCandidate(br.id, br.dueDate, b.title, " +
+            "bw.id, bw.name, bw.email, bw.phone) " +
+            "FROM BorrowRecord br JOIN br.book b JOIN br.borrower bw " +
+            "WHERE br.status = 'BORROWED' AND br.dueDate <= :dueBy " +
+            "AND (br.dueDate > :afterDueDate OR (br.dueDate = :afterDueDate AND br.id > :afterId)) " +
+            "ORDER BY br.dueDate, br.id")
+    List<ReminderCandidate> findReminderCandidates(LocalDate dueBy, LocalDate afterDueDate, Long afterId,
+                                                   Pageable pageable);
+
+    @Query("SELECT new com.library.management.repository.DueDateCount(br.dueDate, COUNT(br)) " +
+            "FROM BorrowRecord br WHERE br.status = 'BORROWED' GROUP BY br.dueDate")
+    List<DueDateCount> countOpenLoansByDueDate();
 }
@@ -2,17 +2,55 @@ package com.library.management.repository;
 
 import com.library.management.entity.Borrower;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Finders suffixed RetiredAtIsNull only see live borrowers; plain findById still reaches retired ones for history
 @Repository
 public interface BorrowerRepository extends JpaRepository<Borrower, Long> {
 
-    Optional<Borrower> findByEmail(String email);
+    Optional<Borrower> findByEmailAndRetiredAtIsNull(String email);
 
-    Optional<Borrower> findByMembershipId(String membershipId);
+    Optional<Borrower> findByMembershipIdAndRetiredAtIsNull(String membershipId);
 
-    List<Borrower> findByIsActive(Boolean isActive);
+    Optional<Borrower> findByIdAndRetiredAtIsNull(Long id);
+
+    List<Borrower> findByIdInAndRetiredAtIsNull(Collection<Long> ids);
+
+    List<Borrower> findByRetiredAtIsNull();
+
+    List<Borrower> findByIsActiveAndRetiredAtIsNull(Boolean isActive);
+
+    long countByIsActiveAndRetiredAtIsNull(Boolean isActive);
+
+    // Live borrowers registered before the cutoff who have not borrowed since
+    @Query("SELECT b.id FROM Borrower b WHERE b.retiredAt IS NULL AND b.createdAt < :createdBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM BorrowRecord br WHERE br.borrower.id = b.id AND br.borrowDate >= :since)")
+    List<Long> findLiveIdsInactiveSince(LocalDate since, LocalDateTime createdBefore);
+
+    // Set-based: never loads the borrowers or their borrowRecords. Borrowers with books out are left alone.
+    @Modifying
+    @Query("UPDATE Borrower b SET b.retiredAt = :retiredAt, b.isActive = false, b.updatedAt = :retiredAt " +
+            "WHERE b.id IN :ids AND b.retiredAt IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM BorrowRecord br WHERE br.borrower.id = b.id AND br.status = 'BORROWED')")
+    int retireByIds(Collection<Long> ids, LocalDateTime retiredAt);
+
+    // Desk summary in one round trip: profile, open loans with titles and the borrower's recorded fines
+    @Query("SELECT new com.library.management.repository.BorrowerSummaryRow(bw.id, bw.name, bw.email, bw.phone, " +
+            "bw.membershipId, bw.membershipType, bw.isActive, " +
+            "(SELECT COALESCE(SUM(r.fineAmount), 0.0) FROM BorrowRecord r WHERE r.borrower.id = bw.id), " +
+            "br.id, b.id, b.title, br.borrowDate, br.dueDate) " +
+            "FROM Borrower bw " +
+            "LEFT JOIN BorrowRecord br ON br.borrower.id = bw.id AND br.status = 'BORROWED' " +
+            "LEFT JOIN br.book b " +
+            "WHERE bw.id = :borrowerId " +
+            "ORDER BY br.dueDate, br.id")
+    List<BorrowerSummaryRow> findSummaryRows(Long borrowerId);
 }
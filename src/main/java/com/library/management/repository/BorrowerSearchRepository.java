@@ -0,0 +1,118 @@
+package com.library.management.repository;
+
+import com.library.management.entity.Borrower.MembershipType;
+import com.library.management.repository.BorrowerSearchRow.Match;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranked search over a branch's live borrowers, in native SQL for the pg_trgm operators. Each criterion that
+ * is given becomes one branch of a UNION ALL that reads its index (see V9 and V13) in result order and stops
+ * after {@code offset + limit} rows, returning the key it is sorted by. A branch skips borrowers that a
+ * better ranked criterion (membership id, phone, then name) matches, so every borrower appears once with a
+ * position that does not depend on the page; the union is then ordered by criterion and sort key. The work per
+ * page is therefore bounded by the page depth, not by the number of borrowers or matches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BorrowerSearchRepository {
+
+    // Prefix criteria sort by text (in "C" order, as their indexes do), names by distance
+    private static final String MEMBERSHIP_KEY = "upper(membership_id) COLLATE \"C\" AS sort_key, 0.0::real AS distance";
+    private static final String MEMBERSHIP_MATCH =
+            "upper(membership_id) COLLATE \"C\" >= ? AND upper(membership_id) COLLATE \"C\" < ?";
+    private static final String MEMBERSHIP_ORDER = "upper(membership_id) COLLATE \"C\", id";
+    private static final String PHONE_KEY = "phone_digits AS sort_key, 0.0::real AS distance";
+    private static final String PHONE_MATCH = "phone_digits >= ? AND phone_digits < ?";
+    private static final String PHONE_ORDER = "phone_digits, id";
+    // <% keeps names containing a word similar to the query; <<-> is 1 - that similarity, served by the GiST index
+    private static final String NAME_KEY = "NULL::text COLLATE \"C\" AS sort_key, ? <<-> lower(name) AS distance";
+    private static final String NAME_MATCH = "? <% lower(name)";
+    private static final String NAME_ORDER = "? <<-> lower(name), id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Any of the criteria may be null. {@code membershipPrefix} is upper case, {@code phoneDigits} digits only
+     * and {@code name} lower case. Returns up to {@code limit} rows after skipping {@code offset}.
+     */
+    public List<BorrowerSearchRow> search(String branch, String membershipPrefix, String phoneDigits, String name,
+                                          int offset, int limit) {
+        int window = offset + limit;
+        List<String> arms = new ArrayList<>(3);
+        List<Object> parameters = new ArrayList<>();
+        List<String> earlierMatches = new ArrayList<>(2);
+        List<Object> earlierParameters = new ArrayList<>();
+        if (membershipPrefix != null) {
+            List<Object> bounds = List.of(membershipPrefix, prefixUpperBound(membershipPrefix));
+            arms.add(arm(Match.MEMBERSHIP_ID, MEMBERSHIP_KEY, MEMBERSHIP_MATCH, MEMBERSHIP_ORDER, earlierMatches));
+            parameters.add(branch);
+            parameters.addAll(bounds);
+            parameters.addAll(earlierParameters);
+            parameters.add(window);
+            earlierMatches.add(MEMBERSHIP_MATCH);
+            earlierParameters.addAll(bounds);
+        }
+        if (phoneDigits != null) {
+            List<Object> bounds = List.of(phoneDigits, prefixUpperBound(phoneDigits));
+            arms.add(arm(Match.PHONE, PHONE_KEY, PHONE_MATCH, PHONE_ORDER, earlierMatches));
+            parameters.add(branch);
+            parameters.addAll(bounds);
+            parameters.addAll(earlierParameters);
+            parameters.add(window);
+            earlierMatches.add(PHONE_MATCH);
+            earlierParameters.addAll(bounds);
+        }
+        if (name != null) {
+            // Placeholders in order: the distance returned, the branch, the match and the distance sorted by
+            arms.add(arm(Match.NAME, NAME_KEY, NAME_MATCH, NAME_ORDER, earlierMatches));
+            parameters.add(name);
+            parameters.add(branch);
+            parameters.add(name);
+            parameters.addAll(earlierParameters);
+            parameters.add(name);
+            parameters.add(window);
+        }
+        if (arms.isEmpty()) {
+            return List.of();
+        }
+        parameters.add(offset);
+        parameters.add(limit);
+
+        String sql = "SELECT b.id, b.name, b.email, b.phone, b.membership_id, b.membership_type, b.is_active, "
+                + "hits.match_rank "
+                + "FROM (" + String.join(" UNION ALL ", arms) + ") hits "
+                + "JOIN borrowers b ON b.id = hits.id "
+                + "ORDER BY hits.match_rank, hits.sort_key COLLATE \"C\", hits.distance, b.id "
+                + "OFFSET ? LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new BorrowerSearchRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("membership_id"),
+                MembershipType.valueOf(rs.getString("membership_type")),
+                rs.getBoolean("is_active"),
+                Match.values()[rs.getInt("match_rank")]), parameters.toArray());
+    }
+
+    // The first window rows of one criterion in result order, without those an earlier criterion matches
+    private static String arm(Match match, String sortKey, String condition, String order, List<String> earlierMatches) {
+        StringBuilder sql = new StringBuilder("(SELECT id, ").append(match.ordinal()).append(" AS match_rank, ")
+                .append(sortKey).append(" FROM borrowers WHERE branch = ? AND retired_at IS NULL AND ").append(condition);
+        for (String earlier : earlierMatches) {
+            sql.append(" AND NOT (").append(earlier).append(')');
+        }
+        return sql.append(" ORDER BY ").append(order).append(" LIMIT ?)").toString();
+    }
+
+    // Smallest string above every string starting with the (ASCII) prefix, in "C" collation order
+    private static String prefixUpperBound(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.management.repository;
+
+import com.library.management.entity.Borrower.MembershipType;
+
+// A borrower found by the desk search, with the field it matched on
+public record BorrowerSearchRow(Long id, String name, String email, String phone, String membershipId,
+                                MembershipType membershipType, Boolean isActive, Match match) {
+
+    // In ranking order
+    public enum Match {
+        MEMBERSHIP_ID, PHONE, NAME
+    }
+}
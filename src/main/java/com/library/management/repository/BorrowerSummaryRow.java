@@ -0,0 +1,12 @@
+package com.library.management.repository;
+
+import com.library.management.entity.Borrower.MembershipType;
+
+import java.time.LocalDate;
+
+// One row per open loan (loan columns null when there are none), with the profile and recorded fines repeated
+public record BorrowerSummaryRow(Long borrowerId, String name, String email, String phone, String membershipId,
+                                 MembershipType membershipType, Boolean isActive, Double recordedFines,
+                                 Long recordId, Long bookId, String bookTitle, LocalDate borrowDate,
+                                 LocalDate dueDate) {
+}
@@ -0,0 +1,6 @@
+package com.library.management.repository;
+
+import java.time.LocalDate;
+
+public record DueDateCount(LocalDate dueDate, Long loans) {
+}
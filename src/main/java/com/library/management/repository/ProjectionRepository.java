@@ -0,0 +1,64 @@
+package com.library.management.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class ProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Selects only the given attribute paths (alias -> path, e.g. "bookTitle" -> "book.title")
+     * as a tuple query, so unrequested columns are never read from the database.
+     */
+    public <T> List<Map<String, Object>> findProjected(Class<T> entityClass, Map<String, String> fields,
+                                                       Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        fields.forEach((alias, attributePath) -> selections.add(resolvePath(root, attributePath).alias(alias)));
+        query.multiselect(selections);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> toRow(tuple, fields))
+                .collect(Collectors.toList());
+    }
+
+    private static Path<?> resolvePath(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+
+    private static Map<String, Object> toRow(Tuple tuple, Map<String, String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String alias : fields.keySet()) {
+            Object value = tuple.get(alias);
+            row.put(alias, value instanceof Enum<?> e ? e.name() : value);
+        }
+        return row;
+    }
+}
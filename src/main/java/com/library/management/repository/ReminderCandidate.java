@@ -0,0 +1,7 @@
+package com.library.management.repository;
+
+import java.time.LocalDate;
+
+public record ReminderCandidate(Long recordId, LocalDate dueDate, String bookTitle,
+                                Long borrowerId, String borrowerName, String email, String phone) {
+}
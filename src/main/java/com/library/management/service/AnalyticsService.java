@@ -0,0 +1,190 @@
+package com.library.management.service;
+
+import com.library.management.analytics.CirculationAggregation;
+import com.library.management.analytics.CirculationSnapshot;
+import com.library.management.analytics.CirculationSnapshot.Columns;
+import com.library.management.analytics.CirculationTotals;
+import com.library.management.dto.CirculationReportDTO;
+import com.library.management.entity.BorrowRecord.BorrowStatus;
+import com.library.management.entity.Borrower.MembershipType;
+import com.library.management.exception.InvalidOperationException;
+import com.library.management.sharding.BranchRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Circulation reports computed from an in-memory {@link CirculationSnapshot} instead of the primary.
+ * The snapshot is refreshed incrementally: each run reads only rows whose updated_at (or created_at)
+ * is past the last watermark minus a small lag that covers transactions committing out of order.
+ * Loans removed by the archival job stay in the snapshot until the next restart. Every shard is
+ * read with its own watermark, since their clocks and commit order are independent.
+ */
+@Slf4j
+@Service
+public class AnalyticsService {
+
+    private static final int MAX_MONTHS = 120;
+
+    private static final String CHANGED_ROWS_SQL = """
+            SELECT br.id, b.category, bw.membership_type, br.status, br.borrow_date, br.due_date,
+                   br.return_date, br.fine_amount, COALESCE(br.updated_at, br.created_at) AS changed_at
+            FROM borrow_records br
+            JOIN books b ON b.id = br.book_id
+            JOIN borrowers bw ON bw.id = br.borrower_id
+            WHERE COALESCE(br.updated_at, br.created_at) > ?
+            """;
+
+    private final CirculationSnapshot snapshot = new CirculationSnapshot();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BranchRouter branchRouter;
+    private final Duration watermarkLag;
+
+    private final Map<String, LocalDateTime> watermarks = new HashMap<>();
+    private volatile LocalDateTime snapshotAsOf;
+
+    public AnalyticsService(DataSource dataSource,
+                            BranchRouter branchRouter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${library.analytics.fetch-size:5000}") int fetchSize,
+                            @Value("${library.analytics.watermark-lag:PT5M}") Duration watermarkLag) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.branchRouter = branchRouter;
+        this.watermarkLag = watermarkLag;
+    }
+
+    @Scheduled(fixedDelayString = "${library.analytics.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        LocalDateTime refreshStarted = LocalDateTime.now();
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        branchRouter.forEachShard(shard -> rows[0] += refresh(shard));
+        snapshot.publish();
+        snapshotAsOf = refreshStarted;
+        log.debug("Analytics snapshot refreshed with {} changed rows in {} ms ({} rows total)",
+                rows[0], (System.nanoTime() - started) / 1_000_000, snapshot.columns().size());
+    }
+
+    private long refresh(String shard) {
+        LocalDateTime watermark = watermarks.getOrDefault(shard, LocalDateTime.of(1970, 1, 1, 0, 0));
+        LocalDateTime[] newest = {watermark};
+        long[] rows = new long[1];
+        // A transaction keeps the cursor open so rows are fetched in batches rather than all at once
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(CHANGED_ROWS_SQL, rs -> {
+            Date returnDate = rs.getDate("return_date");
+            snapshot.upsert(rs.getLong("id"),
+                    rs.getString("category"),
+                    MembershipType.valueOf(rs.getString("membership_type")),
+                    BorrowStatus.valueOf(rs.getString("status")),
+                    rs.getDate("borrow_date").toLocalDate(),
+                    rs.getDate("due_date").toLocalDate(),
+                    returnDate == null ? null : returnDate.toLocalDate(),
+                    rs.getDouble("fine_amount"));
+            LocalDateTime changedAt = rs.getTimestamp("changed_at").toLocalDateTime();
+            if (changedAt.isAfter(newest[0])) {
+                newest[0] = changedAt;
+            }
+            rows[0]++;
+        }, Timestamp.valueOf(watermark.minus(watermarkLag))));
+        watermarks.put(shard, newest[0]);
+        return rows[0];
+    }
+
+    public CirculationReportDTO getCirculationReport(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : end.withDayOfMonth(1).minusMonths(11);
+        if (start.isAfter(end)) {
+            throw new InvalidOperationException("'from' must not be after 'to'");
+        }
+        YearMonth firstMonth = YearMonth.from(start);
+        int months = (int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(end)) + 1;
+        if (months > MAX_MONTHS) {
+            throw new InvalidOperationException("Reports can span at most " + MAX_MONTHS + " months");
+        }
+
+        long started = System.nanoTime();
+        Columns columns = snapshot.columns();
+        int fromDay = (int) start.toEpochDay();
+        CirculationTotals totals = ForkJoinPool.commonPool().invoke(new CirculationAggregation(columns,
+                fromDay, (int) end.toEpochDay(), (int) today.toEpochDay(), monthOfDay(start, end, firstMonth), months));
+        double aggregationMillis = (System.nanoTime() - started) / 1_000_000.0;
+
+        String[] categories = columns.categories();
+        Map<String, Map<String, Long>> loansByCategoryAndMonth = new TreeMap<>();
+        Map<String, Double> averageLoanDays = new TreeMap<>();
+        for (int category = 0; category < categories.length; category++) {
+            Map<String, Long> perMonth = new LinkedHashMap<>();
+            for (int month = 0; month < months; month++) {
+                long loans = totals.loans(category, month);
+                if (loans > 0) {
+                    perMonth.put(firstMonth.plusMonths(month).toString(), loans);
+                }
+            }
+            if (!perMonth.isEmpty()) {
+                loansByCategoryAndMonth.put(categories[category], perMonth);
+            }
+            if (totals.returnedLoans(category) > 0) {
+                averageLoanDays.put(categories[category],
+                        (double) totals.loanDays(category) / totals.returnedLoans(category));
+            }
+        }
+
+        Map<String, Double> overdueRate = new LinkedHashMap<>();
+        for (MembershipType type : MembershipType.values()) {
+            long loans = totals.loans(type.ordinal());
+            overdueRate.put(type.name(), loans == 0 ? 0.0 : (double) totals.overdueLoans(type.ordinal()) / loans);
+        }
+
+        Map<String, Double> fines = new LinkedHashMap<>();
+        double totalFines = 0;
+        for (int month = 0; month < months; month++) {
+            fines.put(firstMonth.plusMonths(month).toString(), totals.fines(month));
+            totalFines += totals.fines(month);
+        }
+
+        return CirculationReportDTO.builder()
+                .from(start)
+                .to(end)
+                .loans(totals.rows())
+                .loansByCategoryAndMonth(loansByCategoryAndMonth)
+                .averageLoanDaysByCategory(averageLoanDays)
+                .overdueRateByMembershipType(overdueRate)
+                .fineTotalsByMonth(fines)
+                .totalFines(totalFines)
+                .snapshotAsOf(snapshotAsOf)
+                .aggregationMillis(aggregationMillis)
+                .build();
+    }
+
+    // Maps (epochDay - fromDay) to the report month index so the scan never builds LocalDates
+    private static short[] monthOfDay(LocalDate start, LocalDate end, YearMonth firstMonth) {
+        short[] monthOfDay = new short[(int) ChronoUnit.DAYS.between(start, end) + 1];
+        for (int day = 0; day < monthOfDay.length; day++) {
+            monthOfDay[day] = (short) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(start.plusDays(day)));
+        }
+        return monthOfDay;
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.management.service;
+
+import com.library.management.dto.BatchLookupResultDTO;
+import com.library.management.exception.InvalidOperationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+final class BatchLookup {
+
+    private BatchLookup() {
+    }
+
+    // Distinct ids in request order, bounded so one request cannot ask for the whole table
+    static List<Long> requestedIds(List<Long> ids, int maxIds) {
+        List<Long> distinct = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            throw new InvalidOperationException("At least one id is required");
+        }
+        if (distinct.size() > maxIds) {
+            throw new InvalidOperationException("At most " + maxIds + " ids can be looked up at once, got " + distinct.size());
+        }
+        return distinct;
+    }
+
+    static <T> BatchLookupResultDTO<T> inRequestOrder(List<Long> requested, List<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>(found.size() * 2);
+        for (T item : found) {
+            byId.put(idOf.apply(item), item);
+        }
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            T item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchLookupResultDTO<>(items, missing);
+    }
+}
@@ -0,0 +1,212 @@
+package com.library.management.service;
+
+import com.library.management.cache.CacheInvalidationPublisher;
+import com.library.management.cache.EntityType;
+import com.library.management.coalescing.RequestCoalescer;
+import com.library.management.dto.BookCopyDTO;
+import com.library.management.entity.Book;
+import com.library.management.entity.BookCopy;
+import com.library.management.entity.BookCopy.CopyStatus;
+import com.library.management.exception.InvalidOperationException;
+import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.repository.BookCopyRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.sharding.ShardRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Physical copies of each title. books.available_copies is a cached count: checkouts and returns only
+ * touch the copy row and mark the title dirty after commit, and a scheduled flush recomputes the
+ * counts of all dirty titles in one statement per shard, coalescing bursts on the same title. Dirty marks
+ * live in memory, so a slower full recount (also run at startup) repairs counts whose mark was lost with
+ * the process. Only AVAILABLE and OUT_OF_STOCK follow the count; other statuses are set by staff.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookCopyService {
+
+    // %s names the titles to recount as "ids"
+    private static final String REFRESH_SQL_TEMPLATE = """
+            UPDATE books b
+            SET available_copies = c.available,
+                status = CASE WHEN b.status NOT IN ('AVAILABLE', 'OUT_OF_STOCK') THEN b.status
+                              WHEN c.available > 0 THEN 'AVAILABLE' ELSE 'OUT_OF_STOCK' END
+            FROM (SELECT ids.id, count(bc.id) FILTER (WHERE bc.status = 'AVAILABLE') AS available
+                  FROM %s
+                  LEFT JOIN book_copies bc ON bc.book_id = ids.id
+                  GROUP BY ids.id) c
+            WHERE b.id = c.id
+              AND (b.available_copies <> c.available
+                   OR (b.status IN ('AVAILABLE', 'OUT_OF_STOCK')
+                       AND b.status <> CASE WHEN c.available > 0 THEN 'AVAILABLE' ELSE 'OUT_OF_STOCK' END))
+            RETURNING b.id
+            """;
+    private static final String REFRESH_AVAILABLE_SQL = REFRESH_SQL_TEMPLATE.formatted("unnest(?::bigint[]) AS ids(id)");
+    private static final String RECOUNT_AVAILABLE_SQL = REFRESH_SQL_TEMPLATE.formatted("books ids");
+
+    private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final ShardRegistry shardRegistry;
+    private final BranchRouter branchRouter;
+    private final LiveStatsService liveStats;
+    private final RequestCoalescer coalescer;
+
+    // Shard name -> titles whose count is stale
+    private final Map<String, Set<Long>> dirtyBooks = new ConcurrentHashMap<>();
+
+    // Must run inside the checkout transaction; the lock is held until it commits
+    public Optional<BookCopy> allocateCopy(Book book) {
+        Optional<BookCopy> copy = bookCopyRepository.lockAvailableCopy(book.getId());
+        copy.ifPresent(c -> {
+            c.setStatus(CopyStatus.ON_LOAN);
+            markDirtyAfterCommit(book.getId());
+            liveStats.availableCopiesChanged(-1);
+        });
+        return copy;
+    }
+
+    public void releaseCopy(BookCopy copy, CopyStatus status) {
+        copy.setStatus(status);
+        markDirtyAfterCommit(copy.getBook().getId());
+        if (status == CopyStatus.AVAILABLE) {
+            liveStats.availableCopiesChanged(1);
+        }
+    }
+
+    @Transactional
+    public void createCopies(Book book, int count) {
+        long existing = bookCopyRepository.countByBookId(book.getId());
+        List<BookCopy> copies = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            copies.add(BookCopy.builder()
+                    .book(book)
+                    .barcode(String.format("BK%08d-%03d", book.getId(), existing + i))
+                    .condition(BookCopy.CopyCondition.GOOD)
+                    .status(CopyStatus.AVAILABLE)
+                    .build());
+        }
+        bookCopyRepository.saveAll(copies);
+        liveStats.availableCopiesChanged(count);
+    }
+
+    // Adds copies or withdraws available ones; returns the resulting number of available copies
+    @Transactional
+    public int resize(Book book, int currentTotal, int newTotal) {
+        if (newTotal > currentTotal) {
+            createCopies(book, newTotal - currentTotal);
+        } else if (newTotal < currentTotal) {
+            int toWithdraw = currentTotal - newTotal;
+            List<BookCopy> withdrawable = bookCopyRepository.lockAvailableCopies(book.getId(), toWithdraw);
+            if (withdrawable.size() < toWithdraw) {
+                throw new InvalidOperationException("Cannot reduce total copies to " + newTotal
+                        + " while copies are on loan");
+            }
+            withdrawable.forEach(copy -> copy.setStatus(CopyStatus.WITHDRAWN));
+            bookCopyRepository.flush();
+            liveStats.availableCopiesChanged(-toWithdraw);
+        }
+        return (int) bookCopyRepository.countByBookIdAndStatus(book.getId(), CopyStatus.AVAILABLE);
+    }
+
+    // Must run inside the retiring transaction, after the books were retired
+    public void withdrawCopiesOfRetiredBooks(Collection<Long> bookIds, LocalDateTime now) {
+        bookCopyRepository.withdrawAvailableCopiesOfRetiredBooks(bookIds, now);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookCopyDTO> getCopies(Long bookId) {
+        if (!bookRepository.existsByIdAndRetiredAtIsNull(bookId)) {
+            throw new ResourceNotFoundException("Book not found with id: " + bookId);
+        }
+        return bookCopyRepository.findByBookIdOrderByIdAsc(bookId).stream()
+                .map(copy -> BookCopyDTO.builder()
+                        .id(copy.getId())
+                        .bookId(bookId)
+                        .barcode(copy.getBarcode())
+                        .condition(copy.getCondition().name())
+                        .location(copy.getLocation())
+                        .status(copy.getStatus().name())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${library.inventory.refresh-interval:PT0.5S}")
+    public void refreshAvailableCopies() {
+        branchRouter.forEachShard(this::refreshAvailableCopies);
+    }
+
+    private void refreshAvailableCopies(String shard) {
+        Set<Long> dirty = dirtyBooks.get(shard);
+        if (dirty == null || dirty.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            batch.add(it.next());
+            it.remove();
+        }
+        try {
+            List<Long> changed = jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(REFRESH_AVAILABLE_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", batch.toArray()));
+                return statement;
+            }, (rs, rowNum) -> rs.getLong(1));
+            // Cached books on every node carry the old count
+            invalidationPublisher.publish(EntityType.BOOK, changed);
+        } catch (RuntimeException e) {
+            // Retry on the next run
+            dirty.addAll(batch);
+            log.warn("Failed to refresh available copies for {} books on shard {}", batch.size(), shard, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.inventory.recount-interval:PT15M}")
+    public void recountAvailableCopies() {
+        branchRouter.forEachShard(shard -> {
+            try {
+                List<Long> changed = jdbcTemplate.query(RECOUNT_AVAILABLE_SQL, (rs, rowNum) -> rs.getLong(1));
+                if (!changed.isEmpty()) {
+                    log.info("Recount corrected available copies of {} books on shard {}", changed.size(), shard);
+                    invalidationPublisher.publish(EntityType.BOOK, changed);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to recount available copies on shard {}", shard, e);
+            }
+        });
+    }
+
+    private void markDirtyAfterCommit(Long bookId) {
+        String shard = shardRegistry.shardFor(BranchContext.currentOrDefault());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirtyBooks.computeIfAbsent(shard, key -> ConcurrentHashMap.newKeySet()).add(bookId);
+                // A loan was opened or closed: borrower summaries read from now on must not join an older load
+                coalescer.invalidate();
+            }
+        });
+    }
+}
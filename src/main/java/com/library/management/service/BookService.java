@@ -1,27 +1,69 @@
 package com.library.management.service;
 
+import com.library.management.cache.CacheInvalidationPublisher;
+import com.library.management.cache.CacheNames;
+import com.library.management.cache.EntityType;
+import com.library.management.coalescing.RequestCoalescer;
+import com.library.management.dto.BatchLookupResultDTO;
 import com.library.management.dto.BookDTO;
+import com.library.management.dto.RetirementRequestDTO;
+import com.library.management.dto.RetirementResultDTO;
 import com.library.management.entity.Book;
 import com.library.management.exception.DuplicateResourceException;
+import com.library.management.exception.InvalidOperationException;
 import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.repository.BookRepository;
+import com.library.management.repository.ProjectionRepository;
+import com.library.management.sharding.BranchRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
+    private static final int RETIRE_BATCH_SIZE = 1000;
+
     private final BookRepository bookRepository;
+    private final BookCopyService bookCopyService;
+    private final ProjectionRepository projectionRepository;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final LiveStatsService liveStats;
+    private final BranchRouter branchRouter;
+    private final RequestCoalescer coalescer;
+
+    @Value("${library.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    // Fields selectable through ?fields=, mapped to Book attribute paths
+    private static final Map<String, String> BOOK_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("branch", "branch"),
+            Map.entry("title", "title"),
+            Map.entry("author", "author"),
+            Map.entry("isbn", "isbn"),
+            Map.entry("category", "category"),
+            Map.entry("totalCopies", "totalCopies"),
+            Map.entry("availableCopies", "availableCopies"),
+            Map.entry("publisher", "publisher"),
+            Map.entry("publishYear", "publishYear"),
+            Map.entry("description", "description"),
+            Map.entry("status", "status"));
 
     @Transactional
     public BookDTO createBook(BookDTO bookDTO) {
         // Check if ISBN already exists
-        if (bookRepository.findByIsbn(bookDTO.getIsbn()).isPresent()) {
+        if (bookRepository.findByIsbnAndRetiredAtIsNull(bookDTO.getIsbn()).isPresent()) {
             throw new DuplicateResourceException("Book with ISBN " + bookDTO.getIsbn() + " already exists");
         }
 
@@ -39,63 +81,107 @@ public class BookService {
                 .build();
 
         Book savedBook = bookRepository.save(book);
+        bookCopyService.createCopies(savedBook, savedBook.getTotalCopies());
+        liveStats.totalCopiesChanged(savedBook.getTotalCopies());
+        // Nothing is cached yet, but every node's suggest index has to learn about the new title
+        invalidationPublisher.publish(EntityType.BOOK_CATALOG, savedBook.getId());
         return convertToDTO(savedBook);
     }
 
+    // sync: an eviction waits for a load in progress and then removes its result, which may predate the write
+    @Cacheable(cacheNames = CacheNames.BOOKS, key = CacheNames.BRANCH_KEY, sync = true)
     @Transactional(readOnly = true)
     public BookDTO getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        return bookRepository.findByIdAndRetiredAtIsNull(id)
+                .map(this::convertToDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-        return convertToDTO(book);
     }
 
-    @Transactional(readOnly = true)
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
+    // Live books for a list of ids in one query per branch searched, in request order
+    public BatchLookupResultDTO<BookDTO> getBooksByIds(List<Long> ids) {
+        List<Long> requested = BatchLookup.requestedIds(ids, maxBatchIds);
+        List<BookDTO> found = branchRouter.gather(() -> bookRepository.findByIdInAndRetiredAtIsNull(requested)).stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .toList();
+        return BatchLookup.inRequestOrder(requested, found, BookDTO::getId);
+    }
+
+    public List<BookDTO> getAllBooks() {
+        return coalescer.read("BookService.getAllBooks", List.of(), () ->
+                bookRepository.findByRetiredAtIsNull().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return coalescer.read("BookService.searchBooksByTitle", title, () ->
+                bookRepository.findByTitleContainingIgnoreCaseAndRetiredAtIsNull(title).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByAuthor(String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return coalescer.read("BookService.searchBooksByAuthor", author, () ->
+                bookRepository.findByAuthorContainingIgnoreCaseAndRetiredAtIsNull(author).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> getBooksByCategory(String category) {
-        return bookRepository.findByCategory(category).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return coalescer.read("BookService.getBooksByCategory", category, () ->
+                bookRepository.findByCategoryAndRetiredAtIsNull(category).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> getLowStockBooks() {
-        return bookRepository.findLowStockBooks().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return coalescer.read("BookService.getLowStockBooks", List.of(), () ->
+                bookRepository.findLowStockBooks().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
+    }
+
+    public List<Map<String, Object>> getAllBooks(List<String> fields) {
+        return coalescer.read("BookService.getAllBooks(fields)", fields, () -> findProjected(fields, null));
+    }
+
+    public List<Map<String, Object>> searchBooksByTitle(String title, List<String> fields) {
+        return coalescer.read("BookService.searchBooksByTitle(fields)", List.of(title, fields), () ->
+                findProjected(fields, (root, query, cb) ->
+                        cb.like(cb.lower(root.get("title")), FieldSelection.containsPattern(title), '\\')));
+    }
+
+    public List<Map<String, Object>> searchBooksByAuthor(String author, List<String> fields) {
+        return coalescer.read("BookService.searchBooksByAuthor(fields)", List.of(author, fields), () ->
+                findProjected(fields, (root, query, cb) ->
+                        cb.like(cb.lower(root.get("author")), FieldSelection.containsPattern(author), '\\')));
+    }
+
+    public List<Map<String, Object>> getBooksByCategory(String category, List<String> fields) {
+        return coalescer.read("BookService.getBooksByCategory(fields)", List.of(category, fields), () ->
+                findProjected(fields, (root, query, cb) -> cb.equal(root.get("category"), category)));
+    }
+
+    public List<Map<String, Object>> getLowStockBooks(List<String> fields) {
+        return coalescer.read("BookService.getLowStockBooks(fields)", fields, () ->
+                findProjected(fields, (root, query, cb) ->
+                        cb.lt(root.get("availableCopies"), cb.prod(root.<Number>get("totalCopies"), 0.2))));
     }
 
     @Transactional
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findByIdAndRetiredAtIsNull(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
 
         // Check if ISBN is being changed and if it already exists
         if (!book.getIsbn().equals(bookDTO.getIsbn())) {
-            if (bookRepository.findByIsbn(bookDTO.getIsbn()).isPresent()) {
+            if (bookRepository.findByIsbnAndRetiredAtIsNull(bookDTO.getIsbn()).isPresent()) {
                 throw new DuplicateResourceException("Book with ISBN " + bookDTO.getIsbn() + " already exists");
             }
         }
 
+        boolean catalogChanged = !Objects.equals(book.getTitle(), bookDTO.getTitle())
+                || !Objects.equals(book.getAuthor(), bookDTO.getAuthor());
         book.setTitle(bookDTO.getTitle());
         book.setAuthor(bookDTO.getAuthor());
         book.setIsbn(bookDTO.getIsbn());
@@ -104,51 +190,71 @@ public class BookService {
         book.setPublishYear(bookDTO.getPublishYear());
         book.setDescription(bookDTO.getDescription());
 
-        // Update total copies and adjust available copies accordingly
-        if (bookDTO.getTotalCopies() != null) {
-            int difference = bookDTO.getTotalCopies() - book.getTotalCopies();
+        // Add or withdraw physical copies, then recount the available ones
+        if (bookDTO.getTotalCopies() != null && !bookDTO.getTotalCopies().equals(book.getTotalCopies())) {
+            int available = bookCopyService.resize(book, book.getTotalCopies(), bookDTO.getTotalCopies());
+            liveStats.totalCopiesChanged(bookDTO.getTotalCopies() - book.getTotalCopies());
             book.setTotalCopies(bookDTO.getTotalCopies());
-            book.setAvailableCopies(book.getAvailableCopies() + difference);
+            book.setAvailableCopies(available);
+            book.setStatus(available > 0 ? Book.BookStatus.AVAILABLE : Book.BookStatus.OUT_OF_STOCK);
         }
 
         Book updatedBook = bookRepository.save(book);
+        invalidationPublisher.publish(catalogChanged ? EntityType.BOOK_CATALOG : EntityType.BOOK, id);
         return convertToDTO(updatedBook);
     }
 
+    // Soft delete: the book and its borrow history stay, it just disappears from the catalog
     @Transactional
     public void deleteBook(Long id) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-        bookRepository.delete(book);
+        if (!bookRepository.existsByIdAndRetiredAtIsNull(id)) {
+            throw new ResourceNotFoundException("Book not found with id: " + id);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (bookRepository.retireByIds(List.of(id), now) == 0) {
+            throw new InvalidOperationException("Cannot remove book " + id + " while copies are on loan");
+        }
+        bookCopyService.withdrawCopiesOfRetiredBooks(List.of(id), now);
+        invalidationPublisher.publish(EntityType.BOOK_CATALOG, id);
+        liveStats.recountAfterCommit();
     }
 
     @Transactional
-    public void decrementAvailableCopies(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
+    public RetirementResultDTO retireBooks(RetirementRequestDTO request) {
+        List<Long> ids;
+        if (request.getIds() != null && request.getCategory() == null && request.getInactiveSince() == null) {
+            ids = request.getIds().stream().distinct().toList();
+        } else if (request.getIds() == null && request.getCategory() != null && request.getInactiveSince() == null) {
+            ids = bookRepository.findLiveIdsByCategory(request.getCategory());
+        } else if (request.getIds() == null && request.getCategory() == null && request.getInactiveSince() != null) {
+            ids = bookRepository.findLiveIdsNotBorrowedSince(request.getInactiveSince(),
+                    request.getInactiveSince().atStartOfDay());
+        } else {
+            throw new InvalidOperationException("Specify exactly one of ids, category or inactiveSince");
+        }
 
-        if (book.getAvailableCopies() == 0) {
-            book.setStatus(Book.BookStatus.OUT_OF_STOCK);
+        LocalDateTime now = LocalDateTime.now();
+        int retired = 0;
+        for (int from = 0; from < ids.size(); from += RETIRE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + RETIRE_BATCH_SIZE));
+            retired += bookRepository.retireByIds(batch, now);
+            bookCopyService.withdrawCopiesOfRetiredBooks(batch, now);
         }
-        bookRepository.save(book);
+        invalidationPublisher.publish(EntityType.BOOK_CATALOG, ids);
+        liveStats.recountAfterCommit();
+        return new RetirementResultDTO(ids.size(), retired);
     }
 
-    @Transactional
-    public void incrementAvailableCopies(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-
-        if (book.getAvailableCopies() > 0) {
-            book.setStatus(Book.BookStatus.AVAILABLE);
-        }
-        bookRepository.save(book);
+    private List<Map<String, Object>> findProjected(List<String> fields, Specification<Book> specification) {
+        Specification<Book> live = (root, query, cb) -> cb.isNull(root.get("retiredAt"));
+        return projectionRepository.findProjected(Book.class, FieldSelection.resolve(fields, BOOK_FIELDS),
+                specification == null ? live : live.and(specification));
     }
 
     private BookDTO convertToDTO(Book book) {
         return BookDTO.builder()
                 .id(book.getId())
+                .branch(book.getBranch())
                 .title(book.getTitle())
                 .author(book.getAuthor())
                 .isbn(book.getIsbn())
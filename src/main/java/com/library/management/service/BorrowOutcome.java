@@ -0,0 +1,15 @@
+package com.library.management.service;
+
+import com.library.management.dto.BorrowRecordDTO;
+
+/**
+ * Result of a checkout attempt: either the new loan or the business reason it was refused.
+ */
+public sealed interface BorrowOutcome {
+
+    record Borrowed(BorrowRecordDTO record) implements BorrowOutcome {
+    }
+
+    record Rejected(BorrowRejection rejection) implements BorrowOutcome {
+    }
+}
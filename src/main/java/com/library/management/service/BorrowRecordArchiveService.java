@@ -0,0 +1,209 @@
+package com.library.management.service;
+
+import com.library.management.sharding.BranchRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BorrowRecordArchiveService {
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("borrow_records_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BranchRouter branchRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${library.archive.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${library.archive.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${library.archive.directory:archive}")
+    private String archiveDirectory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.partitions.cron:0 0 1 * * *}")
+    public void ensureUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        branchRouter.forEachShard(shard -> {
+            for (int i = 0; i <= monthsAhead; i++) {
+                jdbcTemplate.queryForList("SELECT ensure_borrow_records_partition(?)",
+                        Date.valueOf(current.plusMonths(i).atDay(1)));
+            }
+        });
+    }
+
+    // Moves closed loans (RETURNED/LOST) borrowed before the retention cutoff into gzipped CSV files,
+    // then drops monthly partitions that became empty. Open loans are never archived. Ids are unique
+    // across shards, so every shard's batches go to the same directory.
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void archiveClosedRecords() {
+        branchRouter.forEachShard(this::archiveClosedRecords);
+    }
+
+    private void archiveClosedRecords(String shard) {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        Path directory = Path.of(archiveDirectory);
+        long archived = 0;
+
+        try {
+            Files.createDirectories(directory);
+            while (true) {
+                long moved = archiveBatch(directory, cutoff);
+                if (moved == 0) {
+                    break;
+                }
+                archived += moved;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Archiving borrow records of shard {} to {} failed after {} records", shard, directory, archived, e);
+            return;
+        }
+
+        log.info("Archived {} closed borrow records of shard {} borrowed before {}", archived, shard, cutoff);
+        dropEmptyPartitions(cutoff);
+    }
+
+    // One transaction per batch: the rows are deleted into a temporary table, written out from there and the
+    // delete only commits once the file is on disk. A failure leaves the rows in place and removes the file,
+    // which a later run (with another cutoff or id range) would not overwrite, so no row is archived twice.
+    private long archiveBatch(Path directory, LocalDate cutoff) throws IOException {
+        try {
+            Long moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("CREATE TEMPORARY TABLE borrow_records_archive_batch (LIKE borrow_records) ON COMMIT DROP");
+                int count = jdbcTemplate.update("WITH moved AS (DELETE FROM borrow_records WHERE id IN ("
+                                + "SELECT id FROM borrow_records WHERE status IN ('RETURNED', 'LOST') AND borrow_date < ? "
+                                + "ORDER BY id LIMIT ?) AND borrow_date < ? RETURNING *) "
+                                + "INSERT INTO borrow_records_archive_batch SELECT * FROM moved",
+                        Date.valueOf(cutoff), batchSize, Date.valueOf(cutoff));
+                if (count == 0) {
+                    return 0L;
+                }
+                Long firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM borrow_records_archive_batch", Long.class);
+                Long lastId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM borrow_records_archive_batch", Long.class);
+                Path target = directory.resolve("borrow_records_" + cutoff + "_" + firstId + "-" + lastId + ".csv.gz");
+                deleteOnRollback(target);
+                try {
+                    writeArchiveFile(target,
+                            "COPY (SELECT * FROM borrow_records_archive_batch ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return (long) count;
+            });
+            return moved == null ? 0 : moved;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // On the batch transaction's connection, so the COPY sees its temporary table
+    private void writeArchiveFile(Path target, String copySql) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             GZIPOutputStream out = new GZIPOutputStream(new BufferedOutputStream(file))) {
+            jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try {
+                    return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copySql, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.finish();
+            out.flush();
+            file.getFD().sync();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteOnRollback(Path target) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Not on STATUS_UNKNOWN: the delete may have committed, and then the file is the only copy
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException e) {
+                    log.error("Could not delete archive file {} of a rolled back batch; its rows are still in the "
+                            + "database and will be archived again", target, e);
+                }
+            }
+        });
+    }
+
+    private void dropEmptyPartitions(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'borrow_records'", String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+
+            // Detached first, so no row can arrive between the emptiness check and the drop
+            Boolean dropped = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("ALTER TABLE borrow_records DETACH PARTITION " + partition);
+                Boolean hasRows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+                if (Boolean.TRUE.equals(hasRows)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                return true;
+            });
+            if (Boolean.TRUE.equals(dropped)) {
+                log.info("Dropped empty borrow record partition {}", partition);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.management.service;
+
+import com.library.management.exception.BookNotAvailableException;
+import com.library.management.exception.BorrowerNotActiveException;
+import com.library.management.exception.ErrorTemplate;
+import com.library.management.exception.InvalidOperationException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected reasons a checkout is refused, each with its precomputed error payload.
+ */
+public enum BorrowRejection {
+
+    BORROWER_NOT_ACTIVE(new ErrorTemplate(HttpStatus.FORBIDDEN, "Borrower Not Active",
+            "Borrower account is not active")),
+    BOOK_NOT_AVAILABLE(new ErrorTemplate(HttpStatus.CONFLICT, "Book Not Available",
+            "Book is currently not available")),
+    BORROW_LIMIT_REACHED(new ErrorTemplate(HttpStatus.BAD_REQUEST, "Invalid Operation",
+            "Borrower has reached maximum borrow limit of " + BorrowService.MAX_BOOKS_PER_BORROWER + " books"));
+
+    private final ErrorTemplate template;
+
+    BorrowRejection(ErrorTemplate template) {
+        this.template = template;
+    }
+
+    public ErrorTemplate getTemplate() {
+        return template;
+    }
+
+    // For callers that still expect the exception-based contract
+    public RuntimeException toException() {
+        return switch (this) {
+            case BORROWER_NOT_ACTIVE -> new BorrowerNotActiveException(template.getMessage());
+            case BOOK_NOT_AVAILABLE -> new BookNotAvailableException(template.getMessage());
+            case BORROW_LIMIT_REACHED -> new InvalidOperationException(template.getMessage());
+        };
+    }
+}
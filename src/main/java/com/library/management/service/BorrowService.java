@@ -4,19 +4,28 @@ import com.library.management.dto.BorrowRecordDTO;
 import com.library.management.dto.BorrowRequestDTO;
 import com.library.management.dto.ReturnRequestDTO;
 import com.library.management.entity.Book;
+import com.library.management.entity.BookCopy;
 import com.library.management.entity.Borrower;
 import com.library.management.entity.BorrowRecord;
+import com.library.management.event.BookBorrowedEvent;
 import com.library.management.exception.*;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.BorrowerRepository;
 import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.repository.ProjectionRepository;
+import com.library.management.sharding.BranchContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,34 +35,65 @@ public class BorrowService {
     private final BorrowRecordRepository borrowRecordRepository;
     private final BookRepository bookRepository;
     private final BorrowerRepository borrowerRepository;
-    private final BookService bookService;
-
-    private static final int MAX_BOOKS_PER_BORROWER = 5;
-    private static final double FINE_PER_DAY = 2.0;
+    private final BookCopyService bookCopyService;
+    private final ProjectionRepository projectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LiveStatsService liveStats;
+
+    public static final int MAX_BOOKS_PER_BORROWER = 5;
+    public static final double FINE_PER_DAY = 2.0;
+    public static final double LOST_FINE = 100.0;
+
+    // Fields selectable through ?fields=, mapped to BorrowRecord attribute paths
+    private static final Map<String, String> BORROW_RECORD_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("branch", "branch"),
+            Map.entry("bookId", "book.id"),
+            Map.entry("borrowerId", "borrower.id"),
+            Map.entry("copyId", "copy.id"),
+            Map.entry("borrowDate", "borrowDate"),
+            Map.entry("dueDate", "dueDate"),
+            Map.entry("returnDate", "returnDate"),
+            Map.entry("status", "status"),
+            Map.entry("fineAmount", "fineAmount"),
+            Map.entry("notes", "notes"),
+            Map.entry("bookTitle", "book.title"),
+            Map.entry("borrowerName", "borrower.name"));
 
     @Transactional
     public BorrowRecordDTO borrowBook(BorrowRequestDTO request) {
+        BorrowOutcome outcome = tryBorrowBook(request);
+        if (outcome instanceof BorrowOutcome.Rejected rejected) {
+            throw rejected.rejection().toException();
+        }
+        return ((BorrowOutcome.Borrowed) outcome).record();
+    }
+
+    // Expected refusals (inactive borrower, no copies, limit reached) are returned rather than thrown
+    @Transactional
+    public BorrowOutcome tryBorrowBook(BorrowRequestDTO request) {
         // Fetch book and borrower
-        Book book = bookRepository.findById(request.getBookId())
+        Book book = bookRepository.findByIdAndRetiredAtIsNull(request.getBookId())
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + request.getBookId()));
 
-        Borrower borrower = borrowerRepository.findById(request.getBorrowerId())
+        Borrower borrower = borrowerRepository.findByIdAndRetiredAtIsNull(request.getBorrowerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + request.getBorrowerId()));
 
         // Validate borrower is active
         if (!borrower.getIsActive()) {
-            throw new BorrowerNotActiveException("Borrower account is not active");
-        }
-
-        // Check if book is available
-        if (book.getAvailableCopies() <= 0) {
-            throw new BookNotAvailableException("Book is currently not available");
+            return new BorrowOutcome.Rejected(BorrowRejection.BORROWER_NOT_ACTIVE);
         }
 
         // Check borrower's active borrow count
         Long activeBorrows = borrowRecordRepository.countActiveBorrowsByBorrowerId(borrower.getId());
         if (activeBorrows >= MAX_BOOKS_PER_BORROWER) {
-            throw new InvalidOperationException("Borrower has reached maximum borrow limit of " + MAX_BOOKS_PER_BORROWER + " books");
+            return new BorrowOutcome.Rejected(BorrowRejection.BORROW_LIMIT_REACHED);
+        }
+
+        // Lock a free copy; copies held by concurrent checkouts are skipped, not waited on
+        Optional<BookCopy> copy = bookCopyService.allocateCopy(book);
+        if (copy.isEmpty()) {
+            return new BorrowOutcome.Rejected(BorrowRejection.BOOK_NOT_AVAILABLE);
         }
 
         // Create borrow record
@@ -63,22 +103,24 @@ public class BorrowService {
         BorrowRecord borrowRecord = BorrowRecord.builder()
                 .book(book)
                 .borrower(borrower)
+                .copy(copy.get())
                 .borrowDate(borrowDate)
                 .dueDate(dueDate)
                 .status(BorrowRecord.BorrowStatus.BORROWED)
                 .fineAmount(0.0)
                 .build();
 
-        // Decrement available copies
-        bookService.decrementAvailableCopies(book.getId());
-
         BorrowRecord savedRecord = borrowRecordRepository.save(borrowRecord);
-        return convertToDTO(savedRecord);
+        liveStats.loanOpened(dueDate);
+        eventPublisher.publishEvent(new BookBorrowedEvent(savedRecord.getBranch(), savedRecord.getId(),
+                book.getId(), borrower.getId()));
+        return new BorrowOutcome.Borrowed(convertToDTO(savedRecord));
     }
 
     @Transactional
     public BorrowRecordDTO returnBook(ReturnRequestDTO request) {
         BorrowRecord borrowRecord = borrowRecordRepository.findById(request.getRecordId())
+                .filter(BorrowService::inCurrentBranch)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrow record not found with id: " + request.getRecordId()));
 
         // Validate record is in BORROWED status
@@ -88,6 +130,7 @@ public class BorrowService {
 
         LocalDate returnDate = LocalDate.now();
         borrowRecord.setReturnDate(returnDate);
+        liveStats.loanClosed(borrowRecord.getDueDate());
 
         // Calculate fine if overdue
         if (returnDate.isAfter(borrowRecord.getDueDate())) {
@@ -103,8 +146,10 @@ public class BorrowService {
             borrowRecord.setNotes(request.getNotes());
         }
 
-        // Increment available copies
-        bookService.incrementAvailableCopies(borrowRecord.getBook().getId());
+        // Put the copy back on the shelf
+        if (borrowRecord.getCopy() != null) {
+            bookCopyService.releaseCopy(borrowRecord.getCopy(), BookCopy.CopyStatus.AVAILABLE);
+        }
 
         BorrowRecord updatedRecord = borrowRecordRepository.save(borrowRecord);
         return convertToDTO(updatedRecord);
@@ -117,6 +162,13 @@ public class BorrowService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<BorrowRecordDTO> getBorrowRecordsByBorrower(Long borrowerId, LocalDate since) {
+        return borrowRecordRepository.findByBorrowerIdAndBorrowDateGreaterThanEqual(borrowerId, since).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<BorrowRecordDTO> getBorrowRecordsByBook(Long bookId) {
         return borrowRecordRepository.findByBookId(bookId).stream()
@@ -124,6 +176,13 @@ public class BorrowService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<BorrowRecordDTO> getBorrowRecordsByBook(Long bookId, LocalDate since) {
+        return borrowRecordRepository.findByBookIdAndBorrowDateGreaterThanEqual(bookId, since).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<BorrowRecordDTO> getOverdueRecords() {
         List<BorrowRecord> overdueRecords = borrowRecordRepository.findOverdueRecords(LocalDate.now());
@@ -148,30 +207,80 @@ public class BorrowService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getBorrowRecordsByBorrower(Long borrowerId, LocalDate since, List<String> fields) {
+        return findProjected(fields, borrowedSince(since).and((root, query, cb) ->
+                cb.equal(root.get("borrower").get("id"), borrowerId)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getBorrowRecordsByBook(Long bookId, LocalDate since, List<String> fields) {
+        return findProjected(fields, borrowedSince(since).and((root, query, cb) ->
+                cb.equal(root.get("book").get("id"), bookId)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOverdueRecords(List<String> fields) {
+        return findProjected(fields, (root, query, cb) -> cb.and(
+                cb.equal(root.get("status"), BorrowRecord.BorrowStatus.BORROWED),
+                cb.lessThan(root.<LocalDate>get("dueDate"), LocalDate.now())));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getActiveBorrows(List<String> fields) {
+        return findProjected(fields, (root, query, cb) ->
+                cb.equal(root.get("status"), BorrowRecord.BorrowStatus.BORROWED));
+    }
+
     @Transactional
     public BorrowRecordDTO markAsLost(Long recordId) {
         BorrowRecord borrowRecord = borrowRecordRepository.findById(recordId)
+                .filter(BorrowService::inCurrentBranch)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrow record not found with id: " + recordId));
 
         if (borrowRecord.getStatus() == BorrowRecord.BorrowStatus.RETURNED) {
             throw new InvalidOperationException("Cannot mark returned book as lost");
         }
 
+        if (borrowRecord.getStatus() == BorrowRecord.BorrowStatus.BORROWED) {
+            liveStats.loanClosed(borrowRecord.getDueDate());
+        }
         borrowRecord.setStatus(BorrowRecord.BorrowStatus.LOST);
         borrowRecord.setReturnDate(LocalDate.now());
 
         // Apply heavy fine for lost book
-        borrowRecord.setFineAmount(100.0);
+        borrowRecord.setFineAmount(LOST_FINE);
+
+        if (borrowRecord.getCopy() != null) {
+            bookCopyService.releaseCopy(borrowRecord.getCopy(), BookCopy.CopyStatus.LOST);
+        }
 
         BorrowRecord updatedRecord = borrowRecordRepository.save(borrowRecord);
         return convertToDTO(updatedRecord);
     }
 
+    // Lookups by id bypass Hibernate's tenant filter, and another branch may share the shard
+    private static boolean inCurrentBranch(BorrowRecord record) {
+        return record.getBranch().equals(BranchContext.currentOrDefault());
+    }
+
+    private static Specification<BorrowRecord> borrowedSince(LocalDate since) {
+        return (root, query, cb) -> since == null ? null : cb.greaterThanOrEqualTo(root.<LocalDate>get("borrowDate"), since);
+    }
+
+    private List<Map<String, Object>> findProjected(List<String> fields, Specification<BorrowRecord> specification) {
+        return projectionRepository.findProjected(BorrowRecord.class,
+                FieldSelection.resolve(fields, BORROW_RECORD_FIELDS), specification);
+    }
+
     private BorrowRecordDTO convertToDTO(BorrowRecord record) {
         return BorrowRecordDTO.builder()
                 .id(record.getId())
+                .branch(record.getBranch())
                 .bookId(record.getBook().getId())
                 .borrowerId(record.getBorrower().getId())
+                .copyId(record.getCopy() != null ? record.getCopy().getId() : null)
+                .copyBarcode(record.getCopy() != null ? record.getCopy().getBarcode() : null)
                 .borrowDate(record.getBorrowDate())
                 .dueDate(record.getDueDate())
                 .returnDate(record.getReturnDate())
@@ -1,15 +1,42 @@
 package com.library.management.service;
 
+import com.library.management.cache.CacheInvalidationPublisher;
+import com.library.management.cache.CacheNames;
+import com.library.management.cache.EntityType;
+import com.library.management.coalescing.RequestCoalescer;
+import com.library.management.dto.BatchLookupResultDTO;
 import com.library.management.dto.BorrowerDTO;
+import com.library.management.dto.BorrowerSearchHitDTO;
+import com.library.management.dto.BorrowerSearchResultDTO;
+import com.library.management.dto.BorrowerSummaryDTO;
+import com.library.management.dto.OpenLoanDTO;
+import com.library.management.dto.RetirementRequestDTO;
+import com.library.management.dto.RetirementResultDTO;
 import com.library.management.entity.Borrower;
 import com.library.management.exception.DuplicateResourceException;
+import com.library.management.exception.InvalidOperationException;
 import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.repository.BorrowerRepository;
+import com.library.management.repository.BorrowerSearchRepository;
+import com.library.management.repository.BorrowerSearchRow;
+import com.library.management.repository.BorrowerSummaryRow;
+import com.library.management.repository.ProjectionRepository;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -17,12 +44,42 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BorrowerService {
 
+    private static final int RETIRE_BATCH_SIZE = 1000;
+    private static final int MIN_SEARCH_LENGTH = 2;
+
     private final BorrowerRepository borrowerRepository;
+    private final ProjectionRepository projectionRepository;
+    private final BorrowerSearchRepository borrowerSearchRepository;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final LiveStatsService liveStats;
+    private final BranchRouter branchRouter;
+    private final RequestCoalescer coalescer;
+
+    @Value("${library.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${library.borrower-search.max-page-size:50}")
+    private int maxSearchPageSize;
+
+    // Deepest result a search can page to
+    @Value("${library.borrower-search.max-results:200}")
+    private int maxSearchResults;
+
+    // Fields selectable through ?fields=, mapped to Borrower attribute paths
+    private static final Map<String, String> BORROWER_FIELDS = Map.of(
+            "id", "id",
+            "branch", "branch",
+            "name", "name",
+            "email", "email",
+            "phone", "phone",
+            "membershipId", "membershipId",
+            "membershipType", "membershipType",
+            "isActive", "isActive");
 
     @Transactional
     public BorrowerDTO createBorrower(BorrowerDTO borrowerDTO) {
         // Check if email already exists
-        if (borrowerRepository.findByEmail(borrowerDTO.getEmail()).isPresent()) {
+        if (borrowerRepository.findByEmailAndRetiredAtIsNull(borrowerDTO.getEmail()).isPresent()) {
             throw new DuplicateResourceException("Borrower with email " + borrowerDTO.getEmail() + " already exists");
         }
 
@@ -38,38 +95,151 @@ public class BorrowerService {
                 .build();
 
         Borrower savedBorrower = borrowerRepository.save(borrower);
+        liveStats.activeBorrowersChanged(1);
         return convertToDTO(savedBorrower);
     }
 
+    // sync: an eviction waits for a load in progress and then removes its result, which may predate the write
+    @Cacheable(cacheNames = CacheNames.BORROWERS, key = CacheNames.BRANCH_KEY, sync = true)
     @Transactional(readOnly = true)
     public BorrowerDTO getBorrowerById(Long id) {
-        Borrower borrower = borrowerRepository.findById(id)
+        return borrowerRepository.findByIdAndRetiredAtIsNull(id)
+                .map(this::convertToDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + id));
-        return convertToDTO(borrower);
     }
 
-    @Transactional(readOnly = true)
-    public List<BorrowerDTO> getAllBorrowers() {
-        return borrowerRepository.findAll().stream()
+    public BatchLookupResultDTO<BorrowerDTO> getBorrowersByIds(List<Long> ids) {
+        List<Long> requested = BatchLookup.requestedIds(ids, maxBatchIds);
+        List<BorrowerDTO> found = branchRouter.gather(() -> borrowerRepository.findByIdInAndRetiredAtIsNull(requested))
+                .stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .toList();
+        return BatchLookup.inRequestOrder(requested, found, BorrowerDTO::getId);
+    }
+
+    public BorrowerSummaryDTO getBorrowerSummary(Long id) {
+        return coalescer.read("BorrowerService.getBorrowerSummary", id, () -> loadBorrowerSummary(id));
+    }
+
+    private BorrowerSummaryDTO loadBorrowerSummary(Long id) {
+        List<BorrowerSummaryRow> rows = borrowerRepository.findSummaryRows(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Borrower not found with id: " + id);
+        }
+
+        BorrowerSummaryRow first = rows.get(0);
+        LocalDate today = LocalDate.now();
+        List<OpenLoanDTO> openLoans = new ArrayList<>();
+        int overdueCount = 0;
+        double accruedFines = 0;
+        for (BorrowerSummaryRow row : rows) {
+            if (row.recordId() == null) {
+                continue;
+            }
+            long daysOverdue = Math.max(0, ChronoUnit.DAYS.between(row.dueDate(), today));
+            double accruedFine = daysOverdue * BorrowService.FINE_PER_DAY;
+            if (daysOverdue > 0) {
+                overdueCount++;
+                accruedFines += accruedFine;
+            }
+            openLoans.add(OpenLoanDTO.builder()
+                    .recordId(row.recordId())
+                    .bookId(row.bookId())
+                    .bookTitle(row.bookTitle())
+                    .borrowDate(row.borrowDate())
+                    .dueDate(row.dueDate())
+                    .overdue(daysOverdue > 0)
+                    .daysOverdue(daysOverdue)
+                    .accruedFine(accruedFine)
+                    .build());
+        }
+
+        BorrowerDTO profile = BorrowerDTO.builder()
+                .id(first.borrowerId())
+                .name(first.name())
+                .email(first.email())
+                .phone(first.phone())
+                .membershipId(first.membershipId())
+                .membershipType(first.membershipType().name())
+                .isActive(first.isActive())
+                .build();
+        int remainingAllowance = Boolean.TRUE.equals(first.isActive())
+                ? Math.max(0, BorrowService.MAX_BOOKS_PER_BORROWER - openLoans.size())
+                : 0;
+        return BorrowerSummaryDTO.builder()
+                .profile(profile)
+                .openLoans(openLoans)
+                .overdueCount(overdueCount)
+                .outstandingFines(first.recordedFines() + accruedFines)
+                .remainingAllowance(remainingAllowance)
+                .build();
+    }
+
+    public List<BorrowerDTO> getAllBorrowers() {
+        return coalescer.read("BorrowerService.getAllBorrowers", List.of(), () ->
+                borrowerRepository.findByRetiredAtIsNull().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
-    @Transactional(readOnly = true)
     public List<BorrowerDTO> getActiveBorrowers() {
-        return borrowerRepository.findByIsActive(true).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return coalescer.read("BorrowerService.getActiveBorrowers", List.of(), () ->
+                borrowerRepository.findByIsActiveAndRetiredAtIsNull(true).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
+    }
+
+    public List<Map<String, Object>> getAllBorrowers(List<String> fields) {
+        return coalescer.read("BorrowerService.getAllBorrowers(fields)", fields, () -> findProjected(fields, null));
+    }
+
+    public List<Map<String, Object>> getActiveBorrowers(List<String> fields) {
+        return coalescer.read("BorrowerService.getActiveBorrowers(fields)", fields, () ->
+                findProjected(fields, (root, query, cb) -> cb.isTrue(root.get("isActive"))));
+    }
+
+    // Desk lookup in the request's branch: membership id prefix, phone number prefix (digits only) or part of the name
+    public BorrowerSearchResultDTO searchBorrowers(String query, int page, int size) {
+        String text = query == null ? "" : query.trim().replaceAll("\\s+", " ");
+        if (text.length() < MIN_SEARCH_LENGTH) {
+            throw new InvalidOperationException("Search text must have at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        if (page < 0 || size < 1 || size > maxSearchPageSize) {
+            throw new InvalidOperationException("Page must be 0 or more and size between 1 and " + maxSearchPageSize);
+        }
+        String branch = BranchContext.currentOrDefault();
+        return coalescer.read("BorrowerService.searchBorrowers", List.of(text, page, size), () -> {
+            long offset = (long) page * size;
+            if (offset >= maxSearchResults) {
+                return new BorrowerSearchResultDTO(branch, page, size, List.of(), false);
+            }
+            int limit = (int) Math.min(size, maxSearchResults - offset);
+
+            String digits = text.replaceAll("[^0-9]", "");
+            String membershipPrefix = text.matches("[A-Za-z0-9-]+") ? text.toUpperCase(Locale.ROOT) : null;
+            String phoneDigits = text.matches("[0-9+()./ -]+") && digits.length() >= MIN_SEARCH_LENGTH ? digits : null;
+            String name = text.chars().anyMatch(Character::isLetter) ? text.toLowerCase(Locale.ROOT) : null;
+
+            // One row past the page tells whether another one follows
+            int fetch = offset + limit < maxSearchResults ? limit + 1 : limit;
+            List<BorrowerSearchRow> rows = borrowerSearchRepository.search(branch, membershipPrefix, phoneDigits, name,
+                    (int) offset, fetch);
+            List<BorrowerSearchHitDTO> hits = rows.stream()
+                    .limit(limit)
+                    .map(row -> new BorrowerSearchHitDTO(convertToDTO(branch, row), row.match().name()))
+                    .toList();
+            return new BorrowerSearchResultDTO(branch, page, size, hits, rows.size() > limit);
+        });
     }
 
     @Transactional
     public BorrowerDTO updateBorrower(Long id, BorrowerDTO borrowerDTO) {
-        Borrower borrower = borrowerRepository.findById(id)
+        Borrower borrower = borrowerRepository.findByIdAndRetiredAtIsNull(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + id));
 
         // Check if email is being changed and if it already exists
         if (!borrower.getEmail().equals(borrowerDTO.getEmail())) {
-            if (borrowerRepository.findByEmail(borrowerDTO.getEmail()).isPresent()) {
+            if (borrowerRepository.findByEmailAndRetiredAtIsNull(borrowerDTO.getEmail()).isPresent()) {
                 throw new DuplicateResourceException("Borrower with email " + borrowerDTO.getEmail() + " already exists");
             }
         }
@@ -83,43 +253,104 @@ public class BorrowerService {
         }
 
         if (borrowerDTO.getIsActive() != null) {
-            borrower.setIsActive(borrowerDTO.getIsActive());
+            setActive(borrower, borrowerDTO.getIsActive());
         }
 
         Borrower updatedBorrower = borrowerRepository.save(borrower);
+        invalidationPublisher.publish(EntityType.BORROWER, id);
         return convertToDTO(updatedBorrower);
     }
 
     @Transactional
     public void deactivateBorrower(Long id) {
-        Borrower borrower = borrowerRepository.findById(id)
+        Borrower borrower = borrowerRepository.findByIdAndRetiredAtIsNull(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + id));
-        borrower.setIsActive(false);
+        setActive(borrower, false);
         borrowerRepository.save(borrower);
+        invalidationPublisher.publish(EntityType.BORROWER, id);
     }
 
     @Transactional
     public void activateBorrower(Long id) {
-        Borrower borrower = borrowerRepository.findById(id)
+        Borrower borrower = borrowerRepository.findByIdAndRetiredAtIsNull(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + id));
-        borrower.setIsActive(true);
+        setActive(borrower, true);
         borrowerRepository.save(borrower);
+        invalidationPublisher.publish(EntityType.BORROWER, id);
     }
 
+    // Soft delete: the borrower and their borrow history stay, they just can no longer be found or borrow
     @Transactional
     public void deleteBorrower(Long id) {
-        Borrower borrower = borrowerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Borrower not found with id: " + id));
-        borrowerRepository.delete(borrower);
+        if (borrowerRepository.findByIdAndRetiredAtIsNull(id).isEmpty()) {
+            throw new ResourceNotFoundException("Borrower not found with id: " + id);
+        }
+        if (borrowerRepository.retireByIds(List.of(id), LocalDateTime.now()) == 0) {
+            throw new InvalidOperationException("Cannot remove borrower " + id + " while they have books on loan");
+        }
+        invalidationPublisher.publish(EntityType.BORROWER, id);
+        liveStats.recountAfterCommit();
+    }
+
+    @Transactional
+    public RetirementResultDTO retireBorrowers(RetirementRequestDTO request) {
+        if (request.getCategory() != null) {
+            throw new InvalidOperationException("Borrowers cannot be retired by category");
+        }
+        List<Long> ids;
+        if (request.getIds() != null && request.getInactiveSince() == null) {
+            ids = request.getIds().stream().distinct().toList();
+        } else if (request.getIds() == null && request.getInactiveSince() != null) {
+            ids = borrowerRepository.findLiveIdsInactiveSince(request.getInactiveSince(),
+                    request.getInactiveSince().atStartOfDay());
+        } else {
+            throw new InvalidOperationException("Specify exactly one of ids or inactiveSince");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int retired = 0;
+        for (int from = 0; from < ids.size(); from += RETIRE_BATCH_SIZE) {
+            retired += borrowerRepository.retireByIds(ids.subList(from, Math.min(ids.size(), from + RETIRE_BATCH_SIZE)), now);
+        }
+        invalidationPublisher.publish(EntityType.BORROWER, ids);
+        liveStats.recountAfterCommit();
+        return new RetirementResultDTO(ids.size(), retired);
+    }
+
+    private void setActive(Borrower borrower, boolean active) {
+        if (borrower.getIsActive() != active) {
+            liveStats.activeBorrowersChanged(active ? 1 : -1);
+        }
+        borrower.setIsActive(active);
+    }
+
+    private List<Map<String, Object>> findProjected(List<String> fields, Specification<Borrower> specification) {
+        Specification<Borrower> live = (root, query, cb) -> cb.isNull(root.get("retiredAt"));
+        return projectionRepository.findProjected(Borrower.class, FieldSelection.resolve(fields, BORROWER_FIELDS),
+                specification == null ? live : live.and(specification));
     }
 
     private String generateMembershipId() {
         return "MEM-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
+    private BorrowerDTO convertToDTO(String branch, BorrowerSearchRow row) {
+        return BorrowerDTO.builder()
+                .id(row.id())
+                .branch(branch)
+                .name(row.name())
+                .email(row.email())
+                .phone(row.phone())
+                .membershipId(row.membershipId())
+                .membershipType(row.membershipType().name())
+                .isActive(row.isActive())
+                .build();
+    }
+
     private BorrowerDTO convertToDTO(Borrower borrower) {
         return BorrowerDTO.builder()
                 .id(borrower.getId())
+                .branch(borrower.getBranch())
                 .name(borrower.getName())
                 .email(borrower.getEmail())
                 .phone(borrower.getPhone())
@@ -0,0 +1,44 @@
+package com.library.management.service;
+
+import com.library.management.exception.InvalidOperationException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    // Maps the requested DTO field names to entity attribute paths, keeping the request order
+    static Map<String, String> resolve(List<String> requested, Map<String, String> available) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String path = available.get(name);
+            if (path == null) {
+                throw new InvalidOperationException("Unknown field '" + name + "'. Allowed fields: "
+                        + String.join(", ", new TreeSet<>(available.keySet())));
+            }
+            selected.put(name, path);
+        }
+
+        if (selected.isEmpty()) {
+            throw new InvalidOperationException("At least one field must be requested");
+        }
+        return selected;
+    }
+
+    static String containsPattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
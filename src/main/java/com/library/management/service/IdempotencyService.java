@@ -0,0 +1,227 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.exception.IdempotencyKeyReusedException;
+import com.library.management.exception.InvalidOperationException;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Makes mutating endpoints safe to retry with an {@code Idempotency-Key} header.
+ * <p>
+ * The key is claimed with {@code INSERT ... ON CONFLICT DO NOTHING} in the same transaction that runs the
+ * operation and stores its response, so either both commit or neither does. A concurrent claim of the same
+ * key on another instance blocks on the unique index until the first transaction finishes. Within one
+ * instance, duplicates in flight wait on the first execution, and completed responses are served from a
+ * bounded cache. Failed operations are not stored; retrying them runs the operation again. Keys are scoped
+ * to the branch, and a key whose row has expired but not yet been purged is claimed afresh.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BranchRouter branchRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int maxCachedResponses;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, StoredResponse> completed = new ConcurrentHashMap<>();
+    private final Queue<String> completionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              BranchRouter branchRouter,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${library.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${library.idempotency.max-cached-responses:10000}") int maxCachedResponses) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.branchRouter = branchRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.maxCachedResponses = maxCachedResponses;
+    }
+
+    public <T> ResponseEntity<T> execute(String key, String operation, Object request, HttpStatus status,
+                                         Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new ResponseEntity<>(action.get(), status);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOperationException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(operation, request);
+        // Keys are stored on the branch's shard, so the same key may be in use at another branch
+        String branch = BranchContext.currentOrDefault();
+        String localKey = BranchContext.cacheKey(branch, key);
+
+        StoredResponse cached = completed.get(localKey);
+        if (cached != null && !cached.isExpired()) {
+            return replay(key, fingerprint, cached, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(localKey, execution);
+        if (running != null) {
+            return replay(key, fingerprint, await(running), responseType);
+        }
+
+        try {
+            Execution result = transactionTemplate.execute(tx -> claimAndRun(branch, key, fingerprint, status, action));
+            remember(localKey, result.response());
+            execution.complete(result.response());
+            if (result.executed()) {
+                return ResponseEntity.status(status).body(responseType.cast(result.body()));
+            }
+            return replay(key, fingerprint, result.response(), responseType);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, execution);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        branchRouter.forEachShard(shard -> {
+            int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < now()");
+            if (purged > 0) {
+                log.debug("Purged {} expired idempotency keys on shard {}", purged, shard);
+            }
+        });
+        completed.values().removeIf(StoredResponse::isExpired);
+    }
+
+    private <T> Execution claimAndRun(String branch, String key, String fingerprint, HttpStatus status,
+                                      Supplier<T> action) {
+        Timestamp expiresAt = new Timestamp(System.currentTimeMillis() + ttl.toMillis());
+        // An expired row is taken over rather than replayed; now() is fixed for the transaction, so the claim
+        // and the read below agree on whether the stored row is still live
+        int claimed = jdbcTemplate.update("INSERT INTO idempotency_keys (branch, idempotency_key, request_fingerprint, expires_at) "
+                + "VALUES (?, ?, ?, ?) ON CONFLICT (branch, idempotency_key) DO UPDATE "
+                + "SET request_fingerprint = EXCLUDED.request_fingerprint, status_code = NULL, response_body = NULL, "
+                + "created_at = now(), expires_at = EXCLUDED.expires_at "
+                + "WHERE idempotency_keys.expires_at <= now()", branch, key, fingerprint, expiresAt);
+        if (claimed == 0) {
+            List<StoredResponse> stored = jdbcTemplate.query("SELECT request_fingerprint, status_code, response_body, expires_at "
+                            + "FROM idempotency_keys WHERE branch = ? AND idempotency_key = ? AND expires_at > now()",
+                    (rs, rowNum) -> new StoredResponse(rs.getString(1), rs.getInt(2), rs.getString(3),
+                            rs.getTimestamp(4).getTime()),
+                    branch, key);
+            if (stored.isEmpty()) {
+                throw new IllegalStateException(HEADER + " '" + key + "' was neither claimed nor found");
+            }
+            return new Execution(stored.get(0), null, false);
+        }
+
+        T body = action.get();
+        String json = toJson(body);
+        jdbcTemplate.update("UPDATE idempotency_keys SET status_code = ?, response_body = ? "
+                + "WHERE branch = ? AND idempotency_key = ?", status.value(), json, branch, key);
+        return new Execution(new StoredResponse(fingerprint, status.value(), json, expiresAt.getTime()), body, true);
+    }
+
+    private <T> ResponseEntity<T> replay(String key, String fingerprint, StoredResponse stored, Class<T> responseType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(HEADER + " '" + key + "' was already used for a different request");
+        }
+        try {
+            return ResponseEntity.status(stored.statusCode())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.body(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for " + HEADER + " '" + key + "' is unreadable", e);
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        } catch (ExecutionException | CompletionException e) {
+            // The first execution failed; surface the same error for the duplicate
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void remember(String key, StoredResponse response) {
+        if (completed.put(key, response) == null) {
+            completionOrder.add(key);
+        }
+        while (completed.size() > maxCachedResponses) {
+            String eldest = completionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            completed.remove(eldest);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes());
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return operation + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint " + operation + " request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+
+    private record StoredResponse(String fingerprint, int statusCode, String body, long expiresAtMillis) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMillis;
+        }
+    }
+
+    private record Execution(StoredResponse response, Object body, boolean executed) {
+    }
+}
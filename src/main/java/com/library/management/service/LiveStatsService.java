@@ -0,0 +1,303 @@
+package com.library.management.service;
+
+import com.library.management.dto.LiveStatsDTO;
+import com.library.management.repository.BookCopyRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.repository.BorrowerRepository;
+import com.library.management.repository.DueDateCount;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard counters kept in memory, so reading them never touches the database. Services report
+ * deltas after their transaction commits. Open loans are counted per due date, which makes the
+ * overdue count follow the calendar without any write. A scheduled reconciliation recounts each
+ * branch in the database, logs any drift and adds the correction. The correction is only taken from a
+ * recount during which no delta was committing or applied; otherwise the recount is retried, because
+ * a loan committing in between would be counted both by the database and by its delta.
+ * <p>
+ * Counters only see this node's writes. With several nodes, each is corrected at every
+ * reconciliation, so {@code reconcile-interval} bounds how stale they can get.
+ */
+@Slf4j
+@Service
+public class LiveStatsService {
+
+    private static final int RECOUNT_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final BranchRouter branchRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<String, BranchCounters> counters = new ConcurrentHashMap<>();
+    // Branches changed by bulk operations that report no deltas; recounted without reporting drift
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    public LiveStatsService(BookRepository bookRepository,
+                            BookCopyRepository bookCopyRepository,
+                            BorrowerRepository borrowerRepository,
+                            BorrowRecordRepository borrowRecordRepository,
+                            BranchRouter branchRouter,
+                            PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookCopyRepository = bookCopyRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.borrowRecordRepository = borrowRecordRepository;
+        this.branchRouter = branchRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public LiveStatsDTO getLiveStats() {
+        String branch = BranchContext.current();
+        List<String> branches = branch != null ? List.of(branch) : branchRouter.branches();
+        LocalDate today = LocalDate.now();
+        long activeLoans = 0;
+        long overdueLoans = 0;
+        long totalCopies = 0;
+        long availableCopies = 0;
+        long activeBorrowers = 0;
+        // The oldest reconciliation, or none while any branch has yet to be counted
+        LocalDateTime reconciledAt = null;
+        boolean anyUnreconciled = false;
+        for (String name : branches) {
+            BranchCounters branchCounters = counters(name);
+            for (Map.Entry<LocalDate, LongAdder> entry : branchCounters.openLoansByDueDate.entrySet()) {
+                long loans = entry.getValue().sum();
+                activeLoans += loans;
+                if (entry.getKey().isBefore(today)) {
+                    overdueLoans += loans;
+                }
+            }
+            totalCopies += branchCounters.totalCopies.sum();
+            availableCopies += branchCounters.availableCopies.sum();
+            activeBorrowers += branchCounters.activeBorrowers.sum();
+            LocalDateTime branchReconciledAt = branchCounters.reconciledAt;
+            if (branchReconciledAt == null) {
+                anyUnreconciled = true;
+            } else if (reconciledAt == null || branchReconciledAt.isBefore(reconciledAt)) {
+                reconciledAt = branchReconciledAt;
+            }
+        }
+        return LiveStatsDTO.builder()
+                .activeLoans(activeLoans)
+                .overdueLoans(overdueLoans)
+                .totalCopies(totalCopies)
+                .availableCopies(availableCopies)
+                .activeBorrowers(activeBorrowers)
+                .reconciledAt(anyUnreconciled ? null : reconciledAt)
+                .build();
+    }
+
+    public void loanOpened(LocalDate dueDate) {
+        afterCommit(branchCounters -> branchCounters.addOpenLoans(dueDate, 1));
+    }
+
+    public void loanClosed(LocalDate dueDate) {
+        afterCommit(branchCounters -> branchCounters.addOpenLoans(dueDate, -1));
+    }
+
+    public void totalCopiesChanged(int delta) {
+        afterCommit(branchCounters -> branchCounters.totalCopies.add(delta));
+    }
+
+    public void availableCopiesChanged(int delta) {
+        afterCommit(branchCounters -> branchCounters.availableCopies.add(delta));
+    }
+
+    public void activeBorrowersChanged(int delta) {
+        afterCommit(branchCounters -> branchCounters.activeBorrowers.add(delta));
+    }
+
+    // For bulk changes whose effect on the counters is unknown without a query
+    public void recountAfterCommit() {
+        String branch = BranchContext.currentOrDefault();
+        runAfterCommit(() -> stale.add(branch));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialCount() {
+        branchRouter.forEachBranch(branch -> reconcile(branch, false));
+    }
+
+    @Scheduled(fixedDelayString = "${library.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${library.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        branchRouter.forEachBranch(branch -> reconcile(branch, true));
+    }
+
+    @Scheduled(fixedDelayString = "${library.stats.recount-delay:PT2S}")
+    public void recountStale() {
+        for (String branch : List.copyOf(stale)) {
+            stale.remove(branch);
+            BranchContext.run(branch, () -> reconcile(branch, false));
+        }
+    }
+
+    private synchronized void reconcile(String branch, boolean reportDrift) {
+        BranchCounters branchCounters = counters(branch);
+        Counts before;
+        Counts actual;
+        for (int attempt = 1; ; attempt++) {
+            long version = branchCounters.version.get();
+            before = branchCounters.counts();
+            try {
+                actual = readOnlyTransaction.execute(status -> countInDatabase(branch));
+            } catch (RuntimeException e) {
+                log.warn("Reconciling live stats of branch {} failed", branch, e);
+                return;
+            }
+            if (branchCounters.committing.get() == 0 && branchCounters.version.get() == version) {
+                break;
+            }
+            if (attempt == RECOUNT_ATTEMPTS) {
+                log.info("Reconciling live stats of branch {} skipped, writes kept committing during the recount",
+                        branch);
+                return;
+            }
+        }
+
+        Map<LocalDate, Long> loanCorrections = new HashMap<>(actual.openLoansByDueDate());
+        before.openLoansByDueDate().forEach((dueDate, loans) -> loanCorrections.merge(dueDate, -loans, Long::sum));
+        loanCorrections.forEach((dueDate, correction) -> {
+            if (correction != 0) {
+                branchCounters.addOpenLoans(dueDate, correction);
+            }
+        });
+        branchCounters.totalCopies.add(actual.totalCopies() - before.totalCopies());
+        branchCounters.availableCopies.add(actual.availableCopies() - before.availableCopies());
+        branchCounters.activeBorrowers.add(actual.activeBorrowers() - before.activeBorrowers());
+        branchCounters.reconciledAt = LocalDateTime.now();
+
+        if (reportDrift && !before.equals(actual)) {
+            log.warn("Live stats of branch {} drifted: open loans {} -> {}, total copies {} -> {}, "
+                            + "available copies {} -> {}, active borrowers {} -> {}", branch,
+                    before.openLoans(), actual.openLoans(), before.totalCopies(), actual.totalCopies(),
+                    before.availableCopies(), actual.availableCopies(),
+                    before.activeBorrowers(), actual.activeBorrowers());
+        }
+    }
+
+    private Counts countInDatabase(String branch) {
+        Map<LocalDate, Long> openLoans = new HashMap<>();
+        for (DueDateCount count : borrowRecordRepository.countOpenLoansByDueDate()) {
+            openLoans.put(count.dueDate(), count.loans());
+        }
+        return new Counts(openLoans,
+                bookRepository.sumLiveTotalCopies(),
+                bookCopyRepository.countAvailableInLiveBooks(branch),
+                borrowerRepository.countByIsActiveAndRetiredAtIsNull(true));
+    }
+
+    // The delta counts as committing from just before the commit until it is applied, so a recount that may
+    // already see the committed rows but not yet the delta is retried
+    private void afterCommit(Consumer<BranchCounters> delta) {
+        BranchCounters branchCounters = counters(BranchContext.currentOrDefault());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            branchCounters.apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                branchCounters.committing.incrementAndGet();
+                committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    branchCounters.apply(delta);
+                }
+                if (committing) {
+                    branchCounters.committing.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private BranchCounters counters(String branch) {
+        return counters.computeIfAbsent(branch, key -> new BranchCounters());
+    }
+
+    private static final class BranchCounters {
+
+        private final ConcurrentSkipListMap<LocalDate, LongAdder> openLoansByDueDate = new ConcurrentSkipListMap<>();
+        private final LongAdder totalCopies = new LongAdder();
+        private final LongAdder availableCopies = new LongAdder();
+        private final LongAdder activeBorrowers = new LongAdder();
+        // Bumped after every applied delta, so a recount can tell whether one landed while it ran
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicInteger committing = new AtomicInteger();
+        private volatile LocalDateTime reconciledAt;
+
+        void apply(Consumer<BranchCounters> delta) {
+            delta.accept(this);
+            version.incrementAndGet();
+        }
+
+        void addOpenLoans(LocalDate dueDate, long delta) {
+            openLoansByDueDate.computeIfAbsent(dueDate, key -> new LongAdder()).add(delta);
+        }
+
+        Counts counts() {
+            Map<LocalDate, Long> openLoans = new HashMap<>();
+            openLoansByDueDate.forEach((dueDate, loans) -> {
+                long sum = loans.sum();
+                if (sum != 0) {
+                    openLoans.put(dueDate, sum);
+                }
+            });
+            return new Counts(openLoans, totalCopies.sum(), availableCopies.sum(), activeBorrowers.sum());
+        }
+    }
+
+    private record Counts(Map<LocalDate, Long> openLoansByDueDate, long totalCopies, long availableCopies,
+                          long activeBorrowers) {
+
+        long openLoans() {
+            return openLoansByDueDate.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
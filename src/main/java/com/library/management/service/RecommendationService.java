@@ -0,0 +1,177 @@
+package com.library.management.service;
+
+import com.library.management.dto.RelatedBookDTO;
+import com.library.management.event.BookBorrowedEvent;
+import com.library.management.exception.InvalidOperationException;
+import com.library.management.repository.BorrowPair;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.util.CoOccurrenceIndex;
+import com.library.management.util.CoOccurrenceIndex.TopNeighbours;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * "Patrons who borrowed this also borrowed": for every loan, the book is paired with the borrower's
+ * previous {@code history-size} distinct books. The index is built once from a streaming scan of
+ * borrow_records and then updated after each committed checkout, from the borrower's loans of the last
+ * {@code history-days}; reads never touch the database.
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final BranchRouter branchRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CoOccurrenceIndex index;
+    private final int topK;
+    private final int historySize;
+    private final int historyDays;
+
+    // Checkouts committed while the bootstrap scan is running are applied once it finishes
+    private final Queue<BookBorrowedEvent> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+    private final Map<String, Long> bootstrapMaxRecordIds = new ConcurrentHashMap<>();
+
+    public RecommendationService(BorrowRecordRepository borrowRecordRepository,
+                                 BranchRouter branchRouter,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${library.recommendations.top-k:20}") int topK,
+                                 @Value("${library.recommendations.history-size:50}") int historySize,
+                                 @Value("${library.recommendations.history-days:365}") int historyDays,
+                                 @Value("${library.recommendations.max-books:200000}") int maxBooks) {
+        this.borrowRecordRepository = borrowRecordRepository;
+        this.branchRouter = branchRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+        this.historySize = historySize;
+        this.historyDays = historyDays;
+        this.index = new CoOccurrenceIndex(topK, topK * 3, maxBooks);
+    }
+
+    public List<RelatedBookDTO> getRelatedBooks(Long bookId, int limit) {
+        if (limit < 1) {
+            throw new InvalidOperationException("Limit must be at least 1");
+        }
+        TopNeighbours top = index.related(bookId);
+        int size = Math.min(Math.min(limit, topK), top.size());
+        List<RelatedBookDTO> related = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            related.add(new RelatedBookDTO(top.bookId(i), top.count(i)));
+        }
+        return related;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        long started = System.nanoTime();
+        long[] pairs = new long[1];
+        // Histories are per branch, as borrowers only borrow at their own branch
+        branchRouter.forEachBranch(branch -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<BorrowPair> stream = borrowRecordRepository.streamBorrowPairs()) {
+                BorrowerHistory history = new BorrowerHistory(historySize);
+                long maxRecordId = 0;
+                for (BorrowPair pair : (Iterable<BorrowPair>) stream::iterator) {
+                    if (history.borrowerId != pair.borrowerId()) {
+                        history.reset(pair.borrowerId());
+                    }
+                    pairs[0] += history.pairWith(pair.bookId(), index);
+                    maxRecordId = Math.max(maxRecordId, pair.recordId());
+                }
+                bootstrapMaxRecordIds.put(branch, maxRecordId);
+            }
+        }));
+        ready = true;
+        drainPending();
+        log.info("Built co-borrowing index for {} books from {} pairs in {} ms ({} books over budget)",
+                index.trackedBooks(), pairs[0], (System.nanoTime() - started) / 1_000_000, index.droppedBooks());
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onBookBorrowed(BookBorrowedEvent event) {
+        pending.add(event);
+        if (ready) {
+            drainPending();
+        }
+    }
+
+    private void drainPending() {
+        BookBorrowedEvent event;
+        while ((event = pending.poll()) != null) {
+            if (event.getRecordId() <= bootstrapMaxRecordIds.getOrDefault(event.getBranch(), 0L)) {
+                continue;
+            }
+            long bookId = event.getBookId();
+            previousBookIds(event).forEach(other -> index.addPair(bookId, other));
+        }
+    }
+
+    // Runs after the checkout committed, so the history read never holds the borrowing transaction open
+    private List<Long> previousBookIds(BookBorrowedEvent event) {
+        List<Long> bookIds = new ArrayList<>();
+        BranchContext.run(event.getBranch(), () -> readOnlyTransaction.executeWithoutResult(status ->
+                bookIds.addAll(borrowRecordRepository.findRecentBookIdsBefore(event.getBorrowerId(),
+                        LocalDate.now().minusDays(historyDays), event.getRecordId(),
+                        PageRequest.of(0, historySize)))));
+        return bookIds.stream().distinct().toList();
+    }
+
+    // Sliding window of one borrower's most recent distinct books during the bootstrap scan
+    private static final class BorrowerHistory {
+
+        private final long[] books;
+        private long borrowerId = Long.MIN_VALUE;
+        private int size;
+
+        BorrowerHistory(int capacity) {
+            this.books = new long[capacity];
+        }
+
+        void reset(long borrowerId) {
+            this.borrowerId = borrowerId;
+            this.size = 0;
+        }
+
+        int pairWith(long bookId, CoOccurrenceIndex index) {
+            int existing = -1;
+            for (int i = 0; i < size; i++) {
+                if (books[i] == bookId) {
+                    existing = i;
+                } else {
+                    index.addPair(bookId, books[i]);
+                }
+            }
+            int paired = existing < 0 ? size : size - 1;
+            // Move the book to the most recent slot, evicting the oldest when full
+            int from = existing >= 0 ? existing : (size == books.length ? 0 : -1);
+            if (from >= 0) {
+                System.arraycopy(books, from + 1, books, from, size - from - 1);
+                size--;
+            }
+            books[size++] = bookId;
+            return paired;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.reminder.ReminderChannel;
+import com.library.management.reminder.ReminderCheckpoint;
+import com.library.management.reminder.ReminderKind;
+import com.library.management.reminder.ReminderMessage;
+import com.library.management.reminder.ReminderSpool;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.repository.ReminderCandidate;
+import com.library.management.sharding.BranchRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nightly due-soon and overdue reminders. Open loans are read in keyset pages of {@code chunk-size}
+ * as flat projections (no entities, no lazy borrower loads), rendered on a bounded pool and appended
+ * to a {@link ReminderSpool}. After every page the spool is fsynced, a {@link ReminderCheckpoint}
+ * written and only then a full spool file released to the relay, so memory stays at one page however
+ * many loans there are, and a run interrupted by a crash or redeploy resumes after the last spooled
+ * loan instead of starting over. Each branch is spooled in turn, with its own checkpoint and spool
+ * subdirectory.
+ */
+@Slf4j
+@Service
+public class ReminderService {
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final BranchRouter branchRouter;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor renderers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${library.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.reminders.due-soon-days:2}")
+    private int dueSoonDays;
+
+    @Value("${library.reminders.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${library.reminders.spool-directory:spool/reminders}")
+    private Path spoolDirectory;
+
+    @Value("${library.reminders.checkpoint-file:data/reminders.checkpoint}")
+    private Path checkpointFile;
+
+    @Value("${library.reminders.messages-per-file:50000}")
+    private int messagesPerFile;
+
+    public ReminderService(BorrowRecordRepository borrowRecordRepository,
+                           BranchRouter branchRouter,
+                           ObjectMapper objectMapper,
+                           @Value("${library.reminders.render-threads:4}") int renderThreads) {
+        this.borrowRecordRepository = borrowRecordRepository;
+        this.branchRouter = branchRouter;
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full queue makes the submitting thread render too, which throttles it instead of dropping work
+        this.renderers = new ThreadPoolExecutor(renderThreads, renderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderThreads * 64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reminder-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Scheduled(cron = "${library.reminders.cron:0 0 6 * * *}")
+    public void sendNightlyReminders() {
+        if (enabled) {
+            run(LocalDate.now());
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        if (!enabled) {
+            return;
+        }
+        boolean interrupted = false;
+        for (String branch : branchRouter.branches()) {
+            try {
+                ReminderCheckpoint checkpoint = ReminderCheckpoint.read(checkpointFile(branch));
+                if (checkpoint != null && !checkpoint.completed() && checkpoint.runDate().equals(LocalDate.now())) {
+                    log.info("Resuming today's reminder run for branch {} after {} messages", branch,
+                            checkpoint.written());
+                    interrupted = true;
+                }
+            } catch (IOException e) {
+                log.warn("Not resuming reminders for branch {}: {}", branch, e.getMessage());
+            }
+        }
+        // Branches that already completed today are skipped by the run
+        if (interrupted) {
+            run(LocalDate.now());
+        }
+    }
+
+    public void run(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Reminder run for {} skipped, another run is in progress", today);
+            return;
+        }
+        try {
+            branchRouter.forEachBranch(branch -> run(today, branch));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(LocalDate today, String branch) {
+        long started = System.nanoTime();
+        Path checkpointPath = checkpointFile(branch);
+        ReminderCheckpoint checkpoint = null;
+        try {
+            checkpoint = ReminderCheckpoint.read(checkpointPath);
+            if (checkpoint == null || !checkpoint.runDate().equals(today)) {
+                checkpoint = ReminderCheckpoint.start(today);
+            } else if (checkpoint.completed()) {
+                log.info("Reminders of branch {} for {} were already spooled ({} messages)", branch, today,
+                        checkpoint.written());
+                return;
+            }
+
+            LocalDate dueBy = today.plusDays(dueSoonDays);
+            try (ReminderSpool spool = ReminderSpool.open(spoolDirectory.resolve(branch), messagesPerFile,
+                    checkpoint)) {
+                while (true) {
+                    List<ReminderCandidate> page = borrowRecordRepository.findReminderCandidates(dueBy,
+                            checkpoint.lastDueDate(), checkpoint.lastRecordId(), PageRequest.of(0, chunkSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    spool.append(renderAll(page, today));
+                    spool.commit();
+                    ReminderCandidate last = page.get(page.size() - 1);
+                    checkpoint = checkpoint.advance(last.dueDate(), last.recordId(), spool, page.size());
+                    checkpoint.write(checkpointPath);
+                    spool.rotate();
+                }
+            }
+            checkpoint = checkpoint.complete();
+            checkpoint.write(checkpointPath);
+            log.info("Spooled {} reminders of branch {} for {} in {} ms", checkpoint.written(), branch, today,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // Also covers a loan that cannot be rendered, so one bad row does not stop the other branches
+            log.error("Reminder run of branch {} for {} stopped after {} messages; it resumes from the checkpoint",
+                    branch, today, checkpoint == null ? 0 : checkpoint.written(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path checkpointFile(String branch) {
+        return checkpointFile.resolveSibling(checkpointFile.getFileName() + "." + branch);
+    }
+
+    // Keeps the page order so the spool matches the keyset position recorded in the checkpoint
+    private List<String> renderAll(List<ReminderCandidate> page, LocalDate today) throws InterruptedException {
+        List<Future<String>> pending = new ArrayList<>(page.size());
+        for (ReminderCandidate candidate : page) {
+            pending.add(renderers.submit(() -> render(candidate, today)));
+        }
+        List<String> lines = new ArrayList<>(page.size());
+        for (Future<String> future : pending) {
+            try {
+                lines.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Rendering a reminder failed", e.getCause());
+            }
+        }
+        return lines;
+    }
+
+    private String render(ReminderCandidate candidate, LocalDate today) {
+        boolean overdue = candidate.dueDate().isBefore(today);
+        String subject;
+        String body;
+        if (overdue) {
+            long daysOverdue = ChronoUnit.DAYS.between(candidate.dueDate(), today);
+            subject = "Overdue: " + candidate.bookTitle();
+            body = String.format("Hi %s, \"%s\" was due on %s and is %d day(s) overdue. "
+                            + "A fine of %.2f per day applies until it is returned (%.2f so far).",
+                    candidate.borrowerName(), candidate.bookTitle(), candidate.dueDate(), daysOverdue,
+                    BorrowService.FINE_PER_DAY, daysOverdue * BorrowService.FINE_PER_DAY);
+        } else {
+            subject = "Due soon: " + candidate.bookTitle();
+            body = String.format("Hi %s, \"%s\" is due back on %s.",
+                    candidate.borrowerName(), candidate.bookTitle(), candidate.dueDate());
+        }
+        boolean hasEmail = candidate.email() != null && !candidate.email().isBlank();
+        ReminderMessage message = new ReminderMessage(candidate.recordId(), candidate.borrowerId(),
+                overdue ? ReminderKind.OVERDUE : ReminderKind.DUE_SOON,
+                hasEmail ? ReminderChannel.EMAIL : ReminderChannel.SMS,
+                hasEmail ? candidate.email() : candidate.phone(),
+                subject, body, candidate.dueDate());
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize reminder for loan " + candidate.recordId(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderers.shutdownNow();
+    }
+}
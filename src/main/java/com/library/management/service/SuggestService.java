@@ -0,0 +1,174 @@
+package com.library.management.service;
+
+import com.library.management.cache.EntityType;
+import com.library.management.dto.BookSuggestionDTO;
+import com.library.management.event.EntityInvalidatedEvent;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.trending.TrendingWindow;
+import com.library.management.util.PrefixIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Type-ahead suggestions over titles and authors, answered from an immutable {@link PrefixIndex}.
+ * Catalog changes (new, renamed or retired books, on any node, via the cache invalidation events) are
+ * only counted; a background thread rebuilds the index from a cursor scan and swaps it in once enough
+ * changes have accumulated or the oldest one has waited {@code max-staleness}. Suggestions are ranked by
+ * the week's borrows, then by whether a copy is on the shelf; checkouts and returns don't trigger a
+ * rebuild, so the ranking is refreshed by the next one or after {@code max-age} at the latest.
+ */
+@Slf4j
+@Service
+public class SuggestService {
+
+    private static final String BOOKS_SQL =
+            "SELECT id, title, author, available_copies FROM books WHERE retired_at IS NULL";
+    private static final int MAX_PREFIX_LENGTH = 100;
+
+    private final TrendingService trendingService;
+    private final BranchRouter branchRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxResults;
+    private final int rebuildAfterChanges;
+    private final Duration minRebuildInterval;
+    private final Duration maxStaleness;
+    private final Duration maxAge;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private volatile long firstPendingAt;
+    private volatile long lastBuildStartedAt;
+    private volatile PrefixIndex index;
+
+    public SuggestService(TrendingService trendingService,
+                          BranchRouter branchRouter,
+                          DataSource dataSource,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${library.suggest.max-results:10}") int maxResults,
+                          @Value("${library.suggest.fetch-size:5000}") int fetchSize,
+                          @Value("${library.suggest.rebuild-after-changes:1000}") int rebuildAfterChanges,
+                          @Value("${library.suggest.min-rebuild-interval:PT5S}") Duration minRebuildInterval,
+                          @Value("${library.suggest.max-staleness:PT30S}") Duration maxStaleness,
+                          @Value("${library.suggest.max-age:PT10M}") Duration maxAge) {
+        this.trendingService = trendingService;
+        this.branchRouter = branchRouter;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxResults = maxResults;
+        this.rebuildAfterChanges = rebuildAfterChanges;
+        this.minRebuildInterval = minRebuildInterval;
+        this.maxStaleness = maxStaleness;
+        this.maxAge = maxAge;
+        this.index = PrefixIndex.empty(maxResults);
+    }
+
+    public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        String normalized = PrefixIndex.truncate(PrefixIndex.normalize(prefix, true), MAX_PREFIX_LENGTH);
+        PrefixIndex current = index;
+        int[] entries = current.lookup(normalized, Math.max(1, limit));
+        List<BookSuggestionDTO> suggestions = new ArrayList<>(entries.length);
+        for (int entry : entries) {
+            suggestions.add(new BookSuggestionDTO(current.bookId(entry), current.title(entry), current.author(entry)));
+        }
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBuild() {
+        submitRebuild();
+    }
+
+    @EventListener
+    public void onEntityInvalidated(EntityInvalidatedEvent event) {
+        if (event.isFullFlush() || event.getType() == EntityType.BOOK_CATALOG) {
+            if (pendingChanges.getAndIncrement() == 0) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.suggest.check-interval:PT1S}")
+    public void rebuildIfStale() {
+        int pending = pendingChanges.get();
+        long now = System.currentTimeMillis();
+        if (pending == 0) {
+            if (now - lastBuildStartedAt >= maxAge.toMillis()) {
+                submitRebuild();
+            }
+            return;
+        }
+        boolean manyChanges = pending >= rebuildAfterChanges
+                && now - lastBuildStartedAt >= minRebuildInterval.toMillis();
+        if (manyChanges || now - firstPendingAt >= maxStaleness.toMillis()) {
+            submitRebuild();
+        }
+    }
+
+    private void submitRebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            // Changes arriving from here on are not guaranteed to be in the scan and count towards the next build
+            pendingChanges.set(0);
+            lastBuildStartedAt = System.currentTimeMillis();
+            long started = System.nanoTime();
+            PrefixIndex.Builder builder = PrefixIndex.builder();
+            // One index over every branch's catalog
+            branchRouter.forEachShard(shard -> readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(BOOKS_SQL, rs -> {
+                        long bookId = rs.getLong("id");
+                        long weeklyBorrows = trendingService.getBorrowCount(bookId, TrendingWindow.WEEK);
+                        long weight = (weeklyBorrows << 1) | (rs.getInt("available_copies") > 0 ? 1 : 0);
+                        builder.add(bookId, rs.getString("title"), rs.getString("author"), weight);
+                    })));
+            PrefixIndex built = builder.build(maxResults);
+            index = built;
+            log.info("Rebuilt suggest index over {} books in {} ms",
+                    built.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Suggest index rebuild failed, keeping the previous index", e);
+            if (pendingChanges.getAndIncrement() == 0) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.management.service;
+
+import com.library.management.dto.TrendingBookDTO;
+import com.library.management.entity.Book;
+import com.library.management.event.BookBorrowedEvent;
+import com.library.management.repository.BookRepository;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.trending.BookTrend;
+import com.library.management.trending.TrendingCheckpoint;
+import com.library.management.trending.TrendingWindow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final BookRepository bookRepository;
+    private final BranchRouter branchRouter;
+    private final Map<Long, BookTrend> trends = new ConcurrentHashMap<>();
+
+    @Value("${library.trending.checkpoint-file:data/trending.bin}")
+    private Path checkpointFile;
+
+    @PostConstruct
+    void restore() {
+        try {
+            trends.putAll(TrendingCheckpoint.read(checkpointFile));
+            log.info("Restored trending counters for {} books from {}", trends.size(), checkpointFile);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable trending checkpoint {}: {}", checkpointFile, e.getMessage());
+        }
+    }
+
+    // Runs on the committing thread without locking. A counter checkpoint() is evicting refuses the write, and
+    // the borrow is recorded again on the counter that is mapped once the eviction is decided
+    @TransactionalEventListener
+    public void onBookBorrowed(BookBorrowedEvent event) {
+        long now = System.currentTimeMillis();
+        Long bookId = event.getBookId();
+        while (true) {
+            BookTrend trend = trends.get(bookId);
+            if (trend == null) {
+                trend = trends.computeIfAbsent(bookId, id -> new BookTrend());
+            }
+            if (trend.record(now)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public List<TrendingBookDTO> getTrendingBooks(String windowName, int limit) {
+        TrendingWindow window = TrendingWindow.fromName(windowName);
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long now = System.currentTimeMillis();
+
+        PriorityQueue<long[]> top = new PriorityQueue<>(size + 1, Comparator.comparingLong(entry -> entry[1]));
+        trends.forEach((bookId, trend) -> {
+            long count = trend.count(window, now);
+            if (count > 0 && (top.size() < size || count > top.peek()[1])) {
+                top.offer(new long[]{bookId, count});
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        });
+
+        List<long[]> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+        // Counters cover every branch; with X-Branch set, only that branch's books are resolved and shown.
+        // Retired books keep their counters until they age out but are no longer listed
+        List<Long> ids = ranked.stream().map(entry -> entry[0]).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> titles = branchRouter.gather(() -> bookRepository.findByIdInAndRetiredAtIsNull(ids))
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Book::getTitle));
+        return ranked.stream()
+                .filter(entry -> titles.containsKey(entry[0]))
+                .map(entry -> new TrendingBookDTO(entry[0], titles.get(entry[0]), entry[1]))
+                .toList();
+    }
+
+    public long getBorrowCount(long bookId, TrendingWindow window) {
+        BookTrend trend = trends.get(bookId);
+        return trend == null ? 0 : trend.count(window, System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${library.trending.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        long now = System.currentTimeMillis();
+        // Books that dropped out of every window no longer need a counter. Sealing fails while a write is in flight
+        // and blocks new ones, so the recount is final and no borrow is recorded on a removed counter
+        trends.forEach((bookId, trend) -> {
+            if (trend.count(TrendingWindow.WEEK, now) == 0 && trend.trySeal()) {
+                if (trend.count(TrendingWindow.WEEK, now) == 0) {
+                    trends.remove(bookId, trend);
+                } else {
+                    trend.unseal();
+                }
+            }
+        });
+        try {
+            // A stable copy: the file records the entry count before the entries
+            TrendingCheckpoint.write(checkpointFile, new HashMap<>(trends));
+        } catch (IOException e) {
+            log.warn("Failed to write trending checkpoint {}", checkpointFile, e);
+        }
+    }
+}
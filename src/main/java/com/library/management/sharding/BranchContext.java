@@ -0,0 +1,74 @@
+package com.library.management.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The branch the current thread works for. Requests get it from the {@code X-Branch} header; background
+ * work sets it explicitly per branch or shard. It selects both the shard (via {@link ShardRoutingDataSource})
+ * and, through Hibernate's tenant id, the branch rows visible within that shard. It must be set before a
+ * transaction starts, because the connection is picked when the transaction begins.
+ */
+public final class BranchContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static volatile String defaultBranch = ShardingProperties.DEFAULT_BRANCH;
+
+    private BranchContext() {
+    }
+
+    // Null unless a branch was chosen explicitly
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static String currentOrDefault() {
+        String branch = CURRENT.get();
+        return branch != null ? branch : defaultBranch;
+    }
+
+    public static <T> T call(String branch, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(branch);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(String branch, Runnable action) {
+        call(branch, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Cache keys are per branch so a cached row is never served to a request for another branch
+    public static String cacheKey(Object id) {
+        return cacheKey(currentOrDefault(), id);
+    }
+
+    public static String cacheKey(String branch, Object id) {
+        return branch + ":" + id;
+    }
+
+    static void set(String branch) {
+        CURRENT.set(branch);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static void setDefaultBranch(String branch) {
+        defaultBranch = branch;
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.library.management.sharding;
+
+import com.library.management.exception.InvalidOperationException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+// A filter rather than an interceptor: the open-in-view EntityManager takes its tenant when it is created
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class BranchFilter extends OncePerRequestFilter {
+
+    public static final String BRANCH_HEADER = "X-Branch";
+
+    private final ShardRegistry shardRegistry;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public BranchFilter(ShardRegistry shardRegistry,
+                        @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.shardRegistry = shardRegistry;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String branch = request.getHeader(BRANCH_HEADER);
+        if (branch == null || branch.isBlank()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        branch = branch.trim();
+        if (!shardRegistry.isKnownBranch(branch)) {
+            exceptionResolver.resolveException(request, response, null,
+                    new InvalidOperationException("Unknown branch: " + branch));
+            return;
+        }
+        BranchContext.set(branch);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            BranchContext.clear();
+        }
+    }
+}
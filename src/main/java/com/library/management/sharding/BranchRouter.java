@@ -0,0 +1,105 @@
+package com.library.management.sharding;
+
+import com.library.management.admission.EndpointClass;
+import com.library.management.bulkhead.BulkheadContext;
+import com.library.management.exception.ServiceOverloadedException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs work across branches. Requests that name a branch stay on it; requests that don't are
+ * scattered to every branch in parallel and the results concatenated in branch order. Scattered parts
+ * always run on the pool: the request thread may hold an EntityManager opened for one branch (open
+ * session in view), which would serve every part that branch's rows.
+ */
+@Component
+public class BranchRouter {
+
+    private final ShardRegistry shardRegistry;
+    private final ThreadPoolExecutor scatterPool;
+
+    public BranchRouter(ShardRegistry shardRegistry, ShardingProperties properties) {
+        this.shardRegistry = shardRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = properties.getScatterThreads();
+        // A saturated pool sheds the request (503) rather than queue it behind others
+        this.scatterPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "branch-scatter-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> List<T> gather(Supplier<List<T>> query) {
+        List<String> branches = shardRegistry.branches();
+        if (BranchContext.current() != null || branches.size() == 1) {
+            return query.get();
+        }
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(branches.size());
+        // Scattered parts draw on the request's bulkhead pools, not the shared ones
+        EndpointClass group = BulkheadContext.current();
+        try {
+            for (String branch : branches) {
+                parts.add(CompletableFuture.supplyAsync(
+                        () -> BulkheadContext.call(group, () -> BranchContext.call(branch, query)), scatterPool));
+            }
+        } catch (RejectedExecutionException e) {
+            parts.forEach(part -> part.cancel(false));
+            throw new ServiceOverloadedException("Server is at capacity for cross-branch queries, retry later", 1);
+        }
+        List<T> merged = new ArrayList<>();
+        for (CompletableFuture<List<T>> part : parts) {
+            merged.addAll(join(part));
+        }
+        return merged;
+    }
+
+    // For native SQL that covers every branch on a shard: runs once per shard, with the shard name
+    public void forEachShard(Consumer<String> action) {
+        for (String shard : shardRegistry.shardNames()) {
+            BranchContext.run(shardRegistry.representativeBranch(shard), () -> action.accept(shard));
+        }
+    }
+
+    // For entity queries, which Hibernate scopes to the current branch
+    public void forEachBranch(Consumer<String> action) {
+        for (String branch : shardRegistry.branches()) {
+            BranchContext.run(branch, () -> action.accept(branch));
+        }
+    }
+
+    public List<String> branches() {
+        return shardRegistry.branches();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatterPool.shutdownNow();
+    }
+}
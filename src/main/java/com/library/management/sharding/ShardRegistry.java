@@ -0,0 +1,110 @@
+package com.library.management.sharding;
+
+import com.library.management.exception.InvalidOperationException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shards (one Hikari pool per database) and which branch lives on which shard. The primary shard is
+ * spring.datasource.*; further shards come from {@code library.sharding.shards.*}. Shard order is
+ * significant for id interleaving (see {@link ShardSequences}), so new shards must be appended.
+ */
+public class ShardRegistry implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> shards = new LinkedHashMap<>();
+    private final Map<String, String> shardByBranch = new LinkedHashMap<>();
+    private final Map<String, String> representativeBranch = new LinkedHashMap<>();
+    private final String defaultBranch;
+
+    public ShardRegistry(DataSourceProperties primary, ShardingProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.defaultBranch = properties.getDefaultBranch();
+
+        HikariDataSource primaryPool = primary.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        shards.put(ShardingProperties.PRIMARY_SHARD, configure(primaryPool, ShardingProperties.PRIMARY_SHARD, binder));
+        properties.getShards().forEach((name, shard) -> {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primary.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            shards.put(name, configure(pool, name, binder));
+        });
+
+        Map<String, String> branches = properties.getBranches().isEmpty()
+                ? Map.of(defaultBranch, ShardingProperties.PRIMARY_SHARD)
+                : properties.getBranches();
+        branches.forEach((branch, shard) -> {
+            if (!shards.containsKey(shard)) {
+                throw new IllegalStateException("Branch " + branch + " is mapped to unknown shard " + shard);
+            }
+            shardByBranch.put(branch, shard);
+            representativeBranch.putIfAbsent(shard, branch);
+        });
+        if (!shardByBranch.containsKey(defaultBranch)) {
+            throw new IllegalStateException("Default branch " + defaultBranch + " is not mapped to a shard");
+        }
+        // Background jobs reach a shard through one of its branches
+        shards.keySet().forEach(shard -> {
+            if (!representativeBranch.containsKey(shard)) {
+                throw new IllegalStateException("Shard " + shard + " has no branches mapped to it");
+            }
+        });
+        BranchContext.setDefaultBranch(defaultBranch);
+    }
+
+    public String defaultBranch() {
+        return defaultBranch;
+    }
+
+    public List<String> branches() {
+        return List.copyOf(shardByBranch.keySet());
+    }
+
+    public boolean isKnownBranch(String branch) {
+        return shardByBranch.containsKey(branch);
+    }
+
+    public String shardFor(String branch) {
+        String shard = shardByBranch.get(branch);
+        if (shard == null) {
+            throw new InvalidOperationException("Unknown branch: " + branch);
+        }
+        return shard;
+    }
+
+    public List<String> shardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public HikariDataSource dataSource(String shard) {
+        return shards.get(shard);
+    }
+
+    // Any branch on the shard; setting it routes to the shard for shard-wide native SQL
+    public String representativeBranch(String shard) {
+        return representativeBranch.get(shard);
+    }
+
+    @Override
+    public void close() {
+        shards.values().forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource configure(HikariDataSource pool, String name, Binder binder) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("shard-" + name);
+        return pool;
+    }
+}
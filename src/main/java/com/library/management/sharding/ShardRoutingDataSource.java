@@ -0,0 +1,29 @@
+package com.library.management.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Hands out connections from the shard that hosts the current branch, through that shard's bulkhead pools
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRegistry registry;
+
+    public ShardRoutingDataSource(ShardRegistry registry, Function<String, DataSource> shardDataSource) {
+        this.registry = registry;
+        Map<Object, Object> targets = new HashMap<>();
+        registry.shardNames().forEach(shard -> targets.put(shard, shardDataSource.apply(shard)));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(targets.get(ShardingProperties.PRIMARY_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return registry.shardFor(BranchContext.currentOrDefault());
+    }
+}
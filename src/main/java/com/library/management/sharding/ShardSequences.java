@@ -0,0 +1,62 @@
+package com.library.management.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Keeps ids unique across shards by interleaving the id sequences: with n shards, shard i hands out
+ * ids congruent to i + 1 modulo n. Caches, the trending and recommendation indexes and the analytics
+ * snapshot are all keyed by id, so they work unchanged across branches. When the number of shards
+ * changes, every sequence restarts above the highest id issued anywhere.
+ */
+@Slf4j
+final class ShardSequences {
+
+    private static final List<String> TABLES = List.of("books", "borrowers", "book_copies", "borrow_records");
+
+    private ShardSequences() {
+    }
+
+    static void interleave(ShardRegistry registry) {
+        List<String> shards = registry.shardNames();
+        int count = shards.size();
+        for (String table : TABLES) {
+            boolean aligned = shards.stream().allMatch(shard -> increment(registry, shard, table) == count);
+            if (aligned) {
+                continue;
+            }
+            long highest = shards.stream().mapToLong(shard -> highestIssued(registry, shard, table)).max().orElse(0);
+            for (int index = 0; index < count; index++) {
+                long start = firstAbove(highest, (index + 1) % count, count);
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(registry.dataSource(shards.get(index)));
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence(jdbcTemplate, table)
+                        + " INCREMENT BY " + count + " RESTART WITH " + start);
+            }
+            log.info("Interleaved {} ids across {} shards above {}", table, count, highest);
+        }
+    }
+
+    // Smallest value above `highest` that is congruent to `residue` modulo `count`
+    static long firstAbove(long highest, int residue, int count) {
+        long candidate = highest + 1;
+        return candidate + Math.floorMod(residue - candidate, (long) count);
+    }
+
+    private static long increment(ShardRegistry registry, String shard, String table) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(registry.dataSource(shard));
+        return jdbcTemplate.queryForObject("SELECT seqincrement FROM pg_sequence WHERE seqrelid = ?::regclass",
+                Long.class, sequence(jdbcTemplate, table));
+    }
+
+    private static long highestIssued(ShardRegistry registry, String shard, String table) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(registry.dataSource(shard));
+        return jdbcTemplate.queryForObject("SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + table + "), "
+                + "(SELECT last_value FROM " + sequence(jdbcTemplate, table) + "))", Long.class);
+    }
+
+    private static String sequence(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.management.sharding;
+
+import com.library.management.bulkhead.Bulkheads;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+
+@Configuration
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardRegistry shardRegistry(DataSourceProperties dataSourceProperties,
+                                       ShardingProperties shardingProperties,
+                                       Environment environment) {
+        return new ShardRegistry(dataSourceProperties, shardingProperties, environment);
+    }
+
+    // The only DataSource bean, so JPA, JdbcTemplate and the SQL monitor all go through the router
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRegistry shardRegistry, Bulkheads bulkheads) {
+        return new ShardRoutingDataSource(shardRegistry, bulkheads::dataSource);
+    }
+
+    // Every shard carries the full schema; ids are interleaved once all of them are migrated
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRegistry shardRegistry) {
+        return flyway -> {
+            for (String shard : shardRegistry.shardNames()) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardRegistry.dataSource(shard))
+                        .load()
+                        .migrate();
+            }
+            ShardSequences.interleave(shardRegistry);
+        };
+    }
+
+    // Hibernate stamps the branch on inserts and filters every entity query by it
+    @Bean
+    public HibernatePropertiesCustomizer branchTenantCustomizer() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new CurrentTenantIdentifierResolver<String>() {
+                    @Override
+                    public String resolveCurrentTenantIdentifier() {
+                        return BranchContext.currentOrDefault();
+                    }
+
+                    @Override
+                    public boolean validateExistingCurrentSessions() {
+                        return false;
+                    }
+                });
+    }
+}
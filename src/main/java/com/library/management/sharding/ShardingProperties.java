@@ -0,0 +1,42 @@
+package com.library.management.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.sharding")
+public class ShardingProperties {
+
+    public static final String DEFAULT_BRANCH = "main";
+
+    // The shard backed by spring.datasource.*
+    public static final String PRIMARY_SHARD = "primary";
+
+    // Used for requests without an X-Branch header and by single-branch deployments
+    private String defaultBranch = DEFAULT_BRANCH;
+
+    // Branch name -> shard name; empty means the default branch on the primary shard
+    private Map<String, String> branches = new LinkedHashMap<>();
+
+    // Additional shards; each gets a pool with the spring.datasource.hikari.* settings
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    // Threads running cross-branch queries in parallel
+    private int scatterThreads = 8;
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+    }
+}
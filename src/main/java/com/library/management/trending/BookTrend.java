@@ -0,0 +1,107 @@
+package com.library.management.trending;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Borrow counts for one book across all {@link TrendingWindow}s. Every bucket packs the bucket epoch
+ * (high 32 bits) with its count (low 32 bits) in a single long, so recording a borrow is one CAS per
+ * window and a bucket that has wrapped around is reset by the first writer of the new epoch.
+ * A counter being evicted is sealed first: {@link #record} then refuses to write so the caller can retry
+ * on whichever counter is mapped afterwards.
+ */
+public final class BookTrend {
+
+    private static final TrendingWindow[] WINDOWS = TrendingWindow.values();
+    private static final int[] OFFSETS = new int[WINDOWS.length];
+    static final int SLOTS;
+    private static final int SEALED = Integer.MIN_VALUE;
+
+    static {
+        int offset = 0;
+        for (TrendingWindow window : WINDOWS) {
+            OFFSETS[window.ordinal()] = offset;
+            offset += window.buckets();
+        }
+        SLOTS = offset;
+    }
+
+    private final AtomicLongArray slots;
+    // Writers in flight, offset by SEALED while sealed
+    private final AtomicInteger writers = new AtomicInteger();
+
+    public BookTrend() {
+        this.slots = new AtomicLongArray(SLOTS);
+    }
+
+    BookTrend(long[] raw) {
+        this.slots = new AtomicLongArray(raw);
+    }
+
+    // False when the counter is sealed and nothing was recorded
+    public boolean record(long nowMillis) {
+        if (writers.getAndIncrement() < 0) {
+            writers.decrementAndGet();
+            return false;
+        }
+        try {
+            recordUnsealed(nowMillis);
+        } finally {
+            writers.decrementAndGet();
+        }
+        return true;
+    }
+
+    // Succeeds only with no write in flight, so a count read while sealed is final until unseal()
+    public boolean trySeal() {
+        return writers.compareAndSet(0, SEALED);
+    }
+
+    public void unseal() {
+        writers.getAndAdd(SEALED);
+    }
+
+    private void recordUnsealed(long nowMillis) {
+        for (TrendingWindow window : WINDOWS) {
+            int epoch = window.epoch(nowMillis);
+            int index = OFFSETS[window.ordinal()] + Math.floorMod(epoch, window.buckets());
+            long current;
+            long next;
+            do {
+                current = slots.get(index);
+                next = epochOf(current) == epoch ? current + 1 : pack(epoch, 1);
+            } while (!slots.compareAndSet(index, current, next));
+        }
+    }
+
+    public long count(TrendingWindow window, long nowMillis) {
+        int epoch = window.epoch(nowMillis);
+        int oldest = epoch - window.buckets() + 1;
+        int offset = OFFSETS[window.ordinal()];
+        long total = 0;
+        for (int i = 0; i < window.buckets(); i++) {
+            long bucket = slots.get(offset + i);
+            int bucketEpoch = epochOf(bucket);
+            if (bucketEpoch >= oldest && bucketEpoch <= epoch) {
+                total += bucket & 0xFFFFFFFFL;
+            }
+        }
+        return total;
+    }
+
+    long[] snapshot() {
+        long[] raw = new long[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            raw[i] = slots.get(i);
+        }
+        return raw;
+    }
+
+    private static int epochOf(long bucket) {
+        return (int) (bucket >>> 32);
+    }
+
+    private static long pack(int epoch, int count) {
+        return ((long) epoch << 32) | (count & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.management.trending;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the raw trending buckets. Buckets carry their own epochs, so a checkpoint
+ * restored after downtime only contributes the buckets that still fall inside each window.
+ */
+public final class TrendingCheckpoint {
+
+    private static final int MAGIC = 0x54524e44;
+    private static final int VERSION = 1;
+
+    private TrendingCheckpoint() {
+    }
+
+    public static void write(Path file, Map<Long, BookTrend> trends) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(BookTrend.SLOTS);
+            out.writeInt(trends.size());
+            for (Map.Entry<Long, BookTrend> entry : trends.entrySet()) {
+                out.writeLong(entry.getKey());
+                for (long bucket : entry.getValue().snapshot()) {
+                    out.writeLong(bucket);
+                }
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Map<Long, BookTrend> read(Path file) throws IOException {
+        Map<Long, BookTrend> trends = new HashMap<>();
+        if (!Files.exists(file)) {
+            return trends;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != BookTrend.SLOTS) {
+                throw new IOException("Unrecognised trending checkpoint format in " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long bookId = in.readLong();
+                long[] raw = new long[BookTrend.SLOTS];
+                for (int slot = 0; slot < raw.length; slot++) {
+                    raw[slot] = in.readLong();
+                }
+                trends.put(bookId, new BookTrend(raw));
+            }
+        }
+        return trends;
+    }
+}
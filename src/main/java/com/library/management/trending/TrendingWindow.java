@@ -0,0 +1,42 @@
+package com.library.management.trending;
+
+import com.library.management.exception.InvalidOperationException;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Sliding windows served by the trending leaderboard. Each window is a ring of fixed-width buckets,
+ * so counts age out one bucket at a time (e.g. the week window drops a whole day at midnight UTC).
+ */
+public enum TrendingWindow {
+
+    HOUR(Duration.ofMinutes(1), 60),
+    DAY(Duration.ofHours(1), 24),
+    WEEK(Duration.ofDays(1), 7);
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    TrendingWindow(Duration bucketWidth, int buckets) {
+        this.bucketMillis = bucketWidth.toMillis();
+        this.buckets = buckets;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    int epoch(long epochMillis) {
+        return (int) (epochMillis / bucketMillis);
+    }
+
+    public static TrendingWindow fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOperationException("Unknown trending window '" + name + "', expected one of "
+                    + Arrays.toString(values()).toLowerCase());
+        }
+    }
+}
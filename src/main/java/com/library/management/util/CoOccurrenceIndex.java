@@ -0,0 +1,173 @@
+package com.library.management.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sparse, symmetric co-occurrence counts between book ids, keeping at most {@code candidateCapacity}
+ * neighbours per book (the lowest counts are pruned) and publishing an immutable top-K list per book
+ * so reads never lock. Memory is bounded by {@code maxBooks * candidateCapacity} entries.
+ */
+public final class CoOccurrenceIndex {
+
+    private final int topK;
+    private final int candidateCapacity;
+    private final ConcurrentLongObjectMap<Neighbours> books;
+    private final AtomicLong droppedBooks = new AtomicLong();
+
+    public CoOccurrenceIndex(int topK, int candidateCapacity, int maxBooks) {
+        this.topK = topK;
+        this.candidateCapacity = Math.max(candidateCapacity, topK);
+        this.books = new ConcurrentLongObjectMap<>(maxBooks);
+    }
+
+    public void addPair(long first, long second) {
+        if (first == second) {
+            return;
+        }
+        increment(first, second);
+        increment(second, first);
+    }
+
+    public TopNeighbours related(long bookId) {
+        Neighbours neighbours = books.get(bookId);
+        return neighbours == null ? TopNeighbours.EMPTY : neighbours.top;
+    }
+
+    public int trackedBooks() {
+        return books.size();
+    }
+
+    public long droppedBooks() {
+        return droppedBooks.get();
+    }
+
+    private void increment(long bookId, long other) {
+        Neighbours neighbours = books.get(bookId);
+        if (neighbours == null) {
+            neighbours = books.computeIfAbsent(bookId, id -> new Neighbours());
+            if (neighbours == null) {
+                droppedBooks.incrementAndGet();
+                return;
+            }
+        }
+        neighbours.increment(other);
+    }
+
+    public static final class TopNeighbours {
+
+        static final TopNeighbours EMPTY = new TopNeighbours(new long[0], new int[0]);
+
+        private final long[] bookIds;
+        private final int[] counts;
+
+        TopNeighbours(long[] bookIds, int[] counts) {
+            this.bookIds = bookIds;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return bookIds.length;
+        }
+
+        public long bookId(int index) {
+            return bookIds[index];
+        }
+
+        public int count(int index) {
+            return counts[index];
+        }
+    }
+
+    private final class Neighbours {
+
+        private LongIntHashMap counts = new LongIntHashMap(candidateCapacity);
+        private volatile TopNeighbours top = TopNeighbours.EMPTY;
+
+        synchronized void increment(long other) {
+            int count = counts.addTo(other, 1);
+            if (counts.size() > candidateCapacity) {
+                prune();
+                top = selectTop(topK);
+            } else {
+                // Most increments leave the top list as it is; only a changed list is copied and republished
+                TopNeighbours updated = withIncrement(top, other, count);
+                if (updated != null) {
+                    top = updated;
+                }
+            }
+        }
+
+        // The top list after `other` reached `count`, or null when it is unchanged. Same order as selectTop:
+        // by count, and a candidate only displaces the last entry with a strictly higher count.
+        private TopNeighbours withIncrement(TopNeighbours current, long other, int count) {
+            int size = current.size();
+            int position = -1;
+            for (int i = 0; i < size; i++) {
+                if (current.bookIds[i] == other) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                if (size == topK && (topK == 0 || count <= current.counts[size - 1])) {
+                    return null;
+                }
+                position = size == topK ? size - 1 : size;
+            } else if (position == 0 || current.counts[position - 1] >= count) {
+                // Already in place: only its count changes
+                long[] ids = current.bookIds.clone();
+                int[] values = current.counts.clone();
+                values[position] = count;
+                return new TopNeighbours(ids, values);
+            }
+            int newSize = Math.max(size, position + 1);
+            long[] ids = Arrays.copyOf(current.bookIds, newSize);
+            int[] values = Arrays.copyOf(current.counts, newSize);
+            while (position > 0 && values[position - 1] < count) {
+                ids[position] = ids[position - 1];
+                values[position] = values[position - 1];
+                position--;
+            }
+            ids[position] = other;
+            values[position] = count;
+            return new TopNeighbours(ids, values);
+        }
+
+        // Keeps the strongest half of the candidates so new pairs can still enter the list
+        private void prune() {
+            TopNeighbours keep = selectTop(candidateCapacity / 2);
+            LongIntHashMap pruned = new LongIntHashMap(candidateCapacity);
+            for (int i = 0; i < keep.size(); i++) {
+                pruned.put(keep.bookId(i), keep.count(i));
+            }
+            counts = pruned;
+        }
+
+        // Partial insertion sort; candidate lists are small (a few dozen entries)
+        private TopNeighbours selectTop(int limit) {
+            int capacity = Math.min(limit, counts.size());
+            long[] ids = new long[capacity];
+            int[] values = new int[capacity];
+            int[] filled = new int[1];
+            counts.forEach((id, count) -> {
+                int size = filled[0];
+                if (size == capacity && (capacity == 0 || count <= values[size - 1])) {
+                    return;
+                }
+                int position = size == capacity ? size - 1 : size;
+                while (position > 0 && values[position - 1] < count) {
+                    ids[position] = ids[position - 1];
+                    values[position] = values[position - 1];
+                    position--;
+                }
+                ids[position] = id;
+                values[position] = count;
+                if (size < capacity) {
+                    filled[0] = size + 1;
+                }
+            });
+            return new TopNeighbours(ids, values);
+        }
+    }
+}
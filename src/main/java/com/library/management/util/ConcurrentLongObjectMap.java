@@ -0,0 +1,103 @@
+package com.library.management.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Insert-only, bounded long -> object map with linear probing over atomic arrays, avoiding boxed keys and
+ * per-entry nodes. The table is sized once for {@code maxSize} entries and never resizes, so lookups are
+ * lock-free and inserts only CAS the key slot. Key 0 is reserved as the empty-slot marker, like
+ * {@link LongIntHashMap}.
+ */
+public final class ConcurrentLongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final AtomicLongArray keys;
+    private final AtomicReferenceArray<V> values;
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+
+    public ConcurrentLongObjectMap(int maxSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (maxSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new AtomicLongArray(capacity);
+        this.values = new AtomicReferenceArray<>(capacity);
+        this.maxSize = maxSize;
+    }
+
+    public V get(long key) {
+        if (key == 0) {
+            return null;
+        }
+        int mask = keys.length() - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if (current == key) {
+                // Null while the inserting thread has claimed the slot but not yet published the value
+                return values.get(slot);
+            }
+            if (current == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The value for {@code key}, created with {@code factory} when absent, or null when the key is absent
+     * and the map already holds {@code maxSize} entries. Concurrent callers for the same key get the same
+     * instance, although the factory may run on more than one of them.
+     */
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        checkKey(key);
+        int mask = keys.length() - 1;
+        V created = null;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if (current == 0) {
+                if (created == null) {
+                    if (size.incrementAndGet() > maxSize) {
+                        size.decrementAndGet();
+                        return null;
+                    }
+                    created = factory.apply(key);
+                }
+                if (keys.compareAndSet(slot, 0, key)) {
+                    values.set(slot, created);
+                    return created;
+                }
+                current = keys.get(slot);
+            }
+            if (current == key) {
+                if (created != null) {
+                    size.decrementAndGet();
+                }
+                return awaitValue(slot);
+            }
+        }
+    }
+
+    public int size() {
+        return Math.min(size.get(), maxSize);
+    }
+
+    private V awaitValue(int slot) {
+        V value;
+        while ((value = values.get(slot)) == null) {
+            Thread.onSpinWait();
+        }
+        return value;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+}
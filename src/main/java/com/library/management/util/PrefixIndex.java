@@ -0,0 +1,375 @@
+package com.library.management.util;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable type-ahead index over book titles and authors, ranked by a caller-supplied weight.
+ * <p>
+ * Every word start of a normalized title or author is a key: an offset into one shared UTF-8 pool
+ * in which each field ends with a 0 byte. Keys are sorted by the text that follows them, so all
+ * completions of a prefix form one contiguous range found with two binary searches. Any range longer
+ * than {@value #SCAN_LIMIT} keys is exactly one node of the implicit trie over the sorted keys, and
+ * its best entries are computed at build time; shorter ranges are scanned. A lookup therefore never
+ * touches more than {@value #SCAN_LIMIT} keys, however short the prefix or large the catalog.
+ * Display strings are kept UTF-8 encoded and only decoded for the returned entries.
+ */
+public final class PrefixIndex {
+
+    static final int SCAN_LIMIT = 256;
+
+    private static final byte END = 0;
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final int maxResults;
+    private final long[] bookIds;
+    private final long[] weights;
+    private final byte[] display;
+    private final int[] displayOffsets;
+    private final byte[] pool;
+    private final int[] keys;
+    private final int[] keyEntries;
+    private final Map<String, int[]> precomputed = new HashMap<>();
+
+    private PrefixIndex(Builder builder, int maxResults) {
+        this.maxResults = maxResults;
+        this.bookIds = Arrays.copyOf(builder.bookIds, builder.size);
+        this.weights = Arrays.copyOf(builder.weights, builder.size);
+        this.display = builder.display.toByteArray();
+        this.displayOffsets = Arrays.copyOf(builder.displayOffsets, builder.size * 2 + 1);
+        this.displayOffsets[builder.size * 2] = display.length;
+        this.pool = builder.pool.toByteArray();
+        this.keys = Arrays.copyOf(builder.keys, builder.keyCount);
+        this.keyEntries = Arrays.copyOf(builder.keyEntries, builder.keyCount);
+        sort(0, keys.length, 0);
+        precompute(0, keys.length, 0);
+    }
+
+    public static PrefixIndex empty(int maxResults) {
+        return new Builder().build(maxResults);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses every run of non-alphanumeric characters into one space.
+     * A trailing separator is kept when {@code keepTrailingSpace} is set, so a typed "clean " no longer
+     * matches "cleaner".
+     */
+    public static String normalize(String text, boolean keepTrailingSpace) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        // By code point, so letters outside the BMP are kept whole rather than read as two separators
+        for (int i = 0; i < decomposed.length(); ) {
+            int c = decomposed.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                normalized.appendCodePoint(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                separator = true;
+            }
+        }
+        if (keepTrailingSpace && separator && normalized.length() > 0) {
+            normalized.append(' ');
+        }
+        return normalized.toString();
+    }
+
+    // The first maxCodePoints code points of text; never splits a surrogate pair
+    public static String truncate(String text, int maxCodePoints) {
+        if (text.length() <= maxCodePoints || text.codePointCount(0, text.length()) <= maxCodePoints) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, maxCodePoints));
+    }
+
+    public int size() {
+        return bookIds.length;
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Entries whose title or author has a word starting with {@code normalizedPrefix}, best first.
+     */
+    public int[] lookup(String normalizedPrefix, int limit) {
+        int size = Math.min(limit, maxResults);
+        if (normalizedPrefix.isEmpty() || size <= 0) {
+            return NO_ENTRIES;
+        }
+        byte[] prefix = normalizedPrefix.getBytes(StandardCharsets.UTF_8);
+        int from = bound(prefix, false);
+        int to = bound(prefix, true);
+        if (from == to) {
+            return NO_ENTRIES;
+        }
+        int[] best = to - from > SCAN_LIMIT ? precomputed.get(normalizedPrefix) : null;
+        if (best == null) {
+            best = top(from, to, size);
+        }
+        return best.length > size ? Arrays.copyOf(best, size) : best;
+    }
+
+    public long bookId(int entry) {
+        return bookIds[entry];
+    }
+
+    public String title(int entry) {
+        return decode(displayOffsets[entry * 2], displayOffsets[entry * 2 + 1]);
+    }
+
+    public String author(int entry) {
+        return decode(displayOffsets[entry * 2 + 1], displayOffsets[entry * 2 + 2]);
+    }
+
+    private String decode(int from, int to) {
+        return new String(display, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // First key that sorts after the prefix (upper) or does not sort before it (lower)
+    private int bound(byte[] prefix, boolean upper) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareToPrefix(keys[mid], prefix);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToPrefix(int key, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            int c = pool[key + i] & 0xFF;
+            int p = prefix[i] & 0xFF;
+            if (c != p) {
+                return c - p;
+            }
+        }
+        return 0;
+    }
+
+    // Distinct entries of keys[from, to) with the highest weights, ties broken by entry order
+    private int[] top(int from, int to, int size) {
+        int[] best = new int[size];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int entry = keyEntries[i];
+            if (count == size && !ranksBefore(entry, best[count - 1])) {
+                continue;
+            }
+            int position = count;
+            boolean duplicate = false;
+            for (int j = 0; j < count; j++) {
+                if (best[j] == entry) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) {
+                continue;
+            }
+            while (position > 0 && ranksBefore(entry, best[position - 1])) {
+                if (position < size) {
+                    best[position] = best[position - 1];
+                }
+                position--;
+            }
+            best[position] = entry;
+            if (count < size) {
+                count++;
+            }
+        }
+        return count == size ? best : Arrays.copyOf(best, count);
+    }
+
+    private boolean ranksBefore(int entry, int other) {
+        return weights[entry] > weights[other] || (weights[entry] == weights[other] && entry < other);
+    }
+
+    // Walks the trie implied by the sorted keys and stores the answer for every node too large to scan
+    private void precompute(int from, int to, int depth) {
+        if (to - from <= SCAN_LIMIT) {
+            return;
+        }
+        if (depth > 0) {
+            precomputed.put(new String(pool, keys[from], depth, StandardCharsets.UTF_8), top(from, to, maxResults));
+        }
+        int start = from;
+        while (start < to) {
+            int c = pool[keys[start] + depth];
+            int end = start + 1;
+            while (end < to && pool[keys[end] + depth] == c) {
+                end++;
+            }
+            // Keys ending here have no longer prefixes; a split multi-byte char is never a whole prefix, which is harmless
+            if (c != END) {
+                precompute(start, end, depth + 1);
+            }
+            start = end;
+        }
+    }
+
+    // Multikey quicksort (Bentley-Sedgewick) of keys[from, to), all sharing their first `depth` bytes
+    private void sort(int from, int to, int depth) {
+        while (to - from > 1) {
+            if (to - from < 16) {
+                insertionSort(from, to, depth);
+                return;
+            }
+            int pivot = byteAt(keys[from + (to - from) / 2], depth);
+            int lt = from;
+            int gt = to - 1;
+            int i = from;
+            while (i <= gt) {
+                int c = byteAt(keys[i], depth);
+                if (c < pivot) {
+                    swap(lt++, i++);
+                } else if (c > pivot) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(from, lt, depth);
+            sort(gt + 1, to, depth);
+            if (pivot == END) {
+                return;
+            }
+            from = lt;
+            to = gt + 1;
+            depth++;
+        }
+    }
+
+    private void insertionSort(int from, int to, int depth) {
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(keys[j], keys[j - 1], depth) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private int compare(int a, int b, int depth) {
+        for (int i = depth; ; i++) {
+            int ca = byteAt(a, i);
+            int cb = byteAt(b, i);
+            if (ca != cb || ca == END) {
+                return ca - cb;
+            }
+        }
+    }
+
+    private int byteAt(int key, int depth) {
+        return pool[key + depth] & 0xFF;
+    }
+
+    private void swap(int i, int j) {
+        int key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int entry = keyEntries[i];
+        keyEntries[i] = keyEntries[j];
+        keyEntries[j] = entry;
+    }
+
+    public static final class Builder {
+
+        private final ByteBuffer pool = new ByteBuffer();
+        private final ByteBuffer display = new ByteBuffer();
+        private long[] bookIds = new long[1024];
+        private long[] weights = new long[1024];
+        private int[] displayOffsets = new int[2048];
+        private int[] keys = new int[4096];
+        private int[] keyEntries = new int[4096];
+        private int size;
+        private int keyCount;
+
+        private Builder() {
+        }
+
+        public Builder add(long bookId, String title, String author, long weight) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                displayOffsets = Arrays.copyOf(displayOffsets, size * 4);
+            }
+            int entry = size++;
+            bookIds[entry] = bookId;
+            weights[entry] = weight;
+            displayOffsets[entry * 2] = display.size();
+            display.append(title == null ? new byte[0] : title.getBytes(StandardCharsets.UTF_8));
+            displayOffsets[entry * 2 + 1] = display.size();
+            display.append(author == null ? new byte[0] : author.getBytes(StandardCharsets.UTF_8));
+            addField(entry, title);
+            addField(entry, author);
+            return this;
+        }
+
+        public PrefixIndex build(int maxResults) {
+            return new PrefixIndex(this, maxResults);
+        }
+
+        private void addField(int entry, String text) {
+            if (text == null) {
+                return;
+            }
+            byte[] normalized = normalize(text, false).getBytes(StandardCharsets.UTF_8);
+            if (normalized.length == 0) {
+                return;
+            }
+            int base = pool.size();
+            pool.append(normalized);
+            pool.append(new byte[]{END});
+            for (int i = 0; i < normalized.length; i++) {
+                if (i == 0 || normalized[i - 1] == ' ') {
+                    if (keyCount == keys.length) {
+                        keys = Arrays.copyOf(keys, keyCount * 2);
+                        keyEntries = Arrays.copyOf(keyEntries, keyCount * 2);
+                    }
+                    keys[keyCount] = base + i;
+                    keyEntries[keyCount++] = entry;
+                }
+            }
+        }
+    }
+
+    // ByteArrayOutputStream without the synchronization and checked exceptions
+    private static final class ByteBuffer {
+
+        private byte[] bytes = new byte[8192];
+        private int size;
+
+        void append(byte[] data) {
+            if (size + data.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + data.length));
+            }
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
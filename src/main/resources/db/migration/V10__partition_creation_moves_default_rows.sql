@@ -0,0 +1,21 @@
+-- A month whose partition was dropped (or never created) sends new rows to borrow_records_default, and
+-- Postgres refuses to create a partition over rows the default partition already holds. The month's table
+-- is now created detached, those rows are moved into it and only then is it attached.
+CREATE OR REPLACE FUNCTION ensure_borrow_records_partition(p_month DATE) RETURNS VOID AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::date;
+    v_to   DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_name TEXT := 'borrow_records_' || to_char(v_from, 'YYYY_MM');
+BEGIN
+    -- Every node calls this at startup
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_borrow_records_partition'));
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE borrow_records INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM borrow_records_default WHERE borrow_date >= %L AND borrow_date < %L '
+                   || 'RETURNING *) INSERT INTO %I SELECT * FROM moved', v_from, v_to, v_name);
+    EXECUTE format('ALTER TABLE borrow_records ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_from, v_to);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,7 @@
+-- Branches that share a shard also share this table, and clients choose their keys independently, so the
+-- same key may be in use at two branches. A key is therefore only unique within its branch.
+ALTER TABLE idempotency_keys ADD COLUMN branch VARCHAR(64) NOT NULL DEFAULT '${default_branch}';
+ALTER TABLE idempotency_keys ALTER COLUMN branch DROP DEFAULT;
+
+ALTER TABLE idempotency_keys DROP CONSTRAINT idempotency_keys_pkey;
+ALTER TABLE idempotency_keys ADD CONSTRAINT idempotency_keys_pkey PRIMARY KEY (branch, idempotency_key);
@@ -0,0 +1,21 @@
+-- A retired book or borrower keeps its row for the history, but its ISBN, e-mail and membership id are
+-- free again: the same title can be catalogued anew and a former member can re-register. Uniqueness
+-- therefore only holds among live rows.
+ALTER TABLE books DROP CONSTRAINT uk_books_branch_isbn;
+CREATE UNIQUE INDEX uk_books_branch_isbn ON books (branch, isbn) WHERE retired_at IS NULL;
+ALTER TABLE borrowers DROP CONSTRAINT uk_borrowers_branch_email;
+CREATE UNIQUE INDEX uk_borrowers_branch_email ON borrowers (branch, email) WHERE retired_at IS NULL;
+ALTER TABLE borrowers DROP CONSTRAINT uk_borrowers_branch_membership_id;
+CREATE UNIQUE INDEX uk_borrowers_branch_membership_id ON borrowers (branch, membership_id) WHERE retired_at IS NULL;
+
+-- Lookups by id use the primary key; these only duplicated it
+DROP INDEX idx_books_live;
+DROP INDEX idx_borrowers_live;
+
+-- Copies of books retired so far stayed on the shelf
+UPDATE book_copies bc
+SET status = 'WITHDRAWN', updated_at = now()
+FROM books b
+WHERE b.id = bc.book_id AND b.retired_at IS NOT NULL AND bc.status = 'AVAILABLE';
+
+UPDATE books SET available_copies = 0 WHERE retired_at IS NOT NULL AND available_copies <> 0;
@@ -0,0 +1,7 @@
+-- Name search filters on the branch, which the V9 trigram index did not cover: a branch's nearest names
+-- were found by walking those of every branch on the shard. btree_gist lets the branch lead the GiST index.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DROP INDEX idx_borrowers_live_name_trgm;
+CREATE INDEX idx_borrowers_live_name_trgm ON borrowers USING gist (branch, lower(name) gist_trgm_ops)
+    WHERE retired_at IS NULL;
@@ -0,0 +1,55 @@
+-- Baseline schema, equivalent to what Hibernate generated with ddl-auto=update.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE books (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title            VARCHAR(255) NOT NULL,
+    author           VARCHAR(255) NOT NULL,
+    isbn             VARCHAR(255) NOT NULL,
+    category         VARCHAR(255) NOT NULL,
+    total_copies     INTEGER      NOT NULL,
+    available_copies INTEGER      NOT NULL,
+    publisher        VARCHAR(255),
+    publish_year     INTEGER,
+    description      TEXT,
+    status           VARCHAR(255) NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT books_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn),
+    CONSTRAINT books_status_check CHECK (status IN ('AVAILABLE', 'OUT_OF_STOCK', 'MAINTENANCE'))
+);
+
+CREATE TABLE borrowers (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    phone           VARCHAR(255) NOT NULL,
+    membership_id   VARCHAR(255) NOT NULL,
+    membership_type VARCHAR(255) NOT NULL,
+    is_active       BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT borrowers_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_borrowers_email UNIQUE (email),
+    CONSTRAINT uk_borrowers_membership_id UNIQUE (membership_id),
+    CONSTRAINT borrowers_membership_type_check CHECK (membership_type IN ('REGULAR', 'PREMIUM', 'STUDENT'))
+);
+
+CREATE TABLE borrow_records (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    book_id     BIGINT           NOT NULL,
+    borrower_id BIGINT           NOT NULL,
+    borrow_date DATE             NOT NULL,
+    due_date    DATE             NOT NULL,
+    return_date DATE,
+    status      VARCHAR(255)     NOT NULL,
+    fine_amount DOUBLE PRECISION,
+    notes       TEXT,
+    created_at  TIMESTAMP(6)     NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT borrow_records_pkey PRIMARY KEY (id),
+    CONSTRAINT borrow_records_status_check CHECK (status IN ('BORROWED', 'RETURNED', 'OVERDUE', 'LOST')),
+    CONSTRAINT fk_borrow_records_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_borrow_records_borrower FOREIGN KEY (borrower_id) REFERENCES borrowers (id)
+);
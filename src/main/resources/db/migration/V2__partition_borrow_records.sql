@@ -0,0 +1,69 @@
+-- Range-partition borrow_records by borrow_date into monthly partitions.
+-- Identity columns are not allowed on partitioned tables before PostgreSQL 17, so ids come from a plain sequence.
+-- The primary key must contain the partition key, hence (id, borrow_date).
+
+CREATE OR REPLACE FUNCTION ensure_borrow_records_partition(p_month DATE) RETURNS VOID AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::date;
+    v_to   DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF borrow_records FOR VALUES FROM (%L) TO (%L)',
+                   'borrow_records_' || to_char(v_from, 'YYYY_MM'), v_from, v_to);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE borrow_records RENAME TO borrow_records_legacy;
+ALTER TABLE borrow_records_legacy RENAME CONSTRAINT borrow_records_pkey TO borrow_records_legacy_pkey;
+
+CREATE SEQUENCE borrow_records_part_id_seq;
+SELECT setval('borrow_records_part_id_seq', COALESCE((SELECT MAX(id) FROM borrow_records_legacy), 0) + 1, false);
+
+CREATE TABLE borrow_records (
+    id          BIGINT           NOT NULL DEFAULT nextval('borrow_records_part_id_seq'),
+    book_id     BIGINT           NOT NULL,
+    borrower_id BIGINT           NOT NULL,
+    borrow_date DATE             NOT NULL,
+    due_date    DATE             NOT NULL,
+    return_date DATE,
+    status      VARCHAR(255)     NOT NULL,
+    fine_amount DOUBLE PRECISION,
+    notes       TEXT,
+    created_at  TIMESTAMP(6)     NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT borrow_records_pkey PRIMARY KEY (id, borrow_date),
+    CONSTRAINT borrow_records_status_check CHECK (status IN ('BORROWED', 'RETURNED', 'OVERDUE', 'LOST')),
+    CONSTRAINT fk_borrow_records_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_borrow_records_borrower FOREIGN KEY (borrower_id) REFERENCES borrowers (id)
+) PARTITION BY RANGE (borrow_date);
+
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', COALESCE((SELECT MIN(borrow_date) FROM borrow_records_legacy), CURRENT_DATE))::date;
+BEGIN
+    WHILE v_month <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date LOOP
+        PERFORM ensure_borrow_records_partition(v_month);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+-- Safety net for dates outside the maintained range; kept empty by BorrowRecordArchiveService
+CREATE TABLE borrow_records_default PARTITION OF borrow_records DEFAULT;
+
+INSERT INTO borrow_records (id, book_id, borrower_id, borrow_date, due_date, return_date, status,
+                            fine_amount, notes, created_at, updated_at)
+SELECT id, book_id, borrower_id, borrow_date, due_date, return_date, status,
+       fine_amount, notes, created_at, updated_at
+FROM borrow_records_legacy;
+
+DROP TABLE borrow_records_legacy;
+
+ALTER SEQUENCE borrow_records_part_id_seq RENAME TO borrow_records_id_seq;
+ALTER SEQUENCE borrow_records_id_seq OWNED BY borrow_records.id;
+
+CREATE INDEX idx_borrow_records_book ON borrow_records (book_id, borrow_date);
+CREATE INDEX idx_borrow_records_borrower ON borrow_records (borrower_id, borrow_date);
+
+-- Open loans are a small slice of every partition
+CREATE INDEX idx_borrow_records_open_due ON borrow_records (due_date) WHERE status = 'BORROWED';
+CREATE INDEX idx_borrow_records_open_borrower ON borrow_records (borrower_id) WHERE status = 'BORROWED';
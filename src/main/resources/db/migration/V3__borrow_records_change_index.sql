@@ -0,0 +1,3 @@
+-- Lets the analytics snapshot pick up changed rows by watermark without scanning every partition.
+-- updated_at is set on insert by JPA auditing; created_at covers rows written before auditing existed.
+CREATE INDEX idx_borrow_records_changed_at ON borrow_records ((COALESCE(updated_at, created_at)));
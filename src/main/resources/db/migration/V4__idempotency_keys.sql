@@ -0,0 +1,13 @@
+-- Responses of POST /api/borrow and /api/borrow/return keyed by the client's Idempotency-Key header.
+-- The row is written in the same transaction as the loan, so a stored response always matches committed state.
+CREATE TABLE idempotency_keys (
+    idempotency_key     VARCHAR(255) NOT NULL,
+    request_fingerprint VARCHAR(128) NOT NULL,
+    status_code         INTEGER,
+    response_body       TEXT,
+    created_at          TIMESTAMP(6) NOT NULL DEFAULT now(),
+    expires_at          TIMESTAMP(6) NOT NULL,
+    CONSTRAINT idempotency_keys_pkey PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
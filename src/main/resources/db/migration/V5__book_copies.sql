@@ -0,0 +1,60 @@
+-- One row per physical copy. Checkouts lock a single AVAILABLE copy with FOR UPDATE SKIP LOCKED,
+-- so concurrent checkouts of the same title no longer serialize on the books row.
+-- books.available_copies stays as a cached count, refreshed from this table after commits.
+
+CREATE TABLE book_copies (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    book_id        BIGINT       NOT NULL,
+    barcode        VARCHAR(64)  NOT NULL,
+    copy_condition VARCHAR(255) NOT NULL,
+    location       VARCHAR(255),
+    status         VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT book_copies_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_book_copies_barcode UNIQUE (barcode),
+    CONSTRAINT fk_book_copies_book FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE,
+    CONSTRAINT book_copies_condition_check CHECK (copy_condition IN ('NEW', 'GOOD', 'WORN', 'DAMAGED')),
+    CONSTRAINT book_copies_status_check CHECK (status IN ('AVAILABLE', 'ON_LOAN', 'LOST', 'WITHDRAWN'))
+);
+
+CREATE INDEX idx_book_copies_book ON book_copies (book_id);
+CREATE INDEX idx_book_copies_available ON book_copies (book_id, id) WHERE status = 'AVAILABLE';
+
+-- Generate copies for existing titles; the first (total - available) of each title are out on loan
+INSERT INTO book_copies (book_id, barcode, copy_condition, status, created_at, updated_at)
+SELECT b.id,
+       'BK' || lpad(b.id::text, 8, '0') || '-' || lpad(n::text, 3, '0'),
+       'GOOD',
+       CASE WHEN n <= b.total_copies - b.available_copies THEN 'ON_LOAN' ELSE 'AVAILABLE' END,
+       now(),
+       now()
+FROM books b
+CROSS JOIN LATERAL generate_series(1, b.total_copies) AS n;
+
+ALTER TABLE borrow_records ADD COLUMN copy_id BIGINT;
+ALTER TABLE borrow_records ADD CONSTRAINT fk_borrow_records_copy
+    FOREIGN KEY (copy_id) REFERENCES book_copies (id) ON DELETE SET NULL;
+CREATE INDEX idx_borrow_records_copy ON borrow_records (copy_id);
+
+-- Link open loans to the on-loan copies of their title
+WITH open_loans AS (
+    SELECT id, borrow_date, book_id, row_number() OVER (PARTITION BY book_id ORDER BY id) AS rn
+    FROM borrow_records
+    WHERE status = 'BORROWED'
+), loaned_copies AS (
+    SELECT id, book_id, row_number() OVER (PARTITION BY book_id ORDER BY id) AS rn
+    FROM book_copies
+    WHERE status = 'ON_LOAN'
+)
+UPDATE borrow_records br
+SET copy_id = c.id
+FROM open_loans l
+JOIN loaned_copies c ON c.book_id = l.book_id AND c.rn = l.rn
+WHERE br.id = l.id AND br.borrow_date = l.borrow_date;
+
+-- Copies counted as unavailable without an open loan were lost
+UPDATE book_copies bc
+SET status = 'LOST'
+WHERE bc.status = 'ON_LOAN'
+  AND NOT EXISTS (SELECT 1 FROM borrow_records br WHERE br.copy_id = bc.id AND br.status = 'BORROWED');
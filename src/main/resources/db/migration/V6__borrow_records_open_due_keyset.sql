@@ -0,0 +1,4 @@
+-- The reminder job pages through open loans in (due_date, id) order; the id column lets every
+-- page start exactly after the previous one without a sort. Supersedes the due_date-only index.
+CREATE INDEX idx_borrow_records_open_due_id ON borrow_records (due_date, id) WHERE status = 'BORROWED';
+DROP INDEX idx_borrow_records_open_due;
@@ -0,0 +1,10 @@
+-- Deleting a book or borrower used to cascade through its whole borrow history. Rows are now retired
+-- instead: retired_at is set and the row (with its history) stays. Default queries only see live rows,
+-- so their indexes only cover those.
+ALTER TABLE books ADD COLUMN retired_at TIMESTAMP(6);
+ALTER TABLE borrowers ADD COLUMN retired_at TIMESTAMP(6);
+
+CREATE INDEX idx_books_live ON books (id) WHERE retired_at IS NULL;
+CREATE INDEX idx_books_live_category ON books (category) WHERE retired_at IS NULL;
+CREATE INDEX idx_borrowers_live ON borrowers (id) WHERE retired_at IS NULL;
+CREATE INDEX idx_borrowers_live_active ON borrowers (is_active) WHERE retired_at IS NULL;
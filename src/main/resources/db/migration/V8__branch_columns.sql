@@ -0,0 +1,18 @@
+-- Circulation data is sharded by library branch. Every shard holds the full schema; books, borrowers and
+-- loans carry the branch they belong to, so several branches can share a shard. Existing rows belong to
+-- the default branch. ISBNs, e-mails and membership ids only have to be unique within a branch.
+ALTER TABLE books ADD COLUMN branch VARCHAR(64) NOT NULL DEFAULT '${default_branch}';
+ALTER TABLE borrowers ADD COLUMN branch VARCHAR(64) NOT NULL DEFAULT '${default_branch}';
+ALTER TABLE borrow_records ADD COLUMN branch VARCHAR(64) NOT NULL DEFAULT '${default_branch}';
+
+-- Hibernate always writes the branch; a missing one should fail rather than land in the default branch
+ALTER TABLE books ALTER COLUMN branch DROP DEFAULT;
+ALTER TABLE borrowers ALTER COLUMN branch DROP DEFAULT;
+ALTER TABLE borrow_records ALTER COLUMN branch DROP DEFAULT;
+
+ALTER TABLE books DROP CONSTRAINT uk_books_isbn;
+ALTER TABLE books ADD CONSTRAINT uk_books_branch_isbn UNIQUE (branch, isbn);
+ALTER TABLE borrowers DROP CONSTRAINT uk_borrowers_email;
+ALTER TABLE borrowers ADD CONSTRAINT uk_borrowers_branch_email UNIQUE (branch, email);
+ALTER TABLE borrowers DROP CONSTRAINT uk_borrowers_membership_id;
+ALTER TABLE borrowers ADD CONSTRAINT uk_borrowers_branch_membership_id UNIQUE (branch, membership_id);
@@ -0,0 +1,46 @@
+package com.library.management.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+
+    private static final int MAX_TRACKED_CLIENTS = 1_000;
+
+    @Test
+    void floodOfNewClientsIsTrimmedBelowTheLimitOnce() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxTrackedClients(MAX_TRACKED_CLIENTS);
+        AdmissionControl control = new AdmissionControl(properties);
+        long start = System.nanoTime();
+
+        for (int client = 0; client <= MAX_TRACKED_CLIENTS; client++) {
+            admit(control, client, start + client * 1_000L);
+        }
+        int afterTrim = control.trackedClients();
+        assertThat(afterTrim).isBetween(MAX_TRACKED_CLIENTS * 8 / 10, MAX_TRACKED_CLIENTS * 95 / 100);
+
+        // The next new clients fit under the limit again, so they are not trimmed one by one
+        for (int client = MAX_TRACKED_CLIENTS + 1; client <= MAX_TRACKED_CLIENTS + 40; client++) {
+            admit(control, client, start + client * 1_000L);
+        }
+        assertThat(control.trackedClients()).isEqualTo(afterTrim + 40);
+
+        @SuppressWarnings("unchecked")
+        Map<String, TokenBucket> buckets = (Map<String, TokenBucket>) ReflectionTestUtils.getField(control, "buckets");
+        assertThat(buckets).doesNotContainKey(clientId(0)).containsKey(clientId(MAX_TRACKED_CLIENTS));
+    }
+
+    private static void admit(AdmissionControl control, int client, long now) {
+        control.admit(clientId(client), EndpointClass.CATALOG, now);
+        control.complete(EndpointClass.CATALOG, System.nanoTime(), false);
+    }
+
+    private static String clientId(int client) {
+        return "10.0." + (client / 256) + "." + (client % 256);
+    }
+}
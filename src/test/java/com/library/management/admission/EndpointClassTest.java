@@ -0,0 +1,26 @@
+package com.library.management.admission;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointClassTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "POST, /api/borrow, CIRCULATION",
+            "POST, /api/borrow/return, CIRCULATION",
+            "PATCH, /api/borrow/7/mark-lost, CIRCULATION",
+            "GET, /api/borrow/overdue, REPORTING",
+            "GET, /api/books/inventory/low-stock, REPORTING",
+            "GET, /api/analytics/circulation, REPORTING",
+            "GET, /api/stats/live, REPORTING",
+            "GET, /api/books/42, CATALOG",
+            "GET, /api/borrowers/search, CATALOG"
+    })
+    void classifiesByMethodAndPath(String method, String path, EndpointClass expected) {
+        assertThat(EndpointClass.of(new MockHttpServletRequest(method, path))).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,111 @@
+package com.library.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.exception.BookNotAvailableException;
+import com.library.management.exception.GlobalExceptionHandler;
+import com.library.management.service.BorrowOutcome;
+import com.library.management.service.BorrowRejection;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rendering a 409 "Book Not Available" rejection, from the point the rule fails to the
+ * serialized body. The rule is evaluated {@code depth} frames below the handler to approximate the
+ * Spring MVC + transaction proxy stack that a stack trace has to capture.
+ * <ul>
+ *     <li>{@code exceptionWithStackTrace} - the previous behaviour: exception with a stack trace plus the
+ *     exception handler</li>
+ *     <li>{@code stacklessException} - the exception fallback as it is now</li>
+ *     <li>{@code resultOutcome} - {@link BorrowOutcome.Rejected} rendered from a precomputed template</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BorrowRejectionBenchmark {
+
+    @Param({"20", "120"})
+    private int depth;
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler exceptionHandler;
+    private WebRequest request;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        exceptionHandler = new GlobalExceptionHandler();
+        request = new ServletWebRequest(new MockHttpServletRequest("POST", "/api/borrow"));
+    }
+
+    @Benchmark
+    public byte[] exceptionWithStackTrace() throws IOException {
+        try {
+            rejectWithStackTrace(depth);
+            throw new IllegalStateException("unreachable");
+        } catch (LegacyBookNotAvailableException e) {
+            return serialize(exceptionHandler.handleBookNotAvailable(new BookNotAvailableException(e.getMessage()), request));
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessException() throws IOException {
+        try {
+            rejectStackless(depth);
+            throw new IllegalStateException("unreachable");
+        } catch (BookNotAvailableException e) {
+            return serialize(exceptionHandler.handleBookNotAvailable(e, request));
+        }
+    }
+
+    @Benchmark
+    public byte[] resultOutcome() throws IOException {
+        BorrowOutcome outcome = reject(depth);
+        if (outcome instanceof BorrowOutcome.Rejected rejected) {
+            return serialize(rejected.rejection().getTemplate().toResponse(request));
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private byte[] serialize(ResponseEntity<?> response) throws IOException {
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+
+    private static void rejectWithStackTrace(int remaining) {
+        if (remaining == 0) {
+            throw new LegacyBookNotAvailableException("Book is currently not available");
+        }
+        rejectWithStackTrace(remaining - 1);
+    }
+
+    private static void rejectStackless(int remaining) {
+        if (remaining == 0) {
+            throw BorrowRejection.BOOK_NOT_AVAILABLE.toException();
+        }
+        rejectStackless(remaining - 1);
+    }
+
+    private static BorrowOutcome reject(int remaining) {
+        if (remaining == 0) {
+            return new BorrowOutcome.Rejected(BorrowRejection.BOOK_NOT_AVAILABLE);
+        }
+        return reject(remaining - 1);
+    }
+
+    // What BookNotAvailableException looked like before it became stackless
+    private static final class LegacyBookNotAvailableException extends RuntimeException {
+        LegacyBookNotAvailableException(String message) {
+            super(message);
+        }
+    }
+}
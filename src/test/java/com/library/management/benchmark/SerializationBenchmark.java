@@ -0,0 +1,126 @@
+package com.library.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookDTO;
+import com.library.management.dto.BorrowRecordDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of the list endpoint payloads in JSON vs CBOR.
+ * Payload sizes per endpoint are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"books", "borrow-records"})
+    private String endpoint;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private List<?> payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        payload = "books".equals(endpoint) ? books(size) : borrowRecords(size);
+
+        int jsonBytes = jsonMapper.writeValueAsBytes(payload).length;
+        int cborBytes = cborMapper.writeValueAsBytes(payload).length;
+        System.out.printf("%n[payload] %s x%d: json=%d bytes, cbor=%d bytes (%.1f%%)%n",
+                endpoint, size, jsonBytes, cborBytes, 100.0 * cborBytes / jsonBytes);
+    }
+
+    @Benchmark
+    public void json(Blackhole blackhole) throws IOException {
+        jsonMapper.writeValue(new BlackholeOutputStream(blackhole), payload);
+    }
+
+    @Benchmark
+    public void cbor(Blackhole blackhole) throws IOException {
+        cborMapper.writeValue(new BlackholeOutputStream(blackhole), payload);
+    }
+
+    private static List<BookDTO> books(int count) {
+        List<BookDTO> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(BookDTO.builder()
+                    .id((long) i)
+                    .title("Clean Code, volume " + i)
+                    .author("Robert C. Martin")
+                    .isbn("978-0132350884")
+                    .category("Programming")
+                    .totalCopies(5)
+                    .availableCopies(i % 6)
+                    .publisher("Prentice Hall")
+                    .publishYear(2008)
+                    .description("A handbook of agile software craftsmanship")
+                    .status("AVAILABLE")
+                    .build());
+        }
+        return books;
+    }
+
+    private static List<BorrowRecordDTO> borrowRecords(int count) {
+        LocalDate today = LocalDate.now();
+        List<BorrowRecordDTO> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(BorrowRecordDTO.builder()
+                    .id((long) i)
+                    .bookId((long) (i % 1000))
+                    .borrowerId((long) (i % 250))
+                    .borrowDate(today.minusDays(i % 30))
+                    .dueDate(today.plusDays(14 - i % 30))
+                    .status("BORROWED")
+                    .fineAmount(0.0)
+                    .bookTitle("Clean Code, volume " + (i % 1000))
+                    .borrowerName("John Doe")
+                    .build());
+        }
+        return records;
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
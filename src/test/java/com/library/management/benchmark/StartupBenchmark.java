@@ -0,0 +1,142 @@
+package com.library.management.benchmark;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures wall-clock time from JVM launch to the first successful {@code GET /api/books}, comparing the
+ * default configuration with the prod profile (AOT-processed context plus a CDS archive) on the same
+ * Postgres Testcontainer. Expects a jar built with {@code mvn -Pprod package} so AOT artifacts are present.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code jar} (path to the fat jar), {@code runs} (launches per mode,
+ * default 5) and {@code port} (default 18080).
+ */
+public final class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path jar = Path.of(options.getOrDefault("jar", "target/library-management-1.0.0.jar")).toAbsolutePath();
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        if (!Files.exists(jar)) {
+            throw new IllegalArgumentException(jar + " not found, build it first with mvn -Pprod package");
+        }
+
+        Path extracted = jar.resolveSibling("startup-benchmark");
+        Path extractedJar = extracted.resolve(jar.getFileName());
+        Path archive = extracted.resolve("app.jsa");
+        exec(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination", extracted.toString()), Map.of());
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")) {
+            postgres.start();
+            Map<String, String> environment = Map.of(
+                    "DATABASE_URL", postgres.getJdbcUrl(),
+                    "DB_USERNAME", postgres.getUsername(),
+                    "DB_PASSWORD", postgres.getPassword(),
+                    "PORT", String.valueOf(port));
+
+            // Apply migrations once so every measured launch only validates them
+            timeToFirstRequest(List.of(java(), "-jar", jar.toString()), environment, port);
+
+            exec(List.of(java(), "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.profiles.active=prod",
+                    "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh", "-Dspring.flyway.enabled=false",
+                    "-jar", extractedJar.toString()), environment);
+
+            Map<String, List<String>> modes = Map.of(
+                    "default", List.of(java(), "-jar", jar.toString()),
+                    "prod+aot+cds", List.of(java(), "-XX:SharedArchiveFile=" + archive, "-Dspring.profiles.active=prod",
+                            "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+
+            System.out.printf("%-14s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+            for (String mode : List.of("default", "prod+aot+cds")) {
+                long[] millis = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    millis[i] = timeToFirstRequest(modes.get(mode), environment, port);
+                }
+                Arrays.sort(millis);
+                System.out.printf("%-14s %10d %10d %10d%n", mode, millis[0], millis[runs / 2], millis[runs - 1]);
+            }
+        }
+    }
+
+    private static long timeToFirstRequest(List<String> command, Map<String, String> environment, int port) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books?fields=id")).GET().build();
+
+        long started = System.nanoTime();
+        Process process = start(command, environment);
+        try {
+            long deadline = started + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (ConnectException notListeningYet) {
+                    // keep polling
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful response within " + STARTUP_TIMEOUT + ": " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void exec(List<String> command, Map<String, String> environment) throws IOException, InterruptedException {
+        Process process = start(command, environment);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command failed with " + process.exitValue() + ": " + command);
+        }
+    }
+
+    private static Process start(List<String> command, Map<String, String> environment) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(new ArrayList<>(command))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().putAll(environment);
+        return builder.start();
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
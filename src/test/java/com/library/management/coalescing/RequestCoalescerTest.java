@@ -0,0 +1,144 @@
+package com.library.management.coalescing;
+
+import com.library.management.cache.EntityType;
+import com.library.management.dto.CoalescingStatsDTO;
+import com.library.management.event.EntityInvalidatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RequestCoalescerTest {
+
+    private static final String OPERATION = "BookService.getAllBooks";
+    private static final int JOINERS = 8;
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(mock(PlatformTransactionManager.class));
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<String>> load = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return new ArrayList<>(List.of("book"));
+        };
+
+        Future<List<String>> leader = pool.submit(() -> coalescer.read(OPERATION, List.of(), load));
+        awaitLoads(loads, 1);
+        List<Future<List<String>>> joiners = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            joiners.add(pool.submit(() -> coalescer.read(OPERATION, List.of(), load)));
+        }
+        awaitCoalesced(JOINERS);
+        release.countDown();
+
+        List<String> result = leader.get(10, TimeUnit.SECONDS);
+        for (Future<List<String>> joiner : joiners) {
+            assertThat(joiner.get(10, TimeUnit.SECONDS)).isSameAs(result);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(stats().getLoads()).isEqualTo(1);
+
+        // Nothing is kept once the load is done
+        assertThat(coalescer.read(OPERATION, List.of(), () -> List.of("again"))).containsExactly("again");
+    }
+
+    @Test
+    void joinersGetTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("database down");
+        Supplier<Object> load = () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw failure;
+        };
+
+        Future<Object> leader = pool.submit(() -> coalescer.read(OPERATION, List.of(), load));
+        awaitLoads(loads, 1);
+        Future<Object> joiner = pool.submit(() -> coalescer.read(OPERATION, List.of(), load));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .cause().isSameAs(failure);
+        assertThatThrownBy(() -> joiner.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .cause().isSameAs(failure);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void callsAfterAnInvalidationDoNotJoinAnOlderLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> beforeWrite = pool.submit(() -> coalescer.read(OPERATION, 7L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "before";
+        }));
+        awaitLoads(loads, 1);
+
+        coalescer.onEntityInvalidated(new EntityInvalidatedEvent(EntityType.BOOK, 7L));
+        assertThat(coalescer.read(OPERATION, 7L, () -> "after")).isEqualTo("after");
+        coalescer.invalidate();
+        assertThat(coalescer.read(OPERATION, 7L, () -> "after loan")).isEqualTo("after loan");
+
+        release.countDown();
+        assertThat(beforeWrite.get(10, TimeUnit.SECONDS)).isEqualTo("before");
+        assertThat(stats().getCoalesced()).isZero();
+    }
+
+    private CoalescingStatsDTO stats() {
+        return coalescer.stats().stream()
+                .filter(stats -> stats.getOperation().equals(OPERATION))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (stats().getCoalesced() < expected) {
+            assertThat(System.nanoTime()).as("callers joined in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitLoads(AtomicInteger loads, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (loads.get() < expected) {
+            assertThat(System.nanoTime()).as("load started in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
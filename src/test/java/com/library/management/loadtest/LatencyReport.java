@@ -0,0 +1,100 @@
+package com.library.management.loadtest;
+
+import com.library.management.loadtest.Scenario.Operation;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency percentiles for one scenario run, plus the regression gate.
+ * Histograms are recorded in microseconds and reported in milliseconds.
+ */
+public class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Scenario scenario;
+    private final double requestsPerSecond;
+    private final Duration duration;
+    private final long scheduled;
+    private final long dropped;
+    private final long skipped;
+    private final Map<Operation, Result> results = new EnumMap<>(Operation.class);
+
+    public LatencyReport(Scenario scenario, double requestsPerSecond, Duration duration, long scheduled, long dropped,
+                         long skipped) {
+        this.scenario = scenario;
+        this.requestsPerSecond = requestsPerSecond;
+        this.duration = duration;
+        this.scheduled = scheduled;
+        this.dropped = dropped;
+        this.skipped = skipped;
+    }
+
+    void add(Operation operation, Histogram histogram, long rejections, long errors) {
+        if (histogram.getTotalCount() > 0) {
+            results.put(operation, new Result(histogram, rejections, errors));
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%nScenario %s at %.0f req/s for %ds (%d scheduled, client-side drops: %d, skipped with nothing to return: %d)%n",
+                scenario, requestsPerSecond, duration.toSeconds(), scheduled, dropped, skipped);
+        out.printf("%-18s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "4xx", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((operation, result) -> {
+            Histogram h = result.histogram();
+            out.printf("%-18s %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, h.getTotalCount(), result.rejections(), result.errors(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        });
+    }
+
+    // Full percentile distributions in the .hgrm format understood by the HdrHistogram plotter
+    public void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            Path file = directory.resolve(scenario.name().toLowerCase() + "-" + entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().histogram().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    public List<String> violations(double maxP99Millis, double maxErrorRate) {
+        List<String> violations = new ArrayList<>();
+        // Requests the client could not send are load the server never saw; too many make the percentiles meaningless
+        double dropRate = scheduled == 0 ? 0 : (double) dropped / scheduled;
+        if (dropRate > maxErrorRate) {
+            violations.add(String.format("%s client-side drop rate %.4f exceeds %.4f", scenario, dropRate, maxErrorRate));
+        }
+        results.forEach((operation, result) -> {
+            double p99 = millis(result.histogram().getValueAtPercentile(99));
+            if (p99 > maxP99Millis) {
+                violations.add(String.format("%s p99 %.2f ms exceeds %.2f ms", operation, p99, maxP99Millis));
+            }
+            double errorRate = (double) result.errors() / result.histogram().getTotalCount();
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format("%s error rate %.4f exceeds %.4f", operation, errorRate, maxErrorRate));
+            }
+        });
+        return violations;
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    private record Result(Histogram histogram, long rejections, long errors) {
+    }
+}
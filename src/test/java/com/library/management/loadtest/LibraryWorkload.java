@@ -0,0 +1,144 @@
+package com.library.management.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.loadtest.Scenario.Operation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds a catalog through the public API and turns scenario operations into HTTP requests.
+ */
+public class LibraryWorkload {
+
+    private static final String[] CATEGORIES = {"Programming", "Fiction", "History", "Science", "Children"};
+    private static final String[] TITLE_WORDS = {"Clean", "Code", "River", "Empire", "Garden", "Atlas", "Winter", "Signal"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> borrowerIds = new ArrayList<>();
+    private final Queue<Long> openLoans = new ConcurrentLinkedQueue<>();
+
+    public LibraryWorkload(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    public void seed(int books, int borrowers, int openLoansPerBorrower) throws IOException, InterruptedException {
+        long run = System.currentTimeMillis() % 1_000_000;
+        for (int i = 0; i < books; i++) {
+            String isbn = String.format("978%010d", run * 10_000 + i);
+            String body = String.format("{\"title\":\"%s %s %d\",\"author\":\"Author %d\",\"isbn\":\"%s\","
+                            + "\"category\":\"%s\",\"totalCopies\":5,\"publishYear\":2010}",
+                    TITLE_WORDS[i % TITLE_WORDS.length], TITLE_WORDS[(i / 7) % TITLE_WORDS.length], i,
+                    i % 97, isbn, CATEGORIES[i % CATEGORIES.length]);
+            bookIds.add(createAndReadId("/api/books", body));
+        }
+        for (int i = 0; i < borrowers; i++) {
+            String body = String.format("{\"name\":\"Patron %d\",\"email\":\"patron%d.%d@example.com\","
+                    + "\"phone\":\"%010d\",\"membershipType\":\"REGULAR\"}", i, run, i, 5_550_000_000L + i);
+            borrowerIds.add(createAndReadId("/api/borrowers", body));
+        }
+        for (long borrowerId : borrowerIds) {
+            for (int i = 0; i < openLoansPerBorrower; i++) {
+                HttpResponse<String> response = client.send(borrowRequest(borrowerId), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 201) {
+                    openLoans.add(mapper.readTree(response.body()).get("id").asLong());
+                }
+            }
+        }
+    }
+
+    // Makes the seeded open loans overdue by 1 to 30 days, directly in the database (the API only lends forward)
+    public int backdateOpenLoans(String jdbcUrl, String user, String password) throws SQLException {
+        List<Long> loans = new ArrayList<>(openLoans);
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             PreparedStatement update = connection.prepareStatement("UPDATE borrow_records "
+                     + "SET due_date = CURRENT_DATE - 1 - (id % 30)::int WHERE status = 'BORROWED' AND id = ANY (?)")) {
+            update.setArray(1, connection.createArrayOf("bigint", loans.toArray()));
+            return update.executeUpdate();
+        }
+    }
+
+    // Null when the operation has nothing to act on (a return with no open loan left); the driver skips it
+    public HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case LIST_BOOKS -> get("/api/books?fields=id,title,availableCopies");
+            case GET_BOOK -> get("/api/books/" + randomBook());
+            case SEARCH_TITLE -> get("/api/books/search/title?title=" + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+            case BOOKS_BY_CATEGORY -> get("/api/books/category/" + CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            case LOW_STOCK -> get("/api/books/inventory/low-stock");
+            case BORROW -> borrowRequest(randomBorrower());
+            case RETURN -> {
+                Long recordId = openLoans.poll();
+                yield recordId == null ? null : post("/api/borrow/return", "{\"recordId\":" + recordId + "}");
+            }
+            case BORROWER_RECORDS -> get("/api/borrow/borrower/" + randomBorrower());
+            case OVERDUE -> get("/api/borrow/overdue");
+            case ACTIVE_BORROWS -> get("/api/borrow/active");
+        };
+    }
+
+    // Keeps the pool of returnable loans topped up from successful checkouts
+    public void onResponse(Operation operation, HttpResponse<String> response) {
+        if (operation == Operation.BORROW && response.statusCode() == 201) {
+            try {
+                openLoans.add(mapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException ignored) {
+                // body already counted as a success; the loan just won't be returned
+            }
+        }
+    }
+
+    private HttpRequest borrowRequest(long borrowerId) {
+        return post("/api/borrow", "{\"bookId\":" + randomBook() + ",\"borrowerId\":" + borrowerId + ",\"borrowDays\":14}");
+    }
+
+    private long createAndReadId(String path, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(post(path, body), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Seeding " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode node = mapper.readTree(response.body());
+        return node.get("id").asLong();
+    }
+
+    private long randomBook() {
+        return bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+    }
+
+    private long randomBorrower() {
+        return borrowerIds.get(ThreadLocalRandom.current().nextInt(borrowerIds.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
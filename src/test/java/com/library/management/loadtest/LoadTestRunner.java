@@ -0,0 +1,145 @@
+package com.library.management.loadtest;
+
+import com.library.management.LibraryManagementApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives the real HTTP API with open-loop scenarios and fails (exit code 1) when a threshold is exceeded.
+ * <p>
+ * Arguments are {@code key=value} pairs:
+ * <ul>
+ *     <li>{@code scenario} - comma-separated list of browse-heavy, checkout-rush, return-wave, overdue-report</li>
+ *     <li>{@code rate} - offered load in requests per second (default 100)</li>
+ *     <li>{@code duration} - seconds per scenario (default 60)</li>
+ *     <li>{@code warmup} - warmup seconds before measuring (default 15)</li>
+ *     <li>{@code books}, {@code borrowers} - size of the seeded catalog (default 500, 200)</li>
+ *     <li>{@code p99} - maximum p99 per endpoint in milliseconds (default 250)</li>
+ *     <li>{@code errorRate} - maximum 5xx/IO error rate per endpoint (default 0.01)</li>
+ *     <li>{@code baseUrl} - target an already running instance instead of starting the app on a Postgres container</li>
+ *     <li>{@code jdbcUrl}, {@code jdbcUser}, {@code jdbcPassword} - that instance's database, used to make the seeded
+ *     loans of overdue-report overdue</li>
+ * </ul>
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : options.getOrDefault("scenario", "browse-heavy").split(",")) {
+            scenarios.add(Scenario.fromName(name));
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        int books = Integer.parseInt(options.getOrDefault("books", "500"));
+        int borrowers = Integer.parseInt(options.getOrDefault("borrowers", "200"));
+        double maxP99Millis = Double.parseDouble(options.getOrDefault("p99", "250"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("errorRate", "0.01"));
+        Path outputDirectory = Path.of(options.getOrDefault("output", "target/loadtest"));
+
+        PostgreSQLContainer<?> postgres = null;
+        ConfigurableApplicationContext application = null;
+        String baseUrl = options.get("baseUrl");
+        String jdbcUrl = options.get("jdbcUrl");
+        String jdbcUser = options.get("jdbcUser");
+        String jdbcPassword = options.get("jdbcPassword");
+        if (baseUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+            postgres.start();
+            application = startApplication(postgres);
+            baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) application).getWebServer().getPort();
+            jdbcUrl = postgres.getJdbcUrl();
+            jdbcUser = postgres.getUsername();
+            jdbcPassword = postgres.getPassword();
+        }
+
+        List<String> violations = new ArrayList<>();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            for (Scenario scenario : scenarios) {
+                LibraryWorkload workload = new LibraryWorkload(client, baseUrl);
+                workload.seed(books, borrowers, openLoansPerBorrower(scenario));
+                if (scenario == Scenario.OVERDUE_REPORT) {
+                    if (jdbcUrl == null) {
+                        System.out.println("No jdbcUrl given: overdue-report runs without overdue loans");
+                    } else {
+                        System.out.println("Made " + workload.backdateOpenLoans(jdbcUrl, jdbcUser, jdbcPassword) + " loans overdue");
+                    }
+                }
+
+                new OpenLoopDriver(client, workload, 10_000).run(scenario, rate, warmup);
+                LatencyReport report = new OpenLoopDriver(client, workload, 10_000).run(scenario, rate, duration);
+                report.print(System.out);
+                report.writeHistograms(outputDirectory);
+                violations.addAll(report.violations(maxP99Millis, maxErrorRate));
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            System.out.println("\nLoad test FAILED:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+        System.out.println("\nLoad test passed. Histograms written to " + outputDirectory.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private static int openLoansPerBorrower(Scenario scenario) {
+        return switch (scenario) {
+            case RETURN_WAVE -> 5;
+            case OVERDUE_REPORT -> 2;
+            default -> 0;
+        };
+    }
+
+    private static ConfigurableApplicationContext startApplication(PostgreSQLContainer<?> postgres) {
+        return SpringApplication.run(LibraryManagementApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.jpa.show-sql=false",
+                // Every generated request comes from one client address; keep concurrency limits, lift the rate limit
+                "--library.admission.client-rate=1000000",
+                "--library.admission.client-burst=1000000",
+                "--logging.level.com.library.management=INFO",
+                "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
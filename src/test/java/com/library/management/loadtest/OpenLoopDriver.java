@@ -0,0 +1,111 @@
+package com.library.management.loadtest;
+
+import com.library.management.loadtest.Scenario.Operation;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests on a fixed schedule regardless of how fast responses come back (open loop).
+ * Latency is measured from the intended send time, so a stalled server shows up as queueing delay
+ * instead of silently lowering the offered load (coordinated omission).
+ */
+public class OpenLoopDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final LibraryWorkload workload;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> rejections = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public OpenLoopDriver(HttpClient client, LibraryWorkload workload, int maxInFlight) {
+        this.client = client;
+        this.workload = workload;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            rejections.put(operation, new AtomicLong());
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public LatencyReport run(Scenario scenario, double requestsPerSecond, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        long scheduled = 0;
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            scheduled++;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(scenario.next(), intendedStart);
+        }
+
+        // Let outstanding requests finish before reporting
+        awaitQuiescence();
+
+        LatencyReport report = new LatencyReport(scenario, requestsPerSecond, duration, scheduled, dropped.get(), skipped.get());
+        recorders.forEach((operation, recorder) -> report.add(operation, recorder.getIntervalHistogram(),
+                rejections.get(operation).get(), errors.get(operation).get()));
+        return report;
+    }
+
+    private void send(Operation operation, long intendedStart) {
+        if (!inFlight.tryAcquire()) {
+            // The client itself is saturated; count it rather than blocking the schedule
+            dropped.incrementAndGet();
+            return;
+        }
+        HttpRequest request = workload.request(operation);
+        if (request == null) {
+            // Not sent, so not recorded: substituting another request would report its latency as this operation's
+            skipped.incrementAndGet();
+            inFlight.release();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                    recorders.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                    if (failure != null || response.statusCode() >= 500) {
+                        errors.get(operation).incrementAndGet();
+                    } else if (response.statusCode() >= 400) {
+                        rejections.get(operation).incrementAndGet();
+                    } else {
+                        workload.onResponse(operation, response);
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private void awaitQuiescence() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.availablePermits() < maxInFlight && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.management.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted request mixes modelled on desk (circulation) and OPAC (catalog) traffic.
+ */
+public enum Scenario {
+
+    BROWSE_HEAVY(Map.of(
+            Operation.LIST_BOOKS, 20,
+            Operation.GET_BOOK, 40,
+            Operation.SEARCH_TITLE, 20,
+            Operation.BOOKS_BY_CATEGORY, 15,
+            Operation.BORROW, 5)),
+
+    CHECKOUT_RUSH(Map.of(
+            Operation.BORROW, 70,
+            Operation.GET_BOOK, 20,
+            Operation.BORROWER_RECORDS, 10)),
+
+    RETURN_WAVE(Map.of(
+            Operation.RETURN, 70,
+            Operation.BORROW, 10,
+            Operation.GET_BOOK, 20)),
+
+    OVERDUE_REPORT(Map.of(
+            Operation.OVERDUE, 40,
+            Operation.ACTIVE_BORROWS, 30,
+            Operation.LOW_STOCK, 30));
+
+    public enum Operation {
+        LIST_BOOKS, GET_BOOK, SEARCH_TITLE, BOOKS_BY_CATEGORY, LOW_STOCK,
+        BORROW, RETURN, BORROWER_RECORDS, OVERDUE, ACTIVE_BORROWS
+    }
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Scenario(Map<Operation, Integer> mix) {
+        Map<Operation, Integer> ordered = new EnumMap<>(mix);
+        this.operations = ordered.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += ordered.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, pick + 1);
+        return operations[index >= 0 ? index : -index - 1];
+    }
+
+    public static Scenario fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.management.reminder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReminderSpoolTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2026, 10, 19);
+    private static final LocalDate DUE_DATE = RUN_DATE.plusDays(2);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fullFileIsReleasedOnlyByRotate() throws IOException {
+        ReminderCheckpoint checkpoint = ReminderCheckpoint.start(RUN_DATE);
+        ReminderSpool spool = ReminderSpool.open(directory, 2, checkpoint);
+
+        spool.append(List.of("a", "b"));
+        spool.commit();
+
+        // The checkpoint written now must already point at the next file
+        assertThat(spool.sequence()).isEqualTo(1);
+        assertThat(spool.length()).isZero();
+        assertThat(spool.messagesInFile()).isZero();
+        assertThat(files()).containsExactly(part(0));
+
+        spool.rotate();
+
+        assertThat(files()).containsExactly(finished(0));
+        assertThat(Files.readAllLines(directory.resolve(finished(0)))).containsExactly("a", "b");
+    }
+
+    @Test
+    void crashBetweenCheckpointAndRotateReleasesTheFileOnRestart() throws IOException {
+        ReminderSpool spool = ReminderSpool.open(directory, 2, ReminderCheckpoint.start(RUN_DATE));
+        spool.append(List.of("a", "b"));
+        spool.commit();
+        ReminderCheckpoint checkpoint = ReminderCheckpoint.start(RUN_DATE).advance(DUE_DATE, 2, spool, 2);
+        // The process dies here, before rotate()
+
+        try (ReminderSpool restarted = ReminderSpool.open(directory, 2, checkpoint)) {
+            assertThat(restarted.sequence()).isEqualTo(1);
+            restarted.append(List.of("c"));
+            restarted.commit();
+        }
+
+        assertThat(files()).containsExactly(finished(0), finished(1));
+        assertThat(Files.readAllLines(directory.resolve(finished(0)))).containsExactly("a", "b");
+        assertThat(Files.readAllLines(directory.resolve(finished(1)))).containsExactly("c");
+    }
+
+    @Test
+    void crashBeforeCheckpointDropsTheUncheckpointedPage() throws IOException {
+        ReminderSpool spool = ReminderSpool.open(directory, 2, ReminderCheckpoint.start(RUN_DATE));
+        spool.append(List.of("a"));
+        spool.commit();
+        ReminderCheckpoint checkpoint = ReminderCheckpoint.start(RUN_DATE).advance(DUE_DATE, 1, spool, 1);
+        spool.append(List.of("b"));
+        spool.commit();
+        // The process dies here, before the checkpoint covering "b"; the full file was not released
+
+        assertThat(files()).containsExactly(part(0));
+        try (ReminderSpool restarted = ReminderSpool.open(directory, 2, checkpoint)) {
+            assertThat(restarted.sequence()).isZero();
+            restarted.append(List.of("b"));
+            restarted.commit();
+            ReminderCheckpoint resumed = checkpoint.advance(DUE_DATE, 2, restarted, 1);
+            assertThat(resumed.fileSequence()).isEqualTo(1);
+            restarted.rotate();
+        }
+
+        assertThat(files()).containsExactly(finished(0));
+        assertThat(Files.readAllLines(directory.resolve(finished(0)))).containsExactly("a", "b");
+    }
+
+    @Test
+    void closeFinishesAPartialFile() throws IOException {
+        try (ReminderSpool spool = ReminderSpool.open(directory, 10, ReminderCheckpoint.start(RUN_DATE))) {
+            spool.append(List.of("a"));
+            spool.commit();
+        }
+
+        assertThat(files()).containsExactly(finished(0));
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static String finished(int sequence) {
+        return String.format("reminders-%s-%05d.ndjson", RUN_DATE, sequence);
+    }
+
+    private static String part(int sequence) {
+        return finished(sequence) + ".part";
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.management.repository;
+
+import com.library.management.repository.BorrowerSearchRow.Match;
+import com.library.management.support.MigratedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BorrowerSearchRepositoryTest {
+
+    private static final int PAGE_SIZE = 7;
+
+    private JdbcTemplate jdbcTemplate;
+    private BorrowerSearchRepository repository;
+    private String branch;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = MigratedPostgres.jdbcTemplate();
+        repository = new BorrowerSearchRepository(jdbcTemplate);
+        branch = "branch-" + UUID.randomUUID();
+    }
+
+    @Test
+    void pagesFollowOneOrderWithoutRepeatsOrGaps() {
+        // Membership ids run against the id order, and every one of these names also matches "ada"
+        List<Long> byMembershipId = new ArrayList<>();
+        for (int i = 30; i > 0; i--) {
+            byMembershipId.add(0, insertBorrower("Ada Reader", "555-01%02d".formatted(i), "ADA-%04d".formatted(i)));
+        }
+        List<Long> byName = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            byName.add(insertBorrower("Ada Byron", "555-02%02d".formatted(i), "MEM-%04d".formatted(i)));
+        }
+
+        List<BorrowerSearchRow> paged = new ArrayList<>();
+        for (int offset = 0; offset < 60; offset += PAGE_SIZE) {
+            paged.addAll(repository.search(branch, "ADA", null, "ada", offset, PAGE_SIZE));
+        }
+
+        List<Long> expected = new ArrayList<>(byMembershipId);
+        expected.addAll(byName);
+        assertThat(paged).extracting(BorrowerSearchRow::id).containsExactlyElementsOf(expected);
+        assertThat(paged.subList(0, 30)).extracting(BorrowerSearchRow::match).containsOnly(Match.MEMBERSHIP_ID);
+        assertThat(paged.subList(30, 42)).extracting(BorrowerSearchRow::match).containsOnly(Match.NAME);
+    }
+
+    @Test
+    void phoneMatchesFollowMembershipMatchesAndAreNotRepeated() {
+        long membership = insertBorrower("Grace Hopper", "555-1200", "555-0001");
+        long phone = insertBorrower("Alan Turing", "555-1201", "MEM-0001");
+
+        List<BorrowerSearchRow> rows = repository.search(branch, "555", "555", null, 0, 10);
+
+        assertThat(rows).extracting(BorrowerSearchRow::id).containsExactly(membership, phone);
+        assertThat(rows).extracting(BorrowerSearchRow::match).containsExactly(Match.MEMBERSHIP_ID, Match.PHONE);
+    }
+
+    @Test
+    void otherBranchesAreNotSearched() {
+        insertBorrower("Ada Reader", "555-0300", "ADA-0300");
+        branch = "branch-" + UUID.randomUUID();
+
+        assertThat(repository.search(branch, "ADA", null, "ada", 0, 10)).isEmpty();
+    }
+
+    private long insertBorrower(String name, String phone, String membershipId) {
+        return jdbcTemplate.queryForObject("INSERT INTO borrowers (name, email, phone, membership_id, "
+                + "membership_type, is_active, created_at, branch) "
+                + "VALUES (?, ?, ?, ?, 'REGULAR', true, now(), ?) RETURNING id",
+                Long.class, name, UUID.randomUUID() + "@example.org", phone, membershipId, branch);
+    }
+}
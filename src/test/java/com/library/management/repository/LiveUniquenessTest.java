@@ -0,0 +1,71 @@
+package com.library.management.repository;
+
+import com.library.management.support.MigratedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// ISBNs, e-mails and membership ids are unique among a branch's live rows; retired rows release them
+class LiveUniquenessTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private String branch;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = MigratedPostgres.jdbcTemplate();
+        branch = "branch-" + UUID.randomUUID();
+    }
+
+    @Test
+    void retiredBookReleasesItsIsbn() {
+        long retired = insertBook("978-0-00-000001-1");
+        jdbcTemplate.update("UPDATE books SET retired_at = now() WHERE id = ?", retired);
+
+        long recatalogued = insertBook("978-0-00-000001-1");
+
+        assertThat(recatalogued).isNotEqualTo(retired);
+        assertThatThrownBy(() -> insertBook("978-0-00-000001-1")).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void retiredBorrowerReleasesEmailAndMembershipId() {
+        long retired = insertBorrower("reader@example.org", "MEM-00000001");
+        jdbcTemplate.update("UPDATE borrowers SET retired_at = now() WHERE id = ?", retired);
+
+        insertBorrower("reader@example.org", "MEM-00000001");
+
+        assertThatThrownBy(() -> insertBorrower("reader@example.org", "MEM-00000002"))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThatThrownBy(() -> insertBorrower("other@example.org", "MEM-00000001"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void sameIsbnAtAnotherBranchIsAllowed() {
+        insertBook("978-0-00-000002-8");
+        branch = "branch-" + UUID.randomUUID();
+
+        insertBook("978-0-00-000002-8");
+    }
+
+    private long insertBook(String isbn) {
+        return jdbcTemplate.queryForObject("INSERT INTO books (title, author, isbn, category, total_copies, "
+                + "available_copies, status, created_at, branch) "
+                + "VALUES ('Dune', 'Frank Herbert', ?, 'Fiction', 1, 1, 'AVAILABLE', now(), ?) RETURNING id",
+                Long.class, isbn, branch);
+    }
+
+    private long insertBorrower(String email, String membershipId) {
+        return jdbcTemplate.queryForObject("INSERT INTO borrowers (name, email, phone, membership_id, "
+                + "membership_type, is_active, created_at, branch) "
+                + "VALUES ('Ada Reader', ?, '555-0100', ?, 'REGULAR', true, now(), ?) RETURNING id",
+                Long.class, email, membershipId, branch);
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.seed;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.UncategorizedSQLException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Streams rows into COPY ... FROM STDIN in CSV format, handing the driver 64 KB at a time
+final class CsvCopy implements AutoCloseable {
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final String sql;
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 4096);
+    private boolean rowStarted;
+    private boolean finished;
+
+    CsvCopy(Connection connection, String table, String columns) throws SQLException {
+        this.sql = "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+        this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    // Quoted, so that an empty string stays distinct from NULL
+    CsvCopy text(String value) {
+        separator();
+        if (value != null) {
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    buffer.append('"');
+                }
+                buffer.append(c);
+            }
+            buffer.append('"');
+        }
+        return this;
+    }
+
+    // Numbers, booleans, dates and enum names need no quoting; null is written as NULL
+    CsvCopy value(Object value) {
+        separator();
+        if (value != null) {
+            buffer.append(value);
+        }
+        return this;
+    }
+
+    CsvCopy value(long value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    void endRow() {
+        buffer.append('\n');
+        rowStarted = false;
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    long finish() {
+        flush();
+        finished = true;
+        try {
+            return copyIn.endCopy();
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY", sql, e);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!finished && copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void separator() {
+        if (rowStarted) {
+            buffer.append(',');
+        }
+        rowStarted = true;
+    }
+
+    private void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY", sql, e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.library.management.seed;
+
+import com.library.management.entity.Book;
+import com.library.management.entity.BookCopy;
+import com.library.management.entity.Borrower;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.ShardRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Fills an empty branch with a synthetic, production-sized dataset for benchmarks and {@code EXPLAIN} work.
+ * The circulation history comes from {@link LoanSimulation}; books, borrowers, copies and loans are then
+ * streamed with {@code COPY ... FROM STDIN} in a single transaction, in foreign key order. All values are
+ * derived from {@code library.seed.seed} and the as-of date, and ids are reserved from the table sequences
+ * (keeping the shard interleaving), so on a fresh database two runs produce identical rows.
+ * <p>
+ * Only active with the {@code seed} profile, which {@link SeedApplication} starts without the web server.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+@RequiredArgsConstructor
+public class DatasetSeeder implements CommandLineRunner {
+
+    private static final int DAYS_BEFORE_HISTORY = 3 * 365;
+    private static final int[] CONDITION_WEIGHTS = {10, 60, 25, 5};
+
+    private final SeedProperties properties;
+    private final ShardRegistry shardRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private record IdRange(long first, long step) {
+        long id(long index) {
+            return first + index * step;
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        validate();
+        String branch = properties.getBranch() != null ? properties.getBranch() : shardRegistry.defaultBranch();
+        if (!shardRegistry.isKnownBranch(branch)) {
+            throw new IllegalStateException("Unknown branch to seed: " + branch);
+        }
+        LocalDate asOf = properties.getAsOf() != null ? properties.getAsOf() : LocalDate.now();
+
+        long started = System.nanoTime();
+        BranchContext.run(branch, () -> {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> seed(branch, asOf));
+            jdbcTemplate.execute("ANALYZE books, borrowers, book_copies, borrow_records");
+        });
+        log.info("Seeded branch {} (seed {}, as of {}) in {} s", branch, properties.getSeed(), asOf,
+                (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void seed(String branch, LocalDate asOf) {
+        Boolean populated = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM books WHERE branch = ?) OR EXISTS (SELECT 1 FROM borrowers WHERE branch = ?)",
+                Boolean.class, branch, branch);
+        if (Boolean.TRUE.equals(populated)) {
+            throw new IllegalStateException("Branch " + branch + " already has books or borrowers, seed an empty branch");
+        }
+
+        SplittableRandom root = new SplittableRandom(properties.getSeed());
+        long simulationSeed = root.nextLong();
+        long catalogSeed = root.nextLong();
+        long copySeed = root.nextLong();
+        long borrowerSeed = root.nextLong();
+
+        LoanSimulation simulation = new LoanSimulation(properties, asOf, simulationSeed);
+        int loans = simulation.run(null);
+        int[] copyOffsets = new int[properties.getBooks() + 1];
+        for (int book = 0; book < properties.getBooks(); book++) {
+            copyOffsets[book + 1] = copyOffsets[book] + simulation.copies(book);
+        }
+        log.info("Simulated {} loans over {} copies of {} books since {}", loans,
+                copyOffsets[properties.getBooks()], properties.getBooks(), simulation.firstDay());
+
+        IdRange bookIds = reserveIds("books", properties.getBooks());
+        IdRange borrowerIds = reserveIds("borrowers", properties.getBorrowers());
+        IdRange copyIds = reserveIds("book_copies", copyOffsets[properties.getBooks()]);
+        IdRange loanIds = reserveIds("borrow_records", loans);
+
+        for (YearMonth month = YearMonth.from(simulation.firstDay()); !month.isAfter(YearMonth.from(asOf));
+             month = month.plusMonths(1)) {
+            jdbcTemplate.queryForList("SELECT ensure_borrow_records_partition(?)", Date.valueOf(month.atDay(1)));
+        }
+
+        LocalDate historyStart = simulation.firstDay();
+        copy("books", "id, branch, title, author, isbn, category, total_copies, available_copies, publisher, "
+                + "publish_year, description, status, created_at, updated_at", csv -> {
+            SplittableRandom random = new SplittableRandom(catalogSeed);
+            for (int book = 0; book < properties.getBooks(); book++) {
+                String author = SyntheticText.firstName(random) + " " + SyntheticText.lastName(random);
+                double age = random.nextDouble();
+                int available = simulation.circulatingCopies(book) - simulation.openLoans(book);
+                csv.value(bookIds.id(book))
+                        .text(branch)
+                        .text(SyntheticText.title(random))
+                        .text(author)
+                        .text(SyntheticText.isbn(book + 1))
+                        .text(SyntheticText.category(random))
+                        .value(simulation.copies(book))
+                        .value(available)
+                        .text(SyntheticText.publisher(random))
+                        // Skewed towards recent editions
+                        .value(asOf.getYear() - (int) (80 * age * age))
+                        .value(null)
+                        .value(available > 0 ? Book.BookStatus.AVAILABLE : Book.BookStatus.OUT_OF_STOCK)
+                        .value(historyStart.minusDays(random.nextInt(DAYS_BEFORE_HISTORY)).atTime(9, 0))
+                        .value(null)
+                        .endRow();
+            }
+        });
+
+        copy("borrowers", "id, branch, name, email, phone, membership_id, membership_type, is_active, "
+                + "created_at, updated_at", csv -> {
+            SplittableRandom random = new SplittableRandom(borrowerSeed);
+            for (int borrower = 0; borrower < properties.getBorrowers(); borrower++) {
+                String firstName = SyntheticText.firstName(random);
+                String lastName = SyntheticText.lastName(random);
+                double membership = random.nextDouble();
+                Borrower.MembershipType type = membership < properties.getPremiumRatio() ? Borrower.MembershipType.PREMIUM
+                        : membership < properties.getPremiumRatio() + properties.getStudentRatio()
+                        ? Borrower.MembershipType.STUDENT : Borrower.MembershipType.REGULAR;
+                csv.value(borrowerIds.id(borrower))
+                        .text(branch)
+                        .text(firstName + " " + lastName)
+                        .text((firstName + "." + lastName).toLowerCase() + "." + (borrower + 1) + "@example.org")
+                        .text((2 + random.nextInt(8)) + String.format("%09d", random.nextInt(1_000_000_000)))
+                        // Not hexadecimal, so never equal to a generated MEM-xxxxxxxx id
+                        .text(String.format("MEM-S%07d", borrower + 1))
+                        .value(type)
+                        .value(random.nextDouble() >= properties.getInactiveRatio())
+                        .value(historyStart.minusDays(random.nextInt(DAYS_BEFORE_HISTORY)).atTime(10, 0))
+                        .value(null)
+                        .endRow();
+            }
+        });
+
+        copy("book_copies", "id, book_id, barcode, copy_condition, location, status, created_at, updated_at", csv -> {
+            SplittableRandom random = new SplittableRandom(copySeed);
+            LocalDateTime stocked = historyStart.atStartOfDay();
+            for (int book = 0; book < properties.getBooks(); book++) {
+                long bookId = bookIds.id(book);
+                for (int copy = 0; copy < simulation.copies(book); copy++) {
+                    BookCopy.CopyStatus status = copy < simulation.openLoans(book) ? BookCopy.CopyStatus.ON_LOAN
+                            : copy < simulation.circulatingCopies(book) ? BookCopy.CopyStatus.AVAILABLE
+                            : BookCopy.CopyStatus.LOST;
+                    csv.value(copyIds.id(copyOffsets[book] + copy))
+                            .value(bookId)
+                            .text(String.format("BK%08d-%03d", bookId, copy + 1))
+                            .value(condition(random))
+                            .text("Shelf " + (char) ('A' + random.nextInt(26)) + (1 + random.nextInt(40)))
+                            .value(status)
+                            .value(stocked)
+                            .value(null)
+                            .endRow();
+                }
+            }
+        });
+
+        copy("borrow_records", "id, branch, book_id, borrower_id, copy_id, borrow_date, due_date, return_date, "
+                + "status, fine_amount, created_at, updated_at", csv -> simulation.run(loan -> csv
+                .value(loanIds.id(loan.sequence))
+                .text(branch)
+                .value(bookIds.id(loan.book))
+                .value(borrowerIds.id(loan.borrower))
+                .value(copyIds.id(copyOffsets[loan.book] + loan.copy))
+                .value(loan.borrowDate)
+                .value(loan.dueDate)
+                .value(loan.returnDate)
+                .value(loan.status)
+                .value(loan.fine)
+                .value(loan.createdAt)
+                .value(loan.returnDate == null ? null : loan.returnDate.atTime(20, 0))
+                .endRow()));
+    }
+
+    private void copy(String table, String columns, Consumer<CsvCopy> rows) {
+        long started = System.nanoTime();
+        long loaded = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (CsvCopy csv = new CsvCopy(connection, table, columns)) {
+                rows.accept(csv);
+                return csv.finish();
+            }
+        });
+        log.info("Loaded {} rows into {} in {} ms", loaded, table, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Takes count ids off the table's sequence; with interleaved shards the sequence steps by the shard count
+    private IdRange reserveIds(String table, long count) {
+        String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        long step = jdbcTemplate.queryForObject("SELECT seqincrement FROM pg_sequence WHERE seqrelid = ?::regclass",
+                Long.class, sequence);
+        long first = jdbcTemplate.queryForObject("SELECT nextval(?::regclass)", Long.class, sequence);
+        if (count > 1) {
+            jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?)", Long.class, sequence, first + (count - 1) * step);
+        }
+        return new IdRange(first, step);
+    }
+
+    private static BookCopy.CopyCondition condition(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        BookCopy.CopyCondition[] conditions = BookCopy.CopyCondition.values();
+        for (int i = 0; i < conditions.length; i++) {
+            roll -= CONDITION_WEIGHTS[i];
+            if (roll < 0) {
+                return conditions[i];
+            }
+        }
+        return BookCopy.CopyCondition.GOOD;
+    }
+
+    private void validate() {
+        if (properties.getBooks() < 1 || properties.getBorrowers() < 1 || properties.getLoans() < 0) {
+            throw new IllegalStateException("library.seed needs at least one book and one borrower");
+        }
+        if (properties.getYears() < 1 || properties.getMaxDaysLate() < 1) {
+            throw new IllegalStateException("library.seed.years and max-days-late must be positive");
+        }
+    }
+}
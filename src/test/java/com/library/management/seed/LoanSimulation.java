@@ -0,0 +1,227 @@
+package com.library.management.seed;
+
+import com.library.management.entity.BorrowRecord;
+import com.library.management.service.BorrowService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Replays the circulation history of one branch. Loans per day grow over the period and follow a weekly
+ * pattern; titles are picked by Zipfian popularity and borrowers with a milder skew, each through a fixed
+ * permutation so that popularity does not follow the id order. A loan still out on the as-of date holds one
+ * of its title's circulating copies; when none is left, or the borrower already has the maximum number of
+ * open loans, the loan is not made. Lost copies are replaced, so they add to a title's copies rather than
+ * taking circulating ones away.
+ * <p>
+ * Every run draws the same numbers: a first run sizes the copies and the id ranges, a second one writes
+ * exactly the same loans.
+ */
+final class LoanSimulation {
+
+    private static final int[] LOAN_DAYS = {7, 14, 14, 14, 21, 28};
+    // Monday to Sunday
+    private static final double[] WEEKDAY_FACTORS = {1.0, 0.95, 1.0, 1.05, 1.1, 1.4, 0.6};
+    // Loans on the last day are this much above the first day's
+    private static final double GROWTH = 0.5;
+    private static final int OPENING_HOUR = 9;
+    private static final int OPENING_MINUTES = 11 * 60;
+    private static final int AVERAGE_DAYS_OUT = 14;
+    private static final int MAX_EXTRA_COPIES = 30;
+
+    static final class Loan {
+        int sequence;
+        int book;
+        int borrower;
+        // Index among the book's copies
+        int copy;
+        LocalDate borrowDate;
+        LocalDate dueDate;
+        LocalDate returnDate;
+        BorrowRecord.BorrowStatus status;
+        double fine;
+        LocalDateTime createdAt;
+    }
+
+    private final LocalDate asOf;
+    private final LocalDate firstDay;
+    private final int books;
+    private final int borrowers;
+    private final double lostRatio;
+    private final double overdueRatio;
+    private final int maxDaysLate;
+    private final long loanSeed;
+    private final ZipfSampler bookPopularity;
+    private final ZipfSampler borrowerActivity;
+    private final long bookMultiplier;
+    private final long bookOffset;
+    private final long borrowerMultiplier;
+    private final long borrowerOffset;
+    private final int[] loansPerDay;
+    private final int[] baseCopies;
+    private final int[] openLoans;
+    private final int[] lostCopies;
+
+    LoanSimulation(SeedProperties properties, LocalDate asOf, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.asOf = asOf;
+        this.firstDay = asOf.minusYears(properties.getYears());
+        this.books = properties.getBooks();
+        this.borrowers = properties.getBorrowers();
+        this.lostRatio = properties.getLostRatio();
+        this.overdueRatio = properties.getOverdueRatio();
+        this.maxDaysLate = properties.getMaxDaysLate();
+        this.loanSeed = random.nextLong();
+        this.bookPopularity = new ZipfSampler(books, properties.getTitleSkew());
+        this.borrowerActivity = new ZipfSampler(borrowers, properties.getBorrowerSkew());
+        this.bookMultiplier = coprimeMultiplier(books, random);
+        this.bookOffset = random.nextInt(books);
+        this.borrowerMultiplier = coprimeMultiplier(borrowers, random);
+        this.borrowerOffset = random.nextInt(borrowers);
+        this.loansPerDay = spreadOverDays(properties.getLoans());
+        this.baseCopies = new int[books];
+        this.openLoans = new int[books];
+        this.lostCopies = new int[books];
+
+        // Stock follows demand: roughly as many circulating copies as the title is expected to have out
+        double[] probabilities = bookPopularity.probabilities();
+        double averageLoansPerDay = (double) properties.getLoans() / loansPerDay.length;
+        for (int rank = 1; rank <= books; rank++) {
+            double expectedOut = averageLoansPerDay * probabilities[rank - 1] * AVERAGE_DAYS_OUT;
+            baseCopies[bookAt(rank)] = 1 + random.nextInt(3) + (int) Math.min(MAX_EXTRA_COPIES, Math.round(expectedOut));
+        }
+    }
+
+    /**
+     * Generates every loan in borrow date order, passing each to {@code sink} (which may be null) and
+     * returns how many were made. The {@link Loan} instance is reused between calls.
+     */
+    int run(Consumer<Loan> sink) {
+        SplittableRandom random = new SplittableRandom(loanSeed);
+        Arrays.fill(openLoans, 0);
+        Arrays.fill(lostCopies, 0);
+        byte[] borrowerOpenLoans = new byte[borrowers];
+        Loan loan = new Loan();
+        int made = 0;
+
+        for (int day = 0; day < loansPerDay.length; day++) {
+            LocalDate borrowDate = firstDay.plusDays(day);
+            for (int i = 0; i < loansPerDay[day]; i++) {
+                int book = bookAt(bookPopularity.sample(random));
+                int borrower = borrowerAt(borrowerActivity.sample(random));
+                int loanDays = LOAN_DAYS[random.nextInt(LOAN_DAYS.length)];
+                LocalDate dueDate = borrowDate.plusDays(loanDays);
+                double roll = random.nextDouble();
+                LocalDate endDate = roll < lostRatio + overdueRatio
+                        ? dueDate.plusDays(1 + random.nextInt(maxDaysLate))
+                        : borrowDate.plusDays(random.nextInt(loanDays + 1));
+                int shelvedCopy = random.nextInt(baseCopies[book]);
+                int minute = random.nextInt(OPENING_MINUTES);
+
+                // Everything is drawn before deciding, so skipped loans do not shift the rest of the run
+                if (endDate.isAfter(asOf)) {
+                    if (openLoans[book] == baseCopies[book] || borrowerOpenLoans[borrower] == BorrowService.MAX_BOOKS_PER_BORROWER) {
+                        continue;
+                    }
+                    loan.status = BorrowRecord.BorrowStatus.BORROWED;
+                    loan.copy = openLoans[book]++;
+                    loan.returnDate = null;
+                    loan.fine = 0.0;
+                    borrowerOpenLoans[borrower]++;
+                } else if (roll < lostRatio) {
+                    loan.status = BorrowRecord.BorrowStatus.LOST;
+                    loan.copy = baseCopies[book] + lostCopies[book]++;
+                    loan.returnDate = endDate;
+                    loan.fine = BorrowService.LOST_FINE;
+                } else {
+                    loan.status = BorrowRecord.BorrowStatus.RETURNED;
+                    loan.copy = shelvedCopy;
+                    loan.returnDate = endDate;
+                    loan.fine = Math.max(0, ChronoUnit.DAYS.between(dueDate, endDate)) * BorrowService.FINE_PER_DAY;
+                }
+
+                loan.sequence = made++;
+                loan.book = book;
+                loan.borrower = borrower;
+                loan.borrowDate = borrowDate;
+                loan.dueDate = dueDate;
+                loan.createdAt = borrowDate.atTime(OPENING_HOUR, 0).plusMinutes(minute);
+                if (sink != null) {
+                    sink.accept(loan);
+                }
+            }
+        }
+        return made;
+    }
+
+    LocalDate firstDay() {
+        return firstDay;
+    }
+
+    // Copies in circulation, out on loan or on the shelf
+    int circulatingCopies(int book) {
+        return baseCopies[book];
+    }
+
+    // Circulating copies still out on the as-of date, after the last run
+    int openLoans(int book) {
+        return openLoans[book];
+    }
+
+    // Circulating plus lost copies, after the last run
+    int copies(int book) {
+        return baseCopies[book] + lostCopies[book];
+    }
+
+    private int bookAt(int rank) {
+        return (int) (((rank - 1) * bookMultiplier + bookOffset) % books);
+    }
+
+    private int borrowerAt(int rank) {
+        return (int) (((rank - 1) * borrowerMultiplier + borrowerOffset) % borrowers);
+    }
+
+    private int[] spreadOverDays(int loans) {
+        int days = (int) ChronoUnit.DAYS.between(firstDay, asOf) + 1;
+        double[] weights = new double[days];
+        double total = 0;
+        for (int day = 0; day < days; day++) {
+            int weekday = firstDay.plusDays(day).getDayOfWeek().getValue() - 1;
+            weights[day] = (1 + GROWTH * day / days) * WEEKDAY_FACTORS[weekday];
+            total += weights[day];
+        }
+
+        int[] perDay = new int[days];
+        double cumulative = 0;
+        long assigned = 0;
+        for (int day = 0; day < days; day++) {
+            cumulative += weights[day];
+            long target = Math.round(loans * cumulative / total);
+            perDay[day] = (int) (target - assigned);
+            assigned = target;
+        }
+        return perDay;
+    }
+
+    // x -> (x * multiplier + offset) mod n is a permutation when the multiplier is coprime to n
+    private static long coprimeMultiplier(int n, SplittableRandom random) {
+        long multiplier = 1 + random.nextInt(n);
+        while (gcd(multiplier, n) != 1) {
+            multiplier++;
+        }
+        return multiplier;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
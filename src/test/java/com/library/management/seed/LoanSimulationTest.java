@@ -0,0 +1,103 @@
+package com.library.management.seed;
+
+import com.library.management.entity.BorrowRecord;
+import com.library.management.service.BorrowService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoanSimulationTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void zipfSamplerIsDeterministicAndStaysInRange() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.0);
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+        int[] counts = new int[1_001];
+        for (int i = 0; i < 100_000; i++) {
+            int rank = sampler.sample(first);
+            assertThat(rank).isBetween(1, 1_000).isEqualTo(sampler.sample(second));
+            counts[rank]++;
+        }
+
+        double[] probabilities = sampler.probabilities();
+        assertThat(Arrays.stream(probabilities).sum()).isCloseTo(1.0, within(1e-9));
+        for (int rank = 1; rank < probabilities.length; rank++) {
+            assertThat(probabilities[rank]).isLessThan(probabilities[rank - 1]);
+        }
+        assertThat(counts[1] / 100_000.0).isCloseTo(probabilities[0], within(0.01));
+    }
+
+    @Test
+    void sameSeedReplaysTheSameLoans() {
+        List<String> first = loans(new LoanSimulation(properties(), AS_OF, 42));
+        LoanSimulation simulation = new LoanSimulation(properties(), AS_OF, 42);
+
+        assertThat(first).isNotEmpty();
+        assertThat(loans(simulation)).isEqualTo(first);
+        // The seeder runs the same instance twice: once to size copies and ids, once to write
+        assertThat(loans(simulation)).isEqualTo(first);
+        assertThat(loans(new LoanSimulation(properties(), AS_OF, 43))).isNotEqualTo(first);
+    }
+
+    @Test
+    void loansFollowTheBorrowingLimitAndFines() {
+        SeedProperties properties = properties();
+        LoanSimulation simulation = new LoanSimulation(properties, AS_OF, 42);
+        int[] openPerBorrower = new int[properties.getBorrowers()];
+        int[] openPerBook = new int[properties.getBooks()];
+        List<BorrowRecord.BorrowStatus> statuses = new ArrayList<>();
+
+        int made = simulation.run(loan -> {
+            statuses.add(loan.status);
+            assertThat(loan.borrowDate).isBetween(simulation.firstDay(), AS_OF);
+            switch (loan.status) {
+                case BORROWED -> {
+                    openPerBorrower[loan.borrower]++;
+                    openPerBook[loan.book]++;
+                    assertThat(loan.copy).isLessThan(simulation.circulatingCopies(loan.book));
+                }
+                case LOST -> assertThat(loan.fine).isEqualTo(BorrowService.LOST_FINE);
+                default -> assertThat(loan.fine).isEqualTo(
+                        Math.max(0, ChronoUnit.DAYS.between(loan.dueDate, loan.returnDate)) * BorrowService.FINE_PER_DAY);
+            }
+        });
+
+        assertThat(made).isEqualTo(statuses.size());
+        assertThat(statuses).contains(BorrowRecord.BorrowStatus.BORROWED, BorrowRecord.BorrowStatus.RETURNED,
+                BorrowRecord.BorrowStatus.LOST);
+        assertThat(Arrays.stream(openPerBorrower).max().orElse(0)).isLessThanOrEqualTo(BorrowService.MAX_BOOKS_PER_BORROWER);
+        for (int book = 0; book < openPerBook.length; book++) {
+            assertThat(openPerBook[book]).isEqualTo(simulation.openLoans(book))
+                    .isLessThanOrEqualTo(simulation.circulatingCopies(book));
+        }
+    }
+
+    private static List<String> loans(LoanSimulation simulation) {
+        List<String> loans = new ArrayList<>();
+        simulation.run(loan -> loans.add(loan.sequence + " " + loan.book + " " + loan.borrower + " " + loan.copy + " "
+                + loan.borrowDate + " " + loan.dueDate + " " + loan.returnDate + " " + loan.status + " " + loan.fine
+                + " " + loan.createdAt));
+        return loans;
+    }
+
+    private static SeedProperties properties() {
+        SeedProperties properties = new SeedProperties();
+        properties.setBooks(200);
+        properties.setBorrowers(500);
+        properties.setLoans(20_000);
+        properties.setYears(1);
+        properties.setLostRatio(0.01);
+        return properties;
+    }
+}
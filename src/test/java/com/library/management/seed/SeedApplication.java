@@ -0,0 +1,27 @@
+package com.library.management.seed;
+
+import com.library.management.LibraryManagementApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Loads the synthetic dataset: starts the application with the {@code seed} profile and no web server, lets
+ * {@link DatasetSeeder} run, then shuts down. Arguments are Spring properties, e.g.
+ * {@code --library.seed.books=1000000}. Run with {@code mvn -Pseed test-compile exec:exec}.
+ */
+public final class SeedApplication {
+
+    private SeedApplication() {
+    }
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .profiles("seed")
+                .web(WebApplicationType.NONE)
+                .run(args);
+        // The scheduled jobs would otherwise keep the JVM running
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.management.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Component
+@Profile("seed")
+@ConfigurationProperties(prefix = "library.seed")
+public class SeedProperties {
+
+    // Same seed and as-of date, same rows
+    private long seed = 42;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate asOf;
+
+    // Branch to fill, the default branch when unset; it must not have books or borrowers yet
+    private String branch;
+
+    private int books = 100_000;
+    private int borrowers = 250_000;
+    private int loans = 2_000_000;
+    private int years = 3;
+
+    // Zipf exponents of title popularity and borrower activity
+    private double titleSkew = 1.0;
+    private double borrowerSkew = 0.6;
+
+    private double premiumRatio = 0.10;
+    private double studentRatio = 0.25;
+    private double inactiveRatio = 0.05;
+
+    // Share of loans returned after the due date (up to max-days-late) and of loans that end up lost
+    private double overdueRatio = 0.08;
+    private int maxDaysLate = 60;
+    private double lostRatio = 0.004;
+}
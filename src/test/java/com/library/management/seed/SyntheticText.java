@@ -0,0 +1,92 @@
+package com.library.management.seed;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Word lists for plausible titles, names and catalog attributes
+final class SyntheticText {
+
+    private static final String[] ADJECTIVES = {
+            "Silent", "Hidden", "Broken", "Golden", "Last", "Lost", "Forgotten", "Crimson", "Endless", "Quiet",
+            "Distant", "Burning", "Frozen", "Secret", "Wild", "Hollow", "Bright", "Dark", "Little", "Long",
+            "Northern", "Ancient", "Restless", "Painted", "Iron", "Glass", "Summer", "Winter", "Second", "Final"};
+    private static final String[] NOUNS = {
+            "River", "Garden", "House", "Kingdom", "Shadow", "Letter", "Island", "Storm", "Mountain", "City",
+            "Road", "Station", "Empire", "Harbor", "Forest", "Promise", "Machine", "Window", "Lighthouse", "Orchard",
+            "Engine", "Voyage", "Archive", "Crown", "Bridge", "Signal", "Winter", "Country", "Daughter", "Stranger"};
+    private static final String[] PLACES = {
+            "Paris", "the North", "Venice", "the Desert", "Kyoto", "the Valley", "Lisbon", "the Sea", "Cairo",
+            "the Hills", "Prague", "the Dark", "Havana", "the Woods", "Madras", "the Provinces"};
+    private static final String[] SUBJECTS = {
+            "Algorithms", "Economics", "Gardening", "Astronomy", "Statistics", "Philosophy", "Cooking", "Chemistry",
+            "Architecture", "Photography", "Databases", "Leadership", "Music Theory", "Geology", "Networking"};
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Priya", "Wei", "Ahmed", "Sofia", "Lucas", "Amara", "Kenji", "Elena", "Noah", "Fatima",
+            "Mateo", "Aisha", "Oliver", "Mei", "Arjun", "Chloe", "Ivan", "Zara", "Samuel", "Hana", "Diego", "Leila",
+            "Thomas", "Nadia", "Ravi", "Grace", "Omar", "Ingrid", "Kwame", "Yuki", "Daniel", "Lucia", "Hassan", "Anna"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Kumar", "Chen", "Garcia", "Okafor", "Mueller", "Rossi", "Tanaka", "Silva", "Nowak", "Haddad",
+            "Johnson", "Patel", "Kim", "Ivanova", "Mensah", "Larsen", "Dubois", "Nakamura", "Lopez", "Brown",
+            "Singh", "Wang", "Novak", "Costa", "Ali", "Murphy", "Sato", "Fischer", "Reyes", "Walker", "Rahman"};
+    private static final String[] PUBLISHERS = {
+            "Penguin Random House", "HarperCollins", "Simon & Schuster", "Macmillan", "Hachette", "Scholastic",
+            "O'Reilly Media", "Oxford University Press", "Cambridge University Press", "Bloomsbury", "Faber & Faber",
+            "Wiley", "Springer", "Vintage", "Tor Books"};
+    private static final String[] CATEGORIES = {
+            "Fiction", "Mystery", "Science Fiction", "Fantasy", "Romance", "History", "Biography", "Science",
+            "Children", "Technology", "Poetry", "Self-Help"};
+    // Relative share of the catalog per category, same order as CATEGORIES
+    private static final int[] CATEGORY_WEIGHTS = {24, 10, 8, 8, 8, 8, 6, 6, 9, 6, 2, 5};
+    private static final int CATEGORY_WEIGHT_TOTAL = Arrays.stream(CATEGORY_WEIGHTS).sum();
+
+    private SyntheticText() {
+    }
+
+    static String title(SplittableRandom random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> "The " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS);
+            case 1 -> "The " + pick(random, NOUNS) + " of " + pick(random, NOUNS) + "s";
+            case 2 -> "A " + pick(random, NOUNS) + " in " + pick(random, PLACES);
+            case 3 -> pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + "s";
+            case 4 -> "Introduction to " + pick(random, SUBJECTS);
+            default -> "The " + pick(random, NOUNS) + " of " + pick(random, PLACES);
+        };
+    }
+
+    static String firstName(SplittableRandom random) {
+        return pick(random, FIRST_NAMES);
+    }
+
+    static String lastName(SplittableRandom random) {
+        return pick(random, LAST_NAMES);
+    }
+
+    static String publisher(SplittableRandom random) {
+        return pick(random, PUBLISHERS);
+    }
+
+    static String category(SplittableRandom random) {
+        int roll = random.nextInt(CATEGORY_WEIGHT_TOTAL);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            roll -= CATEGORY_WEIGHTS[i];
+            if (roll < 0) {
+                return CATEGORIES[i];
+            }
+        }
+        return CATEGORIES[0];
+    }
+
+    // 13 digits with a valid check digit, unique per catalog position
+    static String isbn(long sequence) {
+        String digits = "979" + String.format("%09d", sequence);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.management.seed;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks 1..n with probability proportional to rank^-exponent in constant time, using
+ * rejection-inversion (Hoermann and Derflinger, "Rejection-inversion to generate variates from monotone
+ * discrete distributions", 1996). Rank 1 is the most frequent.
+ */
+final class ZipfSampler {
+
+    private final int elements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralElements;
+    private final double threshold;
+
+    ZipfSampler(int elements, double exponent) {
+        if (elements < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Zipf needs at least one element and a positive exponent");
+        }
+        this.elements = elements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralElements = hIntegral(elements + 0.5);
+        this.threshold = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    int sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralElements + random.nextDouble() * (hIntegralX1 - hIntegralElements);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > elements) {
+                k = elements;
+            }
+            if (k - x <= threshold || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    // Probability of each rank, for sizing stock to the expected demand
+    double[] probabilities() {
+        double[] weights = new double[elements];
+        double total = 0;
+        for (int rank = 1; rank <= elements; rank++) {
+            weights[rank - 1] = h(rank);
+            total += weights[rank - 1];
+        }
+        for (int i = 0; i < elements; i++) {
+            weights[i] /= total;
+        }
+        return weights;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    // log(1 + x) / x and (e^x - 1) / x, with series expansions where they would lose precision near 0
+    private static double log1pOverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    private static double expm1OverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
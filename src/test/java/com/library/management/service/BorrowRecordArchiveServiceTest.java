@@ -0,0 +1,133 @@
+package com.library.management.service;
+
+import com.library.management.sharding.BranchRouter;
+import com.library.management.support.MigratedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BorrowRecordArchiveServiceTest {
+
+    // Far enough back that only this test's loans (in the default partition) are old enough to archive
+    private static final LocalDate CUTOFF = LocalDate.of(2002, 1, 1);
+    private static final LocalDate BORROWED = LocalDate.of(2001, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private String branch;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = MigratedPostgres.jdbcTemplate();
+        branch = "branch-" + UUID.randomUUID();
+    }
+
+    @Test
+    void closedLoansMoveToArchiveFilesAndOpenOnesStay() throws IOException {
+        List<Long> closed = List.of(insertLoan("RETURNED"), insertLoan("LOST"), insertLoan("RETURNED"));
+        long open = insertLoan("BORROWED");
+
+        newService(new DataSourceTransactionManager(MigratedPostgres.dataSource())).archiveClosedRecords();
+
+        assertThat(loansOfBranch()).containsExactly(open);
+        assertThat(archivedIds()).containsAll(closed).doesNotContain(open);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).allMatch(file -> file.getFileName().toString().endsWith(".csv.gz"));
+        }
+    }
+
+    @Test
+    void failedCommitKeepsTheRowsAndRemovesTheirFile() throws IOException {
+        insertLoan("RETURNED");
+        insertLoan("LOST");
+        DataSourceTransactionManager failingCommit = new DataSourceTransactionManager(MigratedPostgres.dataSource()) {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                throw new IllegalStateException("connection lost at commit");
+            }
+        };
+
+        newService(failingCommit).archiveClosedRecords();
+
+        assertThat(loansOfBranch()).hasSize(2);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BorrowRecordArchiveService newService(DataSourceTransactionManager transactionManager) {
+        BranchRouter branchRouter = mock(BranchRouter.class);
+        doAnswer(invocation -> {
+            ((Consumer<String>) invocation.getArgument(0)).accept("main");
+            return null;
+        }).when(branchRouter).forEachShard(any());
+        BorrowRecordArchiveService service = new BorrowRecordArchiveService(jdbcTemplate, branchRouter,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "retentionDays", (int) ChronoUnit.DAYS.between(CUTOFF, LocalDate.now()));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "archiveDirectory", directory.toString());
+        return service;
+    }
+
+    private long insertLoan(String status) {
+        long book = jdbcTemplate.queryForObject("INSERT INTO books (title, author, isbn, category, total_copies, "
+                + "available_copies, status, created_at, branch) "
+                + "VALUES ('Dune', 'Frank Herbert', ?, 'Fiction', 1, 1, 'AVAILABLE', now(), ?) RETURNING id",
+                Long.class, UUID.randomUUID().toString(), branch);
+        long borrower = jdbcTemplate.queryForObject("INSERT INTO borrowers (name, email, phone, membership_id, "
+                + "membership_type, is_active, created_at, branch) "
+                + "VALUES ('Ada Reader', ?, '555-0100', ?, 'REGULAR', true, now(), ?) RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.org", UUID.randomUUID().toString(), branch);
+        return jdbcTemplate.queryForObject("INSERT INTO borrow_records (book_id, borrower_id, borrow_date, due_date, "
+                + "return_date, status, fine_amount, created_at, branch) VALUES (?, ?, ?, ?, ?, ?, 0, now(), ?) "
+                + "RETURNING id", Long.class, book, borrower, Date.valueOf(BORROWED), Date.valueOf(BORROWED.plusDays(14)),
+                "BORROWED".equals(status) ? null : Date.valueOf(BORROWED.plusDays(7)), status, branch);
+    }
+
+    private List<Long> loansOfBranch() {
+        return jdbcTemplate.queryForList("SELECT id FROM borrow_records WHERE branch = ? ORDER BY id", Long.class, branch);
+    }
+
+    private List<Long> archivedIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    // Skip the header; the id is the first column
+                    reader.lines().skip(1).forEach(line -> ids.add(Long.parseLong(line.substring(0, line.indexOf(',')))));
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.support.MigratedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyService service;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = MigratedPostgres.jdbcTemplate();
+        service = newService();
+    }
+
+    @Test
+    void sameKeyAtTwoBranchesOnOneShardRunsForEach() {
+        String key = UUID.randomUUID().toString();
+
+        ResponseEntity<String> north = BranchContext.call("north", () -> borrow(key, "north-loan"));
+        ResponseEntity<String> south = BranchContext.call("south", () -> borrow(key, "south-loan"));
+
+        assertThat(executions).hasValue(2);
+        assertThat(north.getBody()).isEqualTo("north-loan");
+        assertThat(south.getBody()).isEqualTo("south-loan");
+        assertThat(south.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void retryAtTheSameBranchReplaysTheStoredResponse() {
+        String key = UUID.randomUUID().toString();
+        BranchContext.call("north", () -> borrow(key, "first"));
+
+        // A fresh instance has nothing cached, so the replay comes from the table
+        service = newService();
+        ResponseEntity<String> retried = BranchContext.call("north", () -> borrow(key, "second"));
+
+        assertThat(executions).hasValue(1);
+        assertThat(retried.getBody()).isEqualTo("first");
+        assertThat(retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void expiredRowIsClaimedAgainRatherThanReplayed() {
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO idempotency_keys (branch, idempotency_key, request_fingerprint, status_code, "
+                        + "response_body, expires_at) VALUES ('north', ?, 'stale', 201, '\"stale\"', ?)",
+                key, new Timestamp(System.currentTimeMillis() - 60_000));
+
+        ResponseEntity<String> response = BranchContext.call("north", () -> borrow(key, "fresh"));
+
+        assertThat(executions).hasValue(1);
+        assertThat(response.getBody()).isEqualTo("fresh");
+        assertThat(jdbcTemplate.queryForObject("SELECT response_body FROM idempotency_keys "
+                + "WHERE branch = 'north' AND idempotency_key = ?", String.class, key)).isEqualTo("\"fresh\"");
+    }
+
+    private ResponseEntity<String> borrow(String key, String result) {
+        return service.execute(key, "borrow", "request", HttpStatus.CREATED, String.class, () -> {
+            executions.incrementAndGet();
+            return result;
+        });
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(jdbcTemplate, mock(BranchRouter.class),
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()), new ObjectMapper(),
+                Duration.ofHours(1), 100);
+    }
+}
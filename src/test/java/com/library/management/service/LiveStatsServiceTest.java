@@ -0,0 +1,148 @@
+package com.library.management.service;
+
+import com.library.management.dto.LiveStatsDTO;
+import com.library.management.repository.BookCopyRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.repository.BorrowerRepository;
+import com.library.management.repository.DueDateCount;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveStatsServiceTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final BookCopyRepository bookCopyRepository = mock(BookCopyRepository.class);
+    private final BorrowerRepository borrowerRepository = mock(BorrowerRepository.class);
+    private final BorrowRecordRepository borrowRecordRepository = mock(BorrowRecordRepository.class);
+    private final BranchRouter branchRouter = mock(BranchRouter.class);
+    private LiveStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        List<String> branches = List.of("north", "south");
+        when(branchRouter.branches()).thenReturn(branches);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            branches.forEach(branch -> BranchContext.run(branch, () -> action.accept(branch)));
+            return null;
+        }).when(branchRouter).forEachBranch(any());
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(borrowRecordRepository.countOpenLoansByDueDate()).thenReturn(List.of(
+                new DueDateCount(yesterday, 2L), new DueDateCount(yesterday.plusDays(14), 3L)));
+        when(bookRepository.sumLiveTotalCopies()).thenReturn(10L);
+        when(bookCopyRepository.countAvailableInLiveBooks(anyString())).thenReturn(5L);
+        when(borrowerRepository.countByIsActiveAndRetiredAtIsNull(true)).thenReturn(4L);
+
+        service = new LiveStatsService(bookRepository, bookCopyRepository, borrowerRepository,
+                borrowRecordRepository, branchRouter, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void reconciledAtIsNullUntilEveryBranchWasCounted() {
+        assertThat(service.getLiveStats().getReconciledAt()).isNull();
+
+        BranchContext.run("north", service::recountAfterCommit);
+        service.recountStale();
+
+        assertThat(service.getLiveStats().getReconciledAt()).isNull();
+        assertThat(BranchContext.call("north", service::getLiveStats).getReconciledAt()).isNotNull();
+        assertThat(BranchContext.call("south", service::getLiveStats).getReconciledAt()).isNull();
+    }
+
+    @Test
+    void reconciledAtIsTheOldestBranchReconciliation() {
+        service.initialCount();
+        LiveStatsDTO all = service.getLiveStats();
+        LiveStatsDTO north = BranchContext.call("north", service::getLiveStats);
+        LiveStatsDTO south = BranchContext.call("south", service::getLiveStats);
+
+        assertThat(all.getReconciledAt()).isNotNull()
+                .isEqualTo(north.getReconciledAt().isBefore(south.getReconciledAt())
+                        ? north.getReconciledAt() : south.getReconciledAt());
+        assertThat(all.getActiveLoans()).isEqualTo(10);
+        assertThat(all.getOverdueLoans()).isEqualTo(4);
+        assertThat(all.getTotalCopies()).isEqualTo(20);
+        assertThat(all.getAvailableCopies()).isEqualTo(10);
+        assertThat(all.getActiveBorrowers()).isEqualTo(8);
+    }
+
+    @Test
+    void deltasAreAppliedOnTopOfTheReconciledCounts() {
+        service.initialCount();
+
+        BranchContext.run("north", () -> {
+            service.loanOpened(LocalDate.now().plusDays(14));
+            service.availableCopiesChanged(-1);
+        });
+
+        LiveStatsDTO north = BranchContext.call("north", service::getLiveStats);
+        assertThat(north.getActiveLoans()).isEqualTo(6);
+        assertThat(north.getAvailableCopies()).isEqualTo(4);
+    }
+
+    @Test
+    void loanAppliedDuringTheRecountIsCountedOnce() {
+        service.initialCount();
+        LocalDate dueDate = LocalDate.now().plusDays(14);
+        // The loan commits and its delta is applied while the first recount reads the database
+        AtomicInteger recounts = new AtomicInteger();
+        when(borrowRecordRepository.countOpenLoansByDueDate()).thenAnswer(invocation -> {
+            if (recounts.getAndIncrement() == 0) {
+                service.loanOpened(dueDate);
+            }
+            return List.of(new DueDateCount(LocalDate.now().minusDays(1), 2L), new DueDateCount(dueDate, 4L));
+        });
+
+        BranchContext.run("north", () -> {
+            service.recountAfterCommit();
+            service.recountStale();
+        });
+
+        assertThat(BranchContext.call("north", service::getLiveStats).getActiveLoans()).isEqualTo(6);
+    }
+
+    @Test
+    void loanCommittingAcrossTheRecountIsCountedOnce() {
+        service.initialCount();
+        LocalDate dueDate = LocalDate.now().plusDays(14);
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            BranchContext.run("north", () -> service.loanOpened(dueDate));
+            synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        // The rows are committed and visible to the recount, the delta is not applied yet
+        when(borrowRecordRepository.countOpenLoansByDueDate()).thenReturn(List.of(
+                new DueDateCount(LocalDate.now().minusDays(1), 2L), new DueDateCount(dueDate, 4L)));
+
+        service.reconcile();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(BranchContext.call("north", service::getLiveStats).getActiveLoans()).isEqualTo(6);
+        assertThat(BranchContext.call("south", service::getLiveStats).getActiveLoans()).isEqualTo(6);
+    }
+}
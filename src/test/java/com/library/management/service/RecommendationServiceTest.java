@@ -0,0 +1,47 @@
+package com.library.management.service;
+
+import com.library.management.dto.RelatedBookDTO;
+import com.library.management.event.BookBorrowedEvent;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTest {
+
+    @Test
+    void committedCheckoutReadsItsOwnBoundedHistoryOnTheBorrowersBranch() {
+        BorrowRecordRepository repository = mock(BorrowRecordRepository.class);
+        AtomicReference<String> queriedBranch = new AtomicReference<>();
+        when(repository.findRecentBookIdsBefore(eq(7L), any(LocalDate.class), eq(100L), any()))
+                .thenAnswer(invocation -> {
+                    queriedBranch.set(BranchContext.current());
+                    return List.of(11L, 12L, 11L);
+                });
+        RecommendationService service = new RecommendationService(repository, mock(BranchRouter.class),
+                mock(PlatformTransactionManager.class), 20, 50, 365, 1_000);
+        service.bootstrap();
+
+        service.onBookBorrowed(new BookBorrowedEvent("north", 100L, 10L, 7L));
+
+        verify(repository).findRecentBookIdsBefore(eq(7L), any(LocalDate.class), eq(100L), eq(PageRequest.of(0, 50)));
+        assertThat(queriedBranch).hasValue("north");
+        assertThat(service.getRelatedBooks(10L, 10))
+                .extracting(RelatedBookDTO::getBookId, RelatedBookDTO::getCoBorrowCount)
+                .containsExactlyInAnyOrder(tuple(11L, 1), tuple(12L, 1));
+    }
+}
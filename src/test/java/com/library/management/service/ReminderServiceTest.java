@@ -0,0 +1,70 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.reminder.ReminderCheckpoint;
+import com.library.management.repository.BorrowRecordRepository;
+import com.library.management.repository.ReminderCandidate;
+import com.library.management.sharding.BranchContext;
+import com.library.management.sharding.BranchRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReminderServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loanThatCannotBeRenderedOnlyStopsItsOwnBranch() throws Exception {
+        // The north loan has no due date, so rendering it throws
+        Map<String, ReminderCandidate> candidates = Map.of(
+                "north", new ReminderCandidate(1L, null, "Dune", 10L, "Ada", "ada@example.com", null),
+                "south", new ReminderCandidate(2L, TODAY.plusDays(1), "Emma", 20L, "Grace", null, "555-0100"));
+        BorrowRecordRepository repository = mock(BorrowRecordRepository.class);
+        when(repository.findReminderCandidates(any(), any(), eq(0L), any()))
+                .thenAnswer(invocation -> List.of(candidates.get(BranchContext.current())));
+        when(repository.findReminderCandidates(any(), any(), eq(2L), any())).thenReturn(List.of());
+        BranchRouter branchRouter = mock(BranchRouter.class);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            for (String branch : List.of("north", "south")) {
+                BranchContext.run(branch, () -> action.accept(branch));
+            }
+            return null;
+        }).when(branchRouter).forEachBranch(any());
+
+        ReminderService service = new ReminderService(repository, branchRouter,
+                new ObjectMapper().findAndRegisterModules(), 2);
+        ReflectionTestUtils.setField(service, "dueSoonDays", 2);
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+        ReflectionTestUtils.setField(service, "spoolDirectory", directory.resolve("spool"));
+        ReflectionTestUtils.setField(service, "checkpointFile", directory.resolve("reminders.checkpoint"));
+        ReflectionTestUtils.setField(service, "messagesPerFile", 100);
+        try {
+            service.run(TODAY);
+        } finally {
+            service.shutdown();
+        }
+
+        assertThat(ReminderCheckpoint.read(directory.resolve("reminders.checkpoint.north"))).isNull();
+        ReminderCheckpoint south = ReminderCheckpoint.read(directory.resolve("reminders.checkpoint.south"));
+        assertThat(south.completed()).isTrue();
+        assertThat(south.written()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.service;
+
+import com.library.management.event.BookBorrowedEvent;
+import com.library.management.repository.BookRepository;
+import com.library.management.sharding.BranchRouter;
+import com.library.management.trending.BookTrend;
+import com.library.management.trending.TrendingCheckpoint;
+import com.library.management.trending.TrendingWindow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TrendingServiceTest {
+
+    private static final int BOOKS = 2_000;
+    private static final int WRITERS = 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkpointEvictionNeverLosesAConcurrentBorrow() throws Exception {
+        // Counters restored with nothing in any window are eviction candidates on the first checkpoint
+        Path checkpoint = directory.resolve("trending.bin");
+        Map<Long, BookTrend> idle = new HashMap<>();
+        for (long bookId = 1; bookId <= BOOKS; bookId++) {
+            idle.put(bookId, new BookTrend());
+        }
+        TrendingCheckpoint.write(checkpoint, idle);
+        TrendingService service = newService(checkpoint);
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<?> checkpoints = pool.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    service.checkpoint();
+                }
+                return null;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (long bookId = 1; bookId <= BOOKS; bookId++) {
+                        service.onBookBorrowed(new BookBorrowedEvent("main", bookId, bookId, 1L));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            checkpoints.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (long bookId = 1; bookId <= BOOKS; bookId++) {
+            assertThat(service.getBorrowCount(bookId, TrendingWindow.WEEK)).as("book %d", bookId).isEqualTo(WRITERS);
+        }
+    }
+
+    @Test
+    void checkpointDropsIdleCountersAndRestoresTheRest() throws Exception {
+        Path checkpoint = directory.resolve("trending.bin");
+        TrendingCheckpoint.write(checkpoint, Map.of(1L, new BookTrend()));
+        TrendingService service = newService(checkpoint);
+        service.onBookBorrowed(new BookBorrowedEvent("main", 10L, 2L, 1L));
+
+        service.checkpoint();
+
+        assertThat(TrendingCheckpoint.read(checkpoint)).containsOnlyKeys(2L);
+        TrendingService restored = newService(checkpoint);
+        assertThat(restored.getBorrowCount(2L, TrendingWindow.WEEK)).isEqualTo(1);
+    }
+
+    private static TrendingService newService(Path checkpoint) {
+        TrendingService service = new TrendingService(mock(BookRepository.class), mock(BranchRouter.class));
+        ReflectionTestUtils.setField(service, "checkpointFile", checkpoint);
+        service.restore();
+        return service;
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.management.sharding;
+
+import com.library.management.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BranchRouterTest {
+
+    private final ShardRegistry shardRegistry = mock(ShardRegistry.class);
+    private BranchRouter router;
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void requestForABranchStaysOnIt() {
+        router = newRouter(List.of("north", "south"), 2);
+
+        List<String> result = BranchContext.call("south", () -> router.gather(() -> List.of(BranchContext.current())));
+
+        assertThat(result).containsExactly("south");
+    }
+
+    @Test
+    void requestWithoutABranchIsScatteredAndMergedInBranchOrder() {
+        List<String> branches = List.of("east", "north", "south", "west");
+        router = newRouter(branches, 2);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> result = router.gather(() -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of(BranchContext.current() + "-1", BranchContext.current() + "-2");
+        });
+
+        assertThat(result).containsExactly("east-1", "east-2", "north-1", "north-2",
+                "south-1", "south-2", "west-1", "west-2");
+        assertThat(threads).hasSize(4).allMatch(name -> name.startsWith("branch-scatter-"));
+        assertThat(BranchContext.current()).isNull();
+    }
+
+    @Test
+    void saturatedPoolShedsTheRequestInsteadOfRunningPartsOnTheCaller() {
+        // One thread and a queue of four: the sixth part cannot be placed
+        List<String> branches = IntStream.rangeClosed(1, 8).mapToObj(i -> "branch-" + i).toList();
+        router = newRouter(branches, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            assertThatThrownBy(() -> router.gather(() -> {
+                threads.add(Thread.currentThread());
+                if (Thread.currentThread() != caller) {
+                    await(release);
+                }
+                return List.of(BranchContext.current());
+            })).isInstanceOf(ServiceOverloadedException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(threads).doesNotContain(caller);
+    }
+
+    @Test
+    void singleBranchRunsOnTheCaller() {
+        router = newRouter(List.of("main"), 2);
+
+        List<String> result = router.gather(() -> List.of(Thread.currentThread().getName()));
+
+        assertThat(result).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void forEachShardRunsAsTheShardsRepresentativeBranch() {
+        router = newRouter(List.of("north", "south"), 2);
+        when(shardRegistry.shardNames()).thenReturn(List.of("primary", "second"));
+        when(shardRegistry.representativeBranch("primary")).thenReturn("north");
+        when(shardRegistry.representativeBranch("second")).thenReturn("south");
+        List<String> visited = new ArrayList<>();
+
+        router.forEachShard(shard -> visited.add(shard + "@" + BranchContext.current()));
+
+        assertThat(visited).containsExactly("primary@north", "second@south");
+    }
+
+    private BranchRouter newRouter(List<String> branches, int scatterThreads) {
+        when(shardRegistry.branches()).thenReturn(branches);
+        ShardingProperties properties = new ShardingProperties();
+        properties.setScatterThreads(scatterThreads);
+        return new BranchRouter(shardRegistry, properties);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
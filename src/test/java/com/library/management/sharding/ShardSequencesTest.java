@@ -0,0 +1,51 @@
+package com.library.management.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardSequencesTest {
+
+    @Test
+    void firstAboveReturnsTheNextValueWithTheShardsResidue() {
+        assertThat(ShardSequences.firstAbove(0, 1, 2)).isEqualTo(1);
+        assertThat(ShardSequences.firstAbove(0, 0, 2)).isEqualTo(2);
+        assertThat(ShardSequences.firstAbove(10, 1, 3)).isEqualTo(13);
+        assertThat(ShardSequences.firstAbove(12, 0, 3)).isEqualTo(15);
+        assertThat(ShardSequences.firstAbove(12, 1, 3)).isEqualTo(13);
+        assertThat(ShardSequences.firstAbove(41, 0, 1)).isEqualTo(42);
+    }
+
+    @Test
+    void firstAboveIsTheSmallestCandidate() {
+        for (int count = 1; count <= 5; count++) {
+            for (int residue = 0; residue < count; residue++) {
+                for (long highest = 0; highest < 50; highest++) {
+                    long start = ShardSequences.firstAbove(highest, residue, count);
+                    assertThat(start).isGreaterThan(highest).isLessThanOrEqualTo(highest + count);
+                    assertThat(Math.floorMod(start, count)).isEqualTo(residue);
+                }
+            }
+        }
+    }
+
+    @Test
+    void interleavedShardsNeverIssueTheSameId() {
+        int count = 3;
+        long highest = 1_000;
+        long[] next = new long[count];
+        for (int index = 0; index < count; index++) {
+            next[index] = ShardSequences.firstAbove(highest, (index + 1) % count, count);
+        }
+        Set<Long> issued = new HashSet<>();
+        for (int round = 0; round < 100; round++) {
+            for (int index = 0; index < count; index++) {
+                assertThat(issued.add(next[index])).isTrue();
+                next[index] += count;
+            }
+        }
+    }
+}
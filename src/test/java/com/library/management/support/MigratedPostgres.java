@@ -0,0 +1,44 @@
+package com.library.management.support;
+
+import com.library.management.sharding.ShardingProperties;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * A Postgres Testcontainer with the application's Flyway migrations applied, shared by the tests that need
+ * the real schema (partial indexes, pg_trgm, ON CONFLICT). Started on first use and stopped with the JVM;
+ * tests keep to their own rows, so they can share it.
+ */
+public final class MigratedPostgres {
+
+    private static DataSource dataSource;
+
+    private MigratedPostgres() {
+    }
+
+    public static synchronized DataSource dataSource() {
+        if (dataSource == null) {
+            PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+            postgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(postgres::stop));
+            DriverManagerDataSource started = new DriverManagerDataSource(
+                    postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+            Flyway.configure()
+                    .dataSource(started)
+                    .placeholders(Map.of("default_branch", ShardingProperties.DEFAULT_BRANCH))
+                    .load()
+                    .migrate();
+            dataSource = started;
+        }
+        return dataSource;
+    }
+
+    public static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+}
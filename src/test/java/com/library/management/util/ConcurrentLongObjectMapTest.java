@@ -0,0 +1,96 @@
+package com.library.management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentLongObjectMapTest {
+
+    @Test
+    void createsOnceAndReturnsTheSameValue() {
+        ConcurrentLongObjectMap<AtomicLong> map = new ConcurrentLongObjectMap<>(10);
+
+        AtomicLong first = map.computeIfAbsent(42, AtomicLong::new);
+        AtomicLong second = map.computeIfAbsent(42, key -> new AtomicLong(-1));
+
+        assertThat(second).isSameAs(first);
+        assertThat(map.get(42)).isSameAs(first);
+        assertThat(map.get(43)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesNewKeysOnceFull() {
+        ConcurrentLongObjectMap<AtomicLong> map = new ConcurrentLongObjectMap<>(3);
+        for (long key = 1; key <= 3; key++) {
+            assertThat(map.computeIfAbsent(key, AtomicLong::new)).isNotNull();
+        }
+
+        assertThat(map.computeIfAbsent(4, AtomicLong::new)).isNull();
+        assertThat(map.computeIfAbsent(2, AtomicLong::new)).hasValue(2);
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentInsertsShareOneValuePerKey() throws Exception {
+        ConcurrentLongObjectMap<AtomicLong> map = new ConcurrentLongObjectMap<>(5_000);
+
+        insertConcurrently(map, 8, 2_000);
+
+        assertThat(map.size()).isEqualTo(2_000);
+        for (long key = 1; key <= 2_000; key++) {
+            // Every thread incremented the one instance published for the key
+            assertThat(map.get(key)).hasValue(8);
+        }
+    }
+
+    @Test
+    void concurrentInsertsStayWithinTheBound() throws Exception {
+        ConcurrentLongObjectMap<AtomicLong> map = new ConcurrentLongObjectMap<>(1_000);
+
+        insertConcurrently(map, 8, 2_000);
+
+        int present = 0;
+        for (long key = 1; key <= 2_000; key++) {
+            if (map.get(key) != null) {
+                present++;
+            }
+        }
+        assertThat(present).isEqualTo(map.size()).isLessThanOrEqualTo(1_000).isPositive();
+    }
+
+    private static void insertConcurrently(ConcurrentLongObjectMap<AtomicLong> map, int threads, int keys)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (long key = 1; key <= keys; key++) {
+                        AtomicLong value = map.computeIfAbsent(key, k -> new AtomicLong());
+                        if (value != null) {
+                            value.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
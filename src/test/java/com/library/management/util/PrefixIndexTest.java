@@ -0,0 +1,127 @@
+package com.library.management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    @Test
+    void ranksByWeightThenByInsertionOrder() {
+        PrefixIndex index = PrefixIndex.builder()
+                .add(10, "Clean Code", "Robert Martin", 1)
+                .add(11, "Clean Architecture", "Robert Martin", 5)
+                .add(12, "The Cleaner", "Paul Cleave", 5)
+                .add(13, "Refactoring", "Martin Fowler", 9)
+                .build(10);
+
+        assertThat(bookIds(index, index.lookup("clean", 10))).containsExactly(11L, 12L, 10L);
+        assertThat(bookIds(index, index.lookup("clean", 2))).containsExactly(11L, 12L);
+    }
+
+    @Test
+    void bookMatchingSeveralWordsIsReturnedOnce() {
+        PrefixIndex index = PrefixIndex.builder()
+                .add(1, "Martin's Martian Chronicles", "Martin Martinez", 1)
+                .add(2, "Dune", "Frank Herbert", 0)
+                .build(10);
+
+        assertThat(bookIds(index, index.lookup("mar", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void trailingSpaceOnlyMatchesWholeWords() {
+        PrefixIndex index = PrefixIndex.builder()
+                .add(1, "Clean Code", "Robert Martin", 0)
+                .add(2, "The Cleaner", "Paul Cleave", 0)
+                .build(10);
+
+        String typed = PrefixIndex.normalize("Clean ", true);
+
+        assertThat(typed).isEqualTo("clean ");
+        assertThat(bookIds(index, index.lookup(typed, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void emptyPrefixOrLimitReturnsNothing() {
+        PrefixIndex index = PrefixIndex.builder().add(1, "Dune", "Frank Herbert", 0).build(10);
+
+        assertThat(index.lookup("", 10)).isEmpty();
+        assertThat(index.lookup("d", 0)).isEmpty();
+        assertThat(PrefixIndex.empty(10).lookup("d", 10)).isEmpty();
+    }
+
+    @Test
+    void prefixLongerThanEveryKeyReturnsNothing() {
+        PrefixIndex index = PrefixIndex.builder().add(1, "Dune", "Frank Herbert", 0).build(10);
+
+        assertThat(bookIds(index, index.lookup("dune", 10))).containsExactly(1L);
+        assertThat(index.lookup("dunes", 10)).isEmpty();
+        assertThat(index.lookup("dune messiah and the children of dune", 10)).isEmpty();
+    }
+
+    @Test
+    void largeRangesAnswerLikeAFullScan() {
+        int books = PrefixIndex.SCAN_LIMIT * 8;
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        long[] weights = new long[books];
+        for (int i = 0; i < books; i++) {
+            weights[i] = (i * 7919L) % 101;
+            builder.add(i, "Common Title " + i, "Author " + (i % 13), weights[i]);
+        }
+        PrefixIndex index = builder.build(10);
+
+        for (String prefix : new String[]{"c", "com", "common", "common ", "a", "author 1"}) {
+            int[] expected = IntStream.range(0, books)
+                    .filter(i -> matches(prefix, "common title " + i, "author " + (i % 13)))
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> weights[i]).reversed().thenComparing(i -> i))
+                    .limit(10)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertThat(index.lookup(prefix, 10)).as(prefix).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void keepsLettersOutsideTheBasicPlane() {
+        // DESERET CAPITAL LETTER LONG I and SHORT E, which lower-case to other supplementary letters
+        String title = "\uD801\uDC00\uD801\uDC01 Primer";
+        PrefixIndex index = PrefixIndex.builder().add(1, title, "Anon", 0).build(10);
+
+        String normalized = PrefixIndex.normalize(title, false);
+
+        assertThat(normalized).isEqualTo("\uD801\uDC28\uD801\uDC29 primer");
+        assertThat(bookIds(index, index.lookup("\uD801\uDC28", 10))).containsExactly(1L);
+        assertThat(index.title(index.lookup("primer", 10)[0])).isEqualTo(title);
+    }
+
+    @Test
+    void truncateNeverSplitsASurrogatePair() {
+        String text = "ab\uD801\uDC28cd";
+
+        assertThat(PrefixIndex.truncate(text, 3)).isEqualTo("ab\uD801\uDC28");
+        assertThat(PrefixIndex.truncate(text, 2)).isEqualTo("ab");
+        assertThat(PrefixIndex.truncate(text, 5)).isEqualTo(text);
+        assertThat(PrefixIndex.truncate(text, 10)).isEqualTo(text);
+    }
+
+    private static boolean matches(String prefix, String... fields) {
+        for (String field : fields) {
+            for (int i = 0; i < field.length(); i++) {
+                if ((i == 0 || field.charAt(i - 1) == ' ') && field.startsWith(prefix, i)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Long[] bookIds(PrefixIndex index, int[] entries) {
+        return Arrays.stream(entries).mapToObj(index::bookId).toArray(Long[]::new);
+    }
+}